@@ -0,0 +1,663 @@
+package com.github.dimitryivaniuta.gateway.codegen;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Build step that turns rule regexes into plain Java matchers ({@code GeneratedRuleScanner}).
+ *
+ * <p>Each rule becomes a static {@code int name(CharSequence in, int i, int to)} that returns the end of the match
+ * starting at {@code i}, or {@code -1}. The generated code follows the backtracking order of
+ * {@code java.util.regex} exactly: greedy runs of one character class become a counting loop that gives
+ * characters back one at a time, possessive runs do not give back, and a repeated group becomes a method that
+ * calls itself per iteration, and an alternation tries its branches in order. Lookarounds see past {@code to}, like
+ * a matcher with transparent bounds.</p>
+ *
+ * <p>Supported syntax: literals, character classes with ranges and negation, {@code \d \D \s \S \w \W},
+ * escaped punctuation, {@code (?:...)}, {@code (?i:...)} (ASCII case folding), capturing groups (captures are
+ * not reported), alternation with {@code |}, {@code (?<!x) (?<=x) (?!x) (?=x)} over a single character class, and
+ * the greedy and possessive quantifiers {@code ? * + {n} {n,} {n,m}}. Repeated groups must be bounded, must not
+ * nest, and must consume at least one character. Anything else fails the build.</p>
+ *
+ * <pre>
+ * RedactionScannerGenerator &lt;rules file&gt; &lt;output dir&gt; &lt;package&gt;
+ * </pre>
+ */
+public final class RedactionScannerGenerator {
+
+    static final String CLASS_NAME = "GeneratedRuleScanner";
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+    /** Deepest bounded group repetition; each iteration is a stack frame. */
+    private static final int MAX_GROUP_REPEAT = 64;
+
+    private RedactionScannerGenerator() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new IllegalArgumentException("usage: RedactionScannerGenerator <rules file> <output dir> <package>");
+        }
+        Path spec = Path.of(args[0]);
+        String pkg = args[2];
+        String source = generate(pkg, spec.getFileName().toString(), read(spec));
+        Path file = Path.of(args[1]).resolve(pkg.replace('.', '/')).resolve(CLASS_NAME + ".java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+    }
+
+    /** Reads {@code name = regex} lines; blank lines and {@code #} comments are skipped. */
+    static Map<String, String> read(Path spec) throws IOException {
+        Map<String, String> rules = new LinkedHashMap<>();
+        List<String> lines = Files.readAllLines(spec, StandardCharsets.UTF_8);
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            if (line.isBlank() || line.stripLeading().startsWith("#")) {
+                continue;
+            }
+            int eq = line.indexOf(" = ");
+            String name = eq < 0 ? "" : line.substring(0, eq).strip();
+            if (!name.matches("[a-z][a-zA-Z0-9]*") || rules.put(name, line.substring(eq + 3)) != null) {
+                throw new IllegalArgumentException(spec + ":" + (n + 1) + ": expected a new 'name = regex' line");
+            }
+        }
+        return rules;
+    }
+
+    static String generate(String pkg, String specName, Map<String, String> rules) {
+        Emitter e = new Emitter();
+        for (Map.Entry<String, String> rule : rules.entrySet()) {
+            Node root;
+            try {
+                root = new Parser(rule.getValue()).parse();
+                validate(root, false);
+                if (minLength(root) == 0) {
+                    throw new IllegalArgumentException("the rule can match empty text");
+                }
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("Rule '" + rule.getKey() + "': " + ex.getMessage(), ex);
+            }
+            e.rule(rule.getKey(), rule.getValue(), root);
+        }
+        return e.source(pkg, specName);
+    }
+
+    // ------------------------------------------------------------------------------------------------ syntax tree
+
+    private sealed interface Node permits CharSet, Repeat, Look, Seq, Alt {}
+
+    /** ASCII set as two 64-bit words, plus whether every non-ASCII character is in the set. */
+    private record CharSet(long lo, long hi, boolean nonAscii) implements Node {
+
+        static final CharSet EMPTY = new CharSet(0, 0, false);
+        static final CharSet DIGIT = range('0', '9');
+        static final CharSet SPACE = of(' ').union(of('\t')).union(of('\n')).union(of('\u000B')).union(of('\f')).union(of('\r'));
+        static final CharSet WORD = range('a', 'z').union(range('A', 'Z')).union(DIGIT).union(of('_'));
+
+        static CharSet of(char c) {
+            return range(c, c);
+        }
+
+        static CharSet range(char from, char to) {
+            if (to >= 128 || from > to) {
+                throw new IllegalArgumentException("only ASCII characters and ranges are supported");
+            }
+            long lo = 0;
+            long hi = 0;
+            for (char c = from; c <= to; c++) {
+                if (c < 64) lo |= 1L << c;
+                else hi |= 1L << (c - 64);
+            }
+            return new CharSet(lo, hi, false);
+        }
+
+        boolean contains(char c) {
+            return c < 64 ? (lo >>> c & 1) != 0 : c < 128 ? (hi >>> (c - 64) & 1) != 0 : nonAscii;
+        }
+
+        CharSet union(CharSet o) {
+            return new CharSet(lo | o.lo, hi | o.hi, nonAscii || o.nonAscii);
+        }
+
+        CharSet negate() {
+            return new CharSet(~lo, ~hi, !nonAscii);
+        }
+
+        /** Adds the other case of every ASCII letter, as {@code CASE_INSENSITIVE} without {@code UNICODE_CASE}. */
+        CharSet foldCase() {
+            CharSet out = this;
+            for (char c = 'a'; c <= 'z'; c++) {
+                char upper = (char) (c - 32);
+                if (contains(c) || contains(upper)) {
+                    out = out.union(of(c)).union(of(upper));
+                }
+            }
+            return out;
+        }
+
+        /** @return the set written as a regex class, for comments */
+        String describe() {
+            StringBuilder sb = new StringBuilder(nonAscii ? "[^" : "[");
+            for (int c = 0; c < 128; ) {
+                if (contains((char) c) == nonAscii) {
+                    c++;
+                    continue;
+                }
+                int end = c;
+                while (end + 1 < 128 && contains((char) (end + 1)) != nonAscii) {
+                    end++;
+                }
+                sb.append(printable(c));
+                if (end > c + 1) sb.append('-');
+                if (end > c) sb.append(printable(end));
+                c = end + 1;
+            }
+            return sb.append(']').toString();
+        }
+
+        private static String printable(int c) {
+            if (c == '\\' || c == ']' || c == '[' || c == '^' || c == '-') return "\\" + (char) c;
+            return c > ' ' && c < 127 ? String.valueOf((char) c) : String.format(Locale.ROOT, "\\x%02X", c);
+        }
+    }
+
+    private record Repeat(Node body, int min, int max, boolean possessive) implements Node {}
+
+    private record Look(CharSet set, boolean behind, boolean negate) implements Node {}
+
+    private record Seq(List<Node> items) implements Node {}
+
+    /** Branches tried in order. */
+    private record Alt(List<Seq> branches) implements Node {}
+
+    private static void validate(Node node, boolean insideRepeat) {
+        List<Node> items = switch (node) {
+            case Seq s -> s.items();
+            case Alt a -> List.copyOf(a.branches());
+            default -> List.of();
+        };
+        for (Node n : items) {
+            if (n instanceof Seq || n instanceof Alt) {
+                validate(n, insideRepeat);
+            } else if (n instanceof Repeat r && r.body() instanceof Seq body) {
+                if (insideRepeat) {
+                    throw new IllegalArgumentException("nested repeated groups are not supported");
+                }
+                if (r.possessive()) {
+                    throw new IllegalArgumentException("possessive repeated groups are not supported");
+                }
+                if (r.max() > MAX_GROUP_REPEAT) {
+                    throw new IllegalArgumentException("repeated groups need an upper bound of at most " + MAX_GROUP_REPEAT);
+                }
+                if (minLength(body) == 0) {
+                    throw new IllegalArgumentException("a repeated group must consume at least one character");
+                }
+                validate(body, true);
+            }
+        }
+    }
+
+    private static long minLength(Node n) {
+        return switch (n) {
+            case CharSet s -> 1;
+            case Look l -> 0;
+            case Repeat r -> r.min() * minLength(r.body());
+            case Seq s -> s.items().stream().mapToLong(RedactionScannerGenerator::minLength).sum();
+            case Alt a -> a.branches().stream().mapToLong(RedactionScannerGenerator::minLength).min().orElse(0);
+        };
+    }
+
+    /** Adds the characters a match of {@code n} can start with to {@code acc[0]}; @return whether {@code n} can be empty */
+    private static boolean first(Node n, CharSet[] acc) {
+        switch (n) {
+            case CharSet s -> {
+                acc[0] = acc[0].union(s);
+                return false;
+            }
+            case Look l -> {
+                return true;
+            }
+            case Repeat r -> {
+                return first(r.body(), acc) || r.min() == 0;
+            }
+            case Seq s -> {
+                for (Node item : s.items()) {
+                    if (!first(item, acc)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+            case Alt a -> {
+                boolean empty = false;
+                for (Seq branch : a.branches()) {
+                    empty |= first(branch, acc);
+                }
+                return empty;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------ parser
+
+    private static final class Parser {
+
+        private final String re;
+        private int pos;
+        private boolean caseInsensitive;
+
+        Parser(String re) {
+            this.re = re;
+        }
+
+        Node parse() {
+            Node seq = alternation();
+            if (pos < re.length()) {
+                throw error("unbalanced ')'");
+            }
+            return seq;
+        }
+
+        /** @return a {@link Seq}, or an {@link Alt} when there is more than one branch */
+        private Node alternation() {
+            List<Seq> branches = new ArrayList<>();
+            branches.add(sequence());
+            while (pos < re.length() && re.charAt(pos) == '|') {
+                pos++;
+                branches.add(sequence());
+            }
+            return branches.size() == 1 ? branches.getFirst() : new Alt(List.copyOf(branches));
+        }
+
+        private Seq sequence() {
+            List<Node> items = new ArrayList<>();
+            while (pos < re.length() && re.charAt(pos) != ')' && re.charAt(pos) != '|') {
+                Node atom = quantifier(atom());
+                if (atom instanceof Seq group) {
+                    items.addAll(group.items());
+                } else {
+                    items.add(atom);
+                }
+            }
+            return new Seq(List.copyOf(items));
+        }
+
+        private Node atom() {
+            char c = re.charAt(pos++);
+            return switch (c) {
+                case '(' -> group();
+                case '[' -> charClass();
+                case '\\' -> escape(false);
+                case '.', '^', '$', '*', '+', '?', '{', '}', ']' -> throw error("'" + c + "' is not supported here");
+                default -> literal(c);
+            };
+        }
+
+        private Node group() {
+            boolean saved = caseInsensitive;
+            if (re.startsWith("?<!", pos) || re.startsWith("?<=", pos) || re.startsWith("?!", pos) || re.startsWith("?=", pos)) {
+                boolean behind = re.charAt(pos + 1) == '<';
+                boolean negate = re.charAt(pos + (behind ? 2 : 1)) == '!';
+                pos += behind ? 3 : 2;
+                Node look = alternation();
+                expect(')');
+                if (!(look instanceof Seq body) || body.items().size() != 1
+                        || !(body.items().getFirst() instanceof CharSet set)) {
+                    throw error("lookarounds must hold a single character class");
+                }
+                return new Look(set, behind, negate);
+            }
+            if (re.startsWith("?i:", pos)) {
+                pos += 3;
+                caseInsensitive = true;
+            } else if (re.startsWith("?:", pos)) {
+                pos += 2;
+            } else if (re.startsWith("?", pos)) {
+                throw error("unsupported group construct");
+            }
+            Node body = alternation();
+            expect(')');
+            caseInsensitive = saved;
+            return body;
+        }
+
+        private CharSet charClass() {
+            boolean negate = pos < re.length() && re.charAt(pos) == '^';
+            if (negate) {
+                pos++;
+            }
+            CharSet set = CharSet.EMPTY;
+            boolean empty = true;
+            while (true) {
+                if (pos >= re.length()) {
+                    throw error("unterminated character class");
+                }
+                char c = re.charAt(pos++);
+                if (c == ']' && !empty) {
+                    break;
+                }
+                empty = false;
+                if (c == '[' || (c == '&' && pos < re.length() && re.charAt(pos) == '&')) {
+                    throw error("nested classes and intersections are not supported");
+                }
+                CharSet item = c == '\\' ? escape(true) : literalSet(c);
+                boolean single = Long.bitCount(item.lo()) + Long.bitCount(item.hi()) == 1 && !item.nonAscii();
+                if (single && pos + 1 < re.length() && re.charAt(pos) == '-' && re.charAt(pos + 1) != ']') {
+                    pos++;
+                    char to = re.charAt(pos++);
+                    if (to == '\\') {
+                        CharSet end = escape(true);
+                        if (Long.bitCount(end.lo()) + Long.bitCount(end.hi()) != 1 || end.nonAscii()) {
+                            throw error("invalid range end");
+                        }
+                        to = (char) (end.lo() != 0 ? Long.numberOfTrailingZeros(end.lo()) : 64 + Long.numberOfTrailingZeros(end.hi()));
+                    }
+                    char from = (char) (item.lo() != 0 ? Long.numberOfTrailingZeros(item.lo()) : 64 + Long.numberOfTrailingZeros(item.hi()));
+                    item = CharSet.range(from, to);
+                }
+                set = set.union(item);
+            }
+            if (caseInsensitive) {
+                set = set.foldCase();
+            }
+            return negate ? set.negate() : set;
+        }
+
+        private CharSet escape(boolean inClass) {
+            if (pos >= re.length()) {
+                throw error("dangling '\\'");
+            }
+            char c = re.charAt(pos++);
+            return switch (c) {
+                case 'd' -> CharSet.DIGIT;
+                case 'D' -> CharSet.DIGIT.negate();
+                case 's' -> CharSet.SPACE;
+                case 'S' -> CharSet.SPACE.negate();
+                case 'w' -> CharSet.WORD;
+                case 'W' -> CharSet.WORD.negate();
+                case 't' -> CharSet.of('\t');
+                case 'n' -> CharSet.of('\n');
+                case 'r' -> CharSet.of('\r');
+                case 'f' -> CharSet.of('\f');
+                default -> {
+                    if (c < 128 && !Character.isLetterOrDigit(c)) {
+                        yield inClass ? CharSet.of(c) : literal(c);
+                    }
+                    throw error("escape '\\" + c + "' is not supported");
+                }
+            };
+        }
+
+        private CharSet literal(char c) {
+            CharSet set = literalSet(c);
+            return caseInsensitive ? set.foldCase() : set;
+        }
+
+        private CharSet literalSet(char c) {
+            if (c >= 128) {
+                throw error("only ASCII literals are supported");
+            }
+            return CharSet.of(c);
+        }
+
+        private Node quantifier(Node atom) {
+            if (pos >= re.length()) {
+                return atom;
+            }
+            int min;
+            int max;
+            switch (re.charAt(pos)) {
+                case '?' -> { min = 0; max = 1; }
+                case '*' -> { min = 0; max = UNBOUNDED; }
+                case '+' -> { min = 1; max = UNBOUNDED; }
+                case '{' -> {
+                    int close = re.indexOf('}', pos);
+                    if (close < 0) {
+                        throw error("unterminated '{'");
+                    }
+                    String[] bounds = re.substring(pos + 1, close).split(",", -1);
+                    try {
+                        min = Integer.parseInt(bounds[0]);
+                        max = bounds.length == 1 ? min : bounds[1].isEmpty() ? UNBOUNDED : Integer.parseInt(bounds[1]);
+                    } catch (NumberFormatException e) {
+                        throw error("invalid repetition bounds");
+                    }
+                    if (bounds.length > 2 || max < min) {
+                        throw error("invalid repetition bounds");
+                    }
+                    pos = close;
+                }
+                default -> {
+                    return atom;
+                }
+            }
+            pos++;
+            boolean possessive = false;
+            if (pos < re.length() && re.charAt(pos) == '+') {
+                possessive = true;
+                pos++;
+            } else if (pos < re.length() && re.charAt(pos) == '?') {
+                throw error("lazy quantifiers are not supported");
+            }
+            if (atom instanceof Look) {
+                throw error("lookarounds cannot be repeated");
+            }
+            if (atom instanceof Seq s && s.items().size() == 1 && s.items().getFirst() instanceof CharSet single) {
+                atom = single;
+            } else if (atom instanceof Alt) {
+                atom = new Seq(List.of(atom));
+            }
+            return new Repeat(atom, min, max, possessive);
+        }
+
+        private void expect(char c) {
+            if (pos >= re.length() || re.charAt(pos) != c) {
+                throw error("expected '" + c + "'");
+            }
+            pos++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at index " + pos + " of " + re);
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------ code
+
+    /** Builds the expression that continues the match at a position, given that position and the loop count. */
+    private interface Cont extends BiFunction<String, String, String> {}
+
+    private static final Cont ACCEPT = (position, count) -> position;
+
+    private static final class Emitter {
+
+        private final Map<CharSet, String> sets = new LinkedHashMap<>();
+        private final StringBuilder entries = new StringBuilder();
+        /** Method sources in match order; a slot is reserved when the method is named. */
+        private final List<String> methods = new ArrayList<>();
+        private final StringBuilder constants = new StringBuilder();
+        private String rule;
+        private int next;
+
+        void rule(String name, String regex, Node root) {
+            rule = name;
+            next = 0;
+            constants.append("    static final String ").append(constant(name)).append(" = ").append(literal(regex)).append(";\n");
+
+            CharSet[] start = {CharSet.EMPTY};
+            first(root, start);
+            Cont body = sequence(root instanceof Seq seq ? seq.items() : List.of(root), 0, ACCEPT);
+            entries.append("\n")
+                    .append("    /**\n")
+                    .append("     * Matches rule {@code ").append(name).append("} ({@link #").append(constant(name)).append("}) at {@code i}.\n")
+                    .append("     *\n")
+                    .append("     * @return end of the match within {@code in[i, to)}, or {@code -1}\n")
+                    .append("     */\n")
+                    .append("    static int ").append(name).append("(CharSequence in, int i, int to) {\n")
+                    .append("        if (i >= to || !").append(set(start[0])).append("(in.charAt(i))) {\n")
+                    .append("            return -1;\n")
+                    .append("        }\n")
+                    .append("        return ").append(body.apply("i", "0")).append(";\n")
+                    .append("    }\n");
+        }
+
+        private Cont sequence(List<Node> items, int k, Cont after) {
+            if (k == items.size()) {
+                return after;
+            }
+            String name = rule + next++;
+            int slot = methods.size();
+            methods.add(null);
+            Cont rest = sequence(items, k + 1, after);
+            Node item = items.get(k);
+            if (item instanceof Repeat r && r.body() instanceof Seq body) {
+                Cont iterate = (position, count) -> name + "(in, " + position + ", to, c + 1)";
+                Cont inner = sequence(body.items(), 0, iterate);
+                method(slot, name, describe(item),
+                        (r.max() == UNBOUNDED ? "" : "        if (c < " + r.max() + ") {\n")
+                                + "            int r = " + inner.apply("i", "c") + ";\n"
+                                + "            if (r >= 0) {\n"
+                                + "                return r;\n"
+                                + "            }\n"
+                                + (r.max() == UNBOUNDED ? "" : "        }\n")
+                                + (r.min() == 0
+                                ? "        return " + rest.apply("i", "0") + ";\n"
+                                : "        return c >= " + r.min() + " ? " + rest.apply("i", "0") + " : -1;\n"));
+                return (position, count) -> name + "(in, " + position + ", to, 0)";
+            }
+            method(slot, name, describe(item), switch (item) {
+                case CharSet s -> "        if (i < to && " + set(s) + "(in.charAt(i))) {\n"
+                        + "            return " + rest.apply("i + 1", "c") + ";\n"
+                        + "        }\n"
+                        + "        return -1;\n";
+                case Look l -> {
+                    String at = l.behind() ? "i - 1" : "i";
+                    String inside = l.behind() ? "i > 0" : "i < in.length()";
+                    String hit = inside + " && " + set(l.set()) + "(in.charAt(" + at + "))";
+                    yield "        if (" + (l.negate() ? hit : "!(" + hit + ")") + ") {\n"
+                            + "            return -1;\n"
+                            + "        }\n"
+                            + "        return " + rest.apply("i", "c") + ";\n";
+                }
+                case Repeat r -> run((CharSet) r.body(), r, rest);
+                case Alt a -> {
+                    StringBuilder code = new StringBuilder("        int r;\n");
+                    for (Seq branch : a.branches()) {
+                        String call = sequence(branch.items(), 0, rest).apply("i", "c");
+                        code.append("        if ((r = ").append(call).append(") >= 0) {\n")
+                                .append("            return r;\n")
+                                .append("        }\n");
+                    }
+                    yield code.append("        return -1;\n").toString();
+                }
+                case Seq s -> throw new IllegalStateException("groups are flattened by the parser");
+            });
+            return (position, count) -> name + "(in, " + position + ", to, " + count + ")";
+        }
+
+        /** Run of one character class: count greedily, then give characters back unless possessive. */
+        private String run(CharSet s, Repeat r, Cont rest) {
+            StringBuilder code = new StringBuilder("        int n = 0;\n        while (");
+            if (r.max() != UNBOUNDED) {
+                code.append("n < ").append(r.max()).append(" && ");
+            }
+            code.append("i + n < to && ").append(set(s)).append("(in.charAt(i + n))) {\n")
+                    .append("            n++;\n")
+                    .append("        }\n");
+            if (r.min() > 0) {
+                code.append("        if (n < ").append(r.min()).append(") {\n")
+                        .append("            return -1;\n")
+                        .append("        }\n");
+            }
+            if (r.possessive() || rest == ACCEPT) {
+                return code.append("        return ").append(rest.apply("i + n", "c")).append(";\n").toString();
+            }
+            return code.append("        for (int j = n; j >= ").append(r.min()).append("; j--) {\n")
+                    .append("            int r = ").append(rest.apply("i + j", "c")).append(";\n")
+                    .append("            if (r >= 0) {\n")
+                    .append("                return r;\n")
+                    .append("            }\n")
+                    .append("        }\n")
+                    .append("        return -1;\n")
+                    .toString();
+        }
+
+        private void method(int slot, String name, String comment, String body) {
+            methods.set(slot, "\n"
+                    + "    // " + comment + "\n"
+                    + "    private static int " + name + "(CharSequence in, int i, int to, int c) {\n"
+                    + body
+                    + "    }\n");
+        }
+
+        /** @return name of the membership test for {@code s}, declaring it on first use */
+        private String set(CharSet s) {
+            return sets.computeIfAbsent(s, k -> "in" + sets.size());
+        }
+
+        String source(String pkg, String specName) {
+            StringBuilder out = new StringBuilder()
+                    .append("package ").append(pkg).append(";\n\n")
+                    .append("/**\n")
+                    .append(" * Matchers generated from {@code ").append(specName).append("} by {@code RedactionScannerGenerator}; do not edit.\n")
+                    .append(" */\n")
+                    .append("final class ").append(CLASS_NAME).append(" {\n\n")
+                    .append(constants)
+                    .append("\n    private ").append(CLASS_NAME).append("() {}\n")
+                    .append(entries);
+            methods.forEach(out::append);
+            for (Map.Entry<CharSet, String> e : sets.entrySet()) {
+                CharSet s = e.getKey();
+                out.append("\n")
+                        .append("    // ").append(comment(s.describe())).append("\n")
+                        .append("    private static boolean ").append(e.getValue()).append("(char ch) {\n")
+                        .append("        return ch < 64 ? (0x").append(Long.toHexString(s.lo())).append("L >>> ch & 1) != 0\n")
+                        .append("                : ch < 128 ? (0x").append(Long.toHexString(s.hi())).append("L >>> (ch - 64) & 1) != 0 : ")
+                        .append(s.nonAscii()).append(";\n")
+                        .append("    }\n");
+            }
+            return out.append("}\n").toString();
+        }
+
+        private static String describe(Node n) {
+            return comment(switch (n) {
+                case CharSet s -> s.describe();
+                case Look l -> "(?" + (l.behind() ? "<" : "") + (l.negate() ? "!" : "=") + l.set().describe() + ")";
+                case Repeat r -> (r.body() instanceof CharSet s ? s.describe() : "(?:...)")
+                        + "{" + r.min() + "," + (r.max() == UNBOUNDED ? "" : r.max()) + "}" + (r.possessive() ? "+" : "");
+                case Seq s -> "(?:...)";
+                case Alt a -> "(?:...|...)";
+            });
+        }
+
+        /** Keeps text safe inside a line comment: no unicode escapes for javac to decode. */
+        private static String comment(String text) {
+            return text.replace("\\u", "\\\\u");
+        }
+
+        private static String constant(String name) {
+            return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT) + "_REGEX";
+        }
+
+        private static String literal(String s) {
+            StringBuilder sb = new StringBuilder("\"");
+            for (char c : s.toCharArray()) {
+                switch (c) {
+                    case '\\' -> sb.append("\\\\");
+                    case '"' -> sb.append("\\\"");
+                    default -> {
+                        if (c >= ' ' && c < 127) sb.append(c);
+                        else sb.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    }
+                }
+            }
+            return sb.append('"').toString();
+        }
+    }
+}
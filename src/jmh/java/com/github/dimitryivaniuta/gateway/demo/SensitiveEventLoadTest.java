@@ -0,0 +1,140 @@
+package com.github.dimitryivaniuta.gateway.demo;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load against a running gateway, by default {@code POST /api/demo/sensitive-event}: every call
+ * stores an encrypted, hash-chained audit row over JDBC, so it shows how the server handles blocking database work.
+ *
+ * <p>Each of {@code concurrency} clients, one virtual thread apiece, sends its next request as soon as the previous
+ * one returns. After the warm-up, latencies go to an HdrHistogram; the run prints throughput, latency percentiles
+ * and the number of non-2xx responses and I/O errors. Run it once against a server started with
+ * {@code --spring.threads.virtual.enabled=false} and once with {@code true} to compare the two request models.</p>
+ *
+ * <pre>
+ * gradle loadTest [-Pbase=http://localhost:8080] [-Ppath=/api/demo/sensitive-event] [-Pconcurrency=200]
+ *                 [-Pseconds=30] [-PwarmupSeconds=10]
+ * </pre>
+ */
+public final class SensitiveEventLoadTest {
+
+    static final String PAYLOAD = "{\"email\":\"load.test@example.com\",\"phone\":\"+1 202 555 0143\","
+            + "\"cardNumber\":\"4111 1111 1111 1111\",\"message\":\"load test\"}";
+
+    private SensitiveEventLoadTest() {}
+
+    /** Totals printed at the end of a run. */
+    public record Report(String path, int concurrency, long requests, long non2xx, long errors, long nanos,
+                         Histogram latencyMicros) {
+
+        /** @return completed requests per second, errors included */
+        public double requestsPerSecond() {
+            return nanos == 0 ? 0 : requests / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%s: concurrency=%d requests=%,d rps=%.1f p50Ms=%.2f p90Ms=%.2f p99Ms=%.2f maxMs=%.2f "
+                            + "non2xx=%d errors=%d",
+                    path, concurrency, requests, requestsPerSecond(), millis(50), millis(90), millis(99),
+                    latencyMicros.getMaxValue() / 1_000.0, non2xx, errors);
+        }
+
+        private double millis(double percentile) {
+            return latencyMicros.getValueAtPercentile(percentile) / 1_000.0;
+        }
+    }
+
+    /**
+     * Usage: {@code SensitiveEventLoadTest <baseUrl> [path] [concurrency] [seconds] [warmupSeconds]}.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 1 || args.length > 5) {
+            System.err.println("usage: SensitiveEventLoadTest <baseUrl> [path] [concurrency] [seconds] [warmupSeconds]");
+            System.exit(2);
+        }
+        String path = args.length > 1 ? args[1] : "/api/demo/sensitive-event";
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        Duration duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 30);
+        Duration warmup = Duration.ofSeconds(args.length > 4 ? Long.parseLong(args[4]) : 10);
+
+        System.out.println(run(URI.create(args[0]).resolve(path), concurrency, warmup, duration));
+    }
+
+    /**
+     * Sends requests to {@code target} from {@code concurrency} clients for {@code warmup} plus {@code duration}.
+     *
+     * @return totals of the measured part of the run
+     */
+    public static Report run(URI target, int concurrency, Duration warmup, Duration duration)
+            throws InterruptedException {
+        if (concurrency <= 0 || duration.isNegative() || duration.isZero() || warmup.isNegative()) {
+            throw new IllegalArgumentException("concurrency and duration must be positive");
+        }
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(PAYLOAD))
+                .build();
+        Recorder latencyMicros = new Recorder(3);
+        LongAdder requests = new LongAdder();
+        LongAdder non2xx = new LongAdder();
+        LongAdder errors = new LongAdder();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(5)).build()) {
+            long measureFrom = System.nanoTime() + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            for (int i = 0; i < concurrency; i++) {
+                clients.execute(() -> {
+                    while (!Thread.currentThread().isInterrupted()) {
+                        long start = System.nanoTime();
+                        if (start >= end) {
+                            return;
+                        }
+                        int status;
+                        try {
+                            status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (IOException e) {
+                            status = -1;
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        long done = System.nanoTime();
+                        if (start < measureFrom || done > end) {
+                            continue;
+                        }
+                        latencyMicros.recordValue((done - start) / 1_000);
+                        requests.increment();
+                        if (status < 0) {
+                            errors.increment();
+                        } else if (status / 100 != 2) {
+                            non2xx.increment();
+                        }
+                    }
+                });
+            }
+            clients.shutdown();
+            if (!clients.awaitTermination(warmup.plus(duration).toSeconds() + 60, TimeUnit.SECONDS)) {
+                clients.shutdownNow();
+            }
+        }
+        return new Report(target.getPath(), concurrency, requests.sum(), non2xx.sum(), errors.sum(),
+                duration.toNanos(), latencyMicros.getIntervalHistogram());
+    }
+}
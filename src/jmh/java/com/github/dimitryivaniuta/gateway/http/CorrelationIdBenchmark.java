@@ -0,0 +1,53 @@
+package com.github.dimitryivaniuta.gateway.http;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a new correlation id from {@link CorrelationIdGenerator#RANDOM_UUID} versus {@link UlidGenerator} as
+ * more request threads ask for one at once. Each method runs the same call at a different thread count, from 1 to
+ * 64; {@code randomUUID} serializes on one {@code SecureRandom}, while the ULID generator shares nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CorrelationIdBenchmark {
+
+    @Param({"uuid", "ulid"})
+    public String generator;
+
+    private CorrelationIdGenerator ids;
+
+    @Setup
+    public void setUp() {
+        ids = "uuid".equals(generator) ? CorrelationIdGenerator.RANDOM_UUID : new UlidGenerator();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String threads01() {
+        return ids.next();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String threads04() {
+        return ids.next();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public String threads16() {
+        return ids.next();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String threads64() {
+        return ids.next();
+    }
+}
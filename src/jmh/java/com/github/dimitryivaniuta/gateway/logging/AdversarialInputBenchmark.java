@@ -0,0 +1,67 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worst-case inputs for the built-in rules at growing sizes.
+ *
+ * <p>The scan is linear when time per op grows in proportion to {@code size}: compare {@code us/op / size}
+ * across rows. The time budget is disabled here so the raw cost is measured; only the length limit is raised.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdversarialInputBenchmark {
+
+    /** Input shapes that maximise regex attempts per character. */
+    public enum Shape {
+        /** "1 2 3 ...": every digit is a possible card and phone start. */
+        DIGIT_SPACE,
+        /** Random digits and phone/card separators, no valid match. */
+        MIXED_SEPARATORS,
+        /** One long run of email local-part characters ending in '@' with no domain. */
+        EMAIL_LOCAL_RUN
+    }
+
+    @Param({"1024", "16384", "262144"})
+    public int size;
+
+    @Param
+    public Shape shape;
+
+    private String input;
+    private RedactionEngine previous;
+
+    @Setup
+    public void setUp() {
+        previous = Redactor.install(RedactionEngine.compile(BuiltinRules.defaults(),
+                new RedactionLimits(1 << 20, RedactionLimits.DEFAULTS.chunkSize(), 0)));
+        Random rnd = new Random(RedactionCorpus.SEED);
+        StringBuilder sb = new StringBuilder(size + 1);
+        while (sb.length() < size) {
+            switch (shape) {
+                case DIGIT_SPACE -> sb.append((char) ('0' + rnd.nextInt(10))).append(' ');
+                case MIXED_SEPARATORS -> sb.append((char) ('0' + rnd.nextInt(10))).append(" -.()+".charAt(rnd.nextInt(6)));
+                case EMAIL_LOCAL_RUN -> sb.append("a.b_c%d+e-");
+            }
+        }
+        sb.setLength(size - 1);
+        input = sb.append(shape == Shape.EMAIL_LOCAL_RUN ? '@' : '.').toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        Redactor.install(previous);
+    }
+
+    @Benchmark
+    public String redact() {
+        return Redactor.redact(input);
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.EchoEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producer-side cost of handing events to logback's {@code AsyncAppender} versus {@link RingBufferAsyncAppender}
+ * when many request threads log at once. Both drop on a full queue, as configured in {@code logback-spring.xml},
+ * so the score is the enqueue path rather than the speed of the downstream appender.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class AsyncAppenderBenchmark {
+
+    /** {@code logback} is {@code AsyncAppender}; the others are {@link RingBufferAsyncAppender} wait strategies. */
+    @Param({"logback", "sleeping", "blocking"})
+    public String appender;
+
+    /** {@code noop} discards events; {@code encoder} writes them through an encoder to a null stream. */
+    @Param({"noop", "encoder"})
+    public String downstream;
+
+    private final LoggerContext context = new LoggerContext();
+    private Appender<ILoggingEvent> async;
+
+    @Setup
+    public void setUp() {
+        Appender<ILoggingEvent> sink;
+        if ("encoder".equals(downstream)) {
+            OutputStreamAppender<ILoggingEvent> out = new OutputStreamAppender<>();
+            out.setEncoder(new EchoEncoder<>());
+            out.setOutputStream(OutputStream.nullOutputStream());
+            sink = out;
+        } else {
+            sink = new UnsynchronizedAppenderBase<>() {
+                @Override
+                protected void append(ILoggingEvent e) {
+                }
+            };
+        }
+        sink.setContext(context);
+        sink.setName("SINK");
+        sink.start();
+
+        if (!"logback".equals(appender)) {
+            RingBufferAsyncAppender ring = new RingBufferAsyncAppender();
+            ring.setBufferSize(8192);
+            ring.setNeverBlock(true);
+            ring.setWaitStrategy(appender);
+            ring.addAppender(sink);
+            async = ring;
+        } else {
+            AsyncAppender logback = new AsyncAppender();
+            logback.setQueueSize(8192);
+            logback.setDiscardingThreshold(0);
+            logback.setNeverBlock(true);
+            logback.addAppender(sink);
+            async = logback;
+        }
+        async.setContext(context);
+        async.setName("ASYNC_" + appender);
+        async.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        async.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class Events {
+
+        private final LoggingEvent[] events = new LoggingEvent[256];
+        private int next;
+
+        @Setup
+        public void setUp(AsyncAppenderBenchmark bench) {
+            String[] lines = RedactionCorpus.CLEAN.lines(events.length);
+            for (int i = 0; i < events.length; i++) {
+                LoggingEvent e = new LoggingEvent(AsyncAppenderBenchmark.class.getName(),
+                        bench.context.getLogger("com.github.dimitryivaniuta.gateway.http.RequestLoggingFilter"),
+                        Level.INFO, lines[i], null, null);
+                e.setMDCPropertyMap(Map.of("correlationId", "01J9Z3T0B2ZK6N8M4Q5R7S9V1W", "route", "/api/demo/log"));
+                events[i] = e;
+            }
+        }
+
+        LoggingEvent next() {
+            LoggingEvent e = events[next];
+            next = (next + 1) & (events.length - 1);
+            return e;
+        }
+    }
+
+    @Benchmark
+    public void append(Events events) {
+        async.doAppend(events.next());
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redaction with no candidate locator (whole-line regex), the scalar locator and the Vector API locator.
+ *
+ * <p>{@code scan} redacts one corpus line; {@code locate} only finds the candidate spans of an 8 KiB block, which
+ * isolates the skip loop the vector form speeds up. The {@code vector} parameter needs the JVM to run with
+ * {@code --add-modules jdk.incubator.vector} (the Gradle build adds it).</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CandidateLocatorBenchmark {
+
+    @Param({"off", "scalar", "vector"})
+    public String locator;
+
+    @Param({"CLEAN", "CARD_HEAVY", "EMAIL_HEAVY", "STACK_TRACE"})
+    public RedactionCorpus corpus;
+
+    private RedactionEngine engine;
+    private CandidateLocator candidates;
+    private String[] lines;
+    private int next;
+    private char[] block;
+    private final CandidateLocator.Spans spans = new CandidateLocator.Spans();
+    private final StringBuilder out = new StringBuilder(8192);
+
+    @Setup
+    public void setUp() {
+        candidates = switch (locator) {
+            case "off" -> null;
+            case "scalar" -> CandidateLocator.SCALAR;
+            default -> {
+                CandidateLocator v = CandidateLocator.vector();
+                if (v == null) {
+                    throw new IllegalStateException("run with --add-modules jdk.incubator.vector");
+                }
+                yield v;
+            }
+        };
+        engine = RedactionEngine.compile(BuiltinRules.defaults(), RedactionLimits.DEFAULTS, candidates);
+        lines = corpus.lines(1024);
+        StringBuilder sb = new StringBuilder(8192);
+        for (int i = 0; sb.length() < 8192; i++) {
+            sb.append(lines[i % lines.length]).append('\n');
+        }
+        block = sb.substring(0, 8192).toCharArray();
+    }
+
+    @Benchmark
+    public long scan() {
+        String line = lines[next];
+        next = (next + 1) % lines.length;
+        out.setLength(0);
+        return engine.scan(line, engine.activeRules(line), out);
+    }
+
+    @Benchmark
+    public int locate() {
+        return candidates == null ? 0 : candidates.locate(block, 0, block.length, true, 7, false, spans);
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.recovery.ResilientFileOutputStream;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
+import ch.qos.logback.core.util.FileSize;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Events per second written to a rolling file by logback's {@code RollingFileAppender} and by
+ * {@link ChannelFileAppender}, both fed in batches of 256 the way {@link RingBufferAsyncAppender} feeds them
+ * (the logback appender with immediate flush off and one flush per batch). Segments roll at 16 MB and are
+ * gzip-compressed in the background by both.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(FileAppenderBenchmark.BATCH)
+public class FileAppenderBenchmark {
+
+    static final int BATCH = 256;
+
+    @Param({"logback", "channel"})
+    public String appender;
+
+    /** Forces every batch to disk; logback has no such option, so the benchmark forces its file channel. */
+    @Param({"false", "true"})
+    public boolean syncPerBatch;
+
+    private final LoggerContext context = new LoggerContext();
+    private final ILoggingEvent[] events = new ILoggingEvent[BATCH];
+    private Path dir;
+    private RollingFileAppender<ILoggingEvent> logback;
+    private ChannelFileAppender channel;
+
+    @Setup
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("file-appender-bench");
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+
+        if ("logback".equals(appender)) {
+            logback = new RollingFileAppender<>();
+            logback.setContext(context);
+            logback.setName("ROLLING");
+            logback.setFile(dir.resolve("bench.log").toString());
+            logback.setEncoder(encoder);
+            logback.setImmediateFlush(false);
+            SizeAndTimeBasedRollingPolicy<ILoggingEvent> policy = new SizeAndTimeBasedRollingPolicy<>();
+            policy.setContext(context);
+            policy.setParent(logback);
+            policy.setFileNamePattern(dir.resolve("bench-%d{yyyyMMdd}.%i.log.gz").toString());
+            policy.setMaxFileSize(new FileSize(16 * FileSize.MB_COEFFICIENT));
+            policy.start();
+            logback.setRollingPolicy(policy);
+            logback.start();
+        } else {
+            channel = new ChannelFileAppender();
+            channel.setContext(context);
+            channel.setName("CHANNEL");
+            channel.setFile(dir.resolve("bench.log").toString());
+            channel.setEncoder(encoder);
+            channel.setMaxFileSize(new FileSize(16 * FileSize.MB_COEFFICIENT));
+            channel.setSyncPerBatch(syncPerBatch);
+            channel.start();
+        }
+
+        String[] lines = RedactionCorpus.CLEAN.lines(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            LoggingEvent e = new LoggingEvent(FileAppenderBenchmark.class.getName(),
+                    context.getLogger("com.github.dimitryivaniuta.gateway.http.RequestLoggingFilter"), Level.INFO,
+                    lines[i], null, null);
+            e.setMDCPropertyMap(Map.of());
+            e.prepareForDeferredProcessing();
+            events[i] = e;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (logback != null) {
+            logback.stop();
+        } else {
+            channel.stop();
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void writeBatch() throws IOException {
+        if (logback != null) {
+            for (ILoggingEvent e : events) {
+                logback.doAppend(e);
+            }
+            logback.getOutputStream().flush();
+            if (syncPerBatch) {
+                ((ResilientFileOutputStream) logback.getOutputStream()).getChannel().force(false);
+            }
+        } else {
+            channel.beginBatch();
+            for (ILoggingEvent e : events) {
+                channel.doAppend(e);
+            }
+            channel.endOfBatch();
+        }
+    }
+}
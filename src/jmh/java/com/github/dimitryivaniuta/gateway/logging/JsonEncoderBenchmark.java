@@ -0,0 +1,131 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.joran.spi.JoranException;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes one event with the {@code LoggingEventCompositeJsonEncoder} setup that {@code logback-spring.xml} used
+ * before ({@code composite}) and with {@link RedactingJsonEncoder} ({@code direct}), which writes the same bytes.
+ * Events carry two MDC entries, one of them trusted; {@code gc.alloc.rate.norm} is the allocation per event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonEncoderBenchmark {
+
+    private static final String CONFIG = """
+            <configuration>
+                <conversionRule conversionWord="redactedMessage"
+                                converterClass="com.github.dimitryivaniuta.gateway.logging.RedactedMessageConverter"/>
+                <conversionRule conversionWord="redactedException"
+                                converterClass="com.github.dimitryivaniuta.gateway.logging.RedactedThrowableConverter"/>
+                <appender name="composite" class="ch.qos.logback.core.ConsoleAppender">
+                    <encoder class="net.logstash.logback.encoder.LoggingEventCompositeJsonEncoder">
+                        <providers>
+                            <timestamp><timeZone>UTC</timeZone></timestamp>
+                            <logLevel/>
+                            <loggerName/>
+                            <threadName/>
+                            <provider class="com.github.dimitryivaniuta.gateway.logging.RedactingMdcJsonProvider">
+                                <trustedKey>correlationId</trustedKey>
+                            </provider>
+                            <pattern>
+                                <pattern>{"message":"%redactedMessage","exception":"%redactedException"}</pattern>
+                            </pattern>
+                        </providers>
+                    </encoder>
+                </appender>
+                <appender name="direct" class="ch.qos.logback.core.ConsoleAppender">
+                    <encoder class="com.github.dimitryivaniuta.gateway.logging.RedactingJsonEncoder">
+                        <trustedKey>correlationId</trustedKey>
+                    </encoder>
+                </appender>
+                <root level="OFF">
+                    <appender-ref ref="composite"/>
+                    <appender-ref ref="direct"/>
+                </root>
+            </configuration>
+            """;
+
+    @Param({"CLEAN", "EMAIL_HEAVY", "STACK_TRACE"})
+    public RedactionCorpus corpus;
+
+    @Param({"composite", "direct"})
+    public String encoder;
+
+    private final LoggerContext context = new LoggerContext();
+    private Encoder<ILoggingEvent> json;
+    private ILoggingEvent[] events;
+    private ILoggingEvent templatedEvent;
+    private ILoggingEvent throwableEvent;
+    private int next;
+
+    @Setup
+    public void setUp() throws JoranException {
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(new ByteArrayInputStream(CONFIG.getBytes(StandardCharsets.UTF_8)));
+        @SuppressWarnings("unchecked")
+        OutputStreamAppender<ILoggingEvent> appender =
+                (OutputStreamAppender<ILoggingEvent>) context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender(encoder);
+        json = appender.getEncoder();
+
+        String[] lines = corpus.lines(1024);
+        events = new ILoggingEvent[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            events[i] = event(lines[i], null, null);
+        }
+        templatedEvent = event("demo_payload email={} phone={} card={} message={} requestId={} attempt={}", null,
+                new Object[]{"john.doe@example.com", "+48 500 600 700", "4111 1111 1111 1111", "hello",
+                        UUID.randomUUID(), 3});
+        throwableEvent = event("internal_error", RedactionCorpus.throwable(60), null);
+    }
+
+    private ILoggingEvent event(String message, Throwable t, Object[] args) {
+        LoggingEvent e = new LoggingEvent(JsonEncoderBenchmark.class.getName(),
+                context.getLogger("com.github.dimitryivaniuta.gateway.http.RequestLoggingFilter"), Level.INFO,
+                message, t, args);
+        e.setMDCPropertyMap(Map.of("correlationId", UUID.randomUUID().toString(), "route", "/api/demo/log"));
+        e.prepareForDeferredProcessing();
+        return e;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        ILoggingEvent e = events[next];
+        next = (next + 1) & (events.length - 1);
+        return json.encode(e);
+    }
+
+    @Benchmark
+    public byte[] encodeTemplated() {
+        return json.encode(templatedEvent);
+    }
+
+    @Benchmark
+    public byte[] encodeThrowable() {
+        return json.encode(throwableEvent);
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.dimitryivaniuta.gateway.config.LoggingProperties;
+import com.github.dimitryivaniuta.gateway.metrics.MicrometerRedactionObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the logback integration points: message and throwable converters and the MDC JSON provider.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogbackConverterBenchmark {
+
+    @Param({"CLEAN", "EMAIL_HEAVY", "CARD_HEAVY"})
+    public RedactionCorpus corpus;
+
+    /** Metrics sampling rate; {@code 0} runs without an observer, to measure telemetry overhead. */
+    @Param({"0", "0.01"})
+    public double sampleRate;
+
+    private final LoggerContext context = new LoggerContext();
+    private final RedactedMessageConverter messageConverter = new RedactedMessageConverter();
+    private final RedactedThrowableConverter throwableConverter = new RedactedThrowableConverter();
+    private final RedactingMdcJsonProvider mdcProvider = new RedactingMdcJsonProvider();
+
+    private LoggingEvent[] events;
+    private LoggingEvent templatedEvent;
+    private LoggingEvent throwableEvent;
+    private JsonGenerator generator;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (sampleRate > 0) {
+            RedactionTelemetry.install(new MicrometerRedactionObserver(new SimpleMeterRegistry(),
+                    new LoggingProperties.Metrics(true, sampleRate, 100)));
+        }
+        messageConverter.setContext(context);
+        messageConverter.start();
+        throwableConverter.setContext(context);
+        throwableConverter.start();
+        mdcProvider.setContext(context);
+        mdcProvider.setFieldName("mdc");
+        mdcProvider.addTrustedKey("correlationId");
+        mdcProvider.start();
+
+        String[] lines = corpus.lines(1024);
+        events = new LoggingEvent[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            LoggingEvent e = event(lines[i], null);
+            e.setMDCPropertyMap(Map.of(
+                    "correlationId", UUID.randomUUID().toString(),
+                    "route", "/api/demo/log",
+                    "userEmail", i % 10 == 0 ? "mdc.user@example.com" : "anonymous"));
+            events[i] = e;
+        }
+        templatedEvent = new LoggingEvent(LogbackConverterBenchmark.class.getName(), context.getLogger("demo"), Level.INFO,
+                "demo_payload email={} phone={} card={} message={} requestId={} attempt={}", null,
+                new Object[]{"john.doe@example.com", "+48 500 600 700", "4111 1111 1111 1111", "hello",
+                        UUID.randomUUID(), 3});
+        throwableEvent = event("internal_error", RedactionCorpus.throwable(60));
+        generator = new JsonFactory().createGenerator(OutputStream.nullOutputStream());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        generator.close();
+        RedactionTelemetry.uninstall();
+    }
+
+    private LoggingEvent event(String message, Throwable t) {
+        return new LoggingEvent(LogbackConverterBenchmark.class.getName(),
+                context.getLogger("com.github.dimitryivaniuta.gateway.http.RequestLoggingFilter"), Level.INFO, message, t, null);
+    }
+
+    private LoggingEvent nextEvent() {
+        LoggingEvent e = events[next];
+        next = (next + 1) % events.length;
+        return e;
+    }
+
+    @Benchmark
+    public String messageConverter() {
+        return messageConverter.convert(nextEvent());
+    }
+
+    /** Parameterized message: only the argument values are scanned. */
+    @Benchmark
+    public String templatedMessageConverter() {
+        return messageConverter.convert(templatedEvent);
+    }
+
+    @Benchmark
+    public String throwableConverter() {
+        return throwableConverter.convert(throwableEvent);
+    }
+
+    @Benchmark
+    public JsonGenerator mdcProvider() throws IOException {
+        generator.writeStartObject();
+        mdcProvider.writeTo(generator, nextEvent());
+        generator.writeEndObject();
+        return generator;
+    }
+}
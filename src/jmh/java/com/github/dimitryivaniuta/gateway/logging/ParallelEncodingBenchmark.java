@@ -0,0 +1,88 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.joran.spi.JoranException;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes one async batch (256 events) with the JSON encoder of {@code logback-spring.xml} on 1 to 8 threads,
+ * through {@link OrderedEncodingStage}. {@code workers=1} is the single consumer thread of a plain async appender;
+ * the speed-up of the others is bounded by the number of cores.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelEncodingBenchmark {
+
+    private static final String CONFIG = """
+            <configuration>
+                <appender name="JSON" class="ch.qos.logback.core.ConsoleAppender">
+                    <encoder class="com.github.dimitryivaniuta.gateway.logging.RedactingJsonEncoder">
+                        <trustedKey>correlationId</trustedKey>
+                    </encoder>
+                </appender>
+                <root level="OFF">
+                    <appender-ref ref="JSON"/>
+                </root>
+            </configuration>
+            """;
+
+    @Param({"CLEAN", "EMAIL_HEAVY", "SECRET_HEAVY"})
+    public RedactionCorpus corpus;
+
+    @Param({"1", "2", "4", "8"})
+    public int workers;
+
+    private final LoggerContext context = new LoggerContext();
+    private final ILoggingEvent[] batch = new ILoggingEvent[RingBufferAsyncAppender.DEFAULT_MAX_BATCH_SIZE];
+    private final byte[][] out = new byte[batch.length][];
+    private OrderedEncodingStage stage;
+
+    @Setup
+    public void setUp() throws JoranException {
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(new ByteArrayInputStream(CONFIG.getBytes(StandardCharsets.UTF_8)));
+        @SuppressWarnings("unchecked")
+        OutputStreamAppender<ILoggingEvent> json =
+                (OutputStreamAppender<ILoggingEvent>) context.getLogger(Logger.ROOT_LOGGER_NAME).getAppender("JSON");
+        stage = new OrderedEncodingStage(json.getEncoder(), workers, "bench", json);
+
+        String[] lines = corpus.lines(batch.length);
+        for (int i = 0; i < batch.length; i++) {
+            LoggingEvent e = new LoggingEvent(ParallelEncodingBenchmark.class.getName(),
+                    context.getLogger("com.github.dimitryivaniuta.gateway.http.RequestLoggingFilter"), Level.INFO,
+                    lines[i], null, null);
+            e.setMDCPropertyMap(Map.of("correlationId", UUID.randomUUID().toString(), "route", "/api/demo/log"));
+            e.prepareForDeferredProcessing();
+            batch[i] = e;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        stage.close();
+        context.stop();
+    }
+
+    @Benchmark
+    public byte[][] encodeBatch() {
+        stage.encode(batch, batch.length, out);
+        return out;
+    }
+}
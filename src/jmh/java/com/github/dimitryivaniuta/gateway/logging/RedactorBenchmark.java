@@ -0,0 +1,50 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput, latency percentiles and allocation of {@link Redactor#redact(String)} per corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedactorBenchmark {
+
+    @Param
+    public RedactionCorpus corpus;
+
+    private String[] lines;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        lines = corpus.lines(corpus == RedactionCorpus.ADVERSARIAL_DIGITS ? 64 : 1024);
+    }
+
+    @Benchmark
+    public String redact() {
+        String line = lines[next];
+        next = (next + 1) % lines.length;
+        return Redactor.redact(line);
+    }
+
+    @Benchmark
+    public StringBuilder redactTo(ThreadBuffer buffer) {
+        String line = lines[next];
+        next = (next + 1) % lines.length;
+        buffer.sb.setLength(0);
+        Redactor.redactTo(line, buffer.sb);
+        return buffer.sb;
+    }
+
+    /** Reused output buffer, as an encoder would hold one. */
+    @State(Scope.Thread)
+    public static class ThreadBuffer {
+        final StringBuilder sb = new StringBuilder(8192);
+    }
+}
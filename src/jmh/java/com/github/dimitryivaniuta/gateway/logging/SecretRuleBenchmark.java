@@ -0,0 +1,48 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-line cost of the {@code secret} rule: the built-in rules with and without it, in the default configuration
+ * (prefilter, candidate locator and generated matchers).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecretRuleBenchmark {
+
+    @Param({"without", "with"})
+    public String secret;
+
+    @Param({"CLEAN", "CARD_HEAVY", "EMAIL_HEAVY", "STACK_TRACE", "SECRET_HEAVY"})
+    public RedactionCorpus corpus;
+
+    private RedactionEngine engine;
+    private String[] lines;
+    private int next;
+    private final StringBuilder out = new StringBuilder(8192);
+
+    @Setup
+    public void setUp() {
+        List<RedactionRule> rules = BuiltinRules.defaults();
+        if (secret.equals("without")) {
+            rules = rules.stream().filter(r -> !r.name().equals(BuiltinRules.SECRET)).toList();
+        }
+        engine = RedactionEngine.compile(rules);
+        lines = corpus.lines(1024);
+    }
+
+    @Benchmark
+    public long scan() {
+        String line = lines[next];
+        next = (next + 1) % lines.length;
+        out.setLength(0);
+        return engine.scan(line, engine.activeRules(line), out);
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the streaming redactors over a 1 MiB payload built from a corpus.
+ *
+ * <p>One operation redacts the whole payload, so {@code ops/s} reads as MiB/s. {@code gc.alloc.rate.norm}
+ * should stay flat regardless of payload size.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingRedactionBenchmark {
+
+    private static final int PAYLOAD_BYTES = 1 << 20;
+
+    @Param({"CLEAN", "CARD_HEAVY", "EMAIL_HEAVY"})
+    public RedactionCorpus corpus;
+
+    private String text;
+    private byte[] utf8;
+    private final char[] buffer = new char[8192];
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(PAYLOAD_BYTES);
+        String[] lines = corpus.lines(1024);
+        for (int i = 0; sb.length() < PAYLOAD_BYTES; i++) {
+            sb.append(lines[i % lines.length]).append('\n');
+        }
+        sb.setLength(PAYLOAD_BYTES);
+        text = sb.toString();
+        utf8 = text.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public Writer writer() throws IOException {
+        Writer w = new RedactingWriter(Writer.nullWriter());
+        w.write(text);
+        w.close();
+        return w;
+    }
+
+    @Benchmark
+    public OutputStream outputStream() throws IOException {
+        OutputStream out = new RedactingOutputStream(OutputStream.nullOutputStream());
+        out.write(utf8);
+        out.close();
+        return out;
+    }
+
+    @Benchmark
+    public long reader() throws IOException {
+        long total = 0;
+        try (Reader r = new RedactingReader(new StringReader(text))) {
+            for (int n; (n = r.read(buffer)) >= 0; ) {
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    /** Baseline: decoding the same bytes without redaction. */
+    @Benchmark
+    public long plainReader() throws IOException {
+        long total = 0;
+        try (Reader r = new InputStreamReader(new ByteArrayInputStream(utf8), StandardCharsets.UTF_8)) {
+            for (int n; (n = r.read(buffer)) >= 0; ) {
+                total += n;
+            }
+        }
+        return total;
+    }
+}
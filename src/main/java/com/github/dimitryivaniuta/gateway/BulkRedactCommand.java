@@ -0,0 +1,219 @@
+package com.github.dimitryivaniuta.gateway;
+
+import com.github.dimitryivaniuta.gateway.logging.BuiltinRules;
+import com.github.dimitryivaniuta.gateway.logging.RedactionEngine;
+import com.github.dimitryivaniuta.gateway.logging.RedactionLimits;
+import com.github.dimitryivaniuta.gateway.logging.Redactor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Offline redaction of existing log files (for example NDJSON written before this pipeline existed).
+ *
+ * <p>The input is split into chunks on line boundaries; each chunk is memory-mapped and redacted line by line
+ * on a {@link ForkJoinPool}, and chunks are written out in their original order. At most two chunks per thread
+ * are in flight, so memory stays bounded for inputs of any size. Lines without anything to redact are copied
+ * byte for byte.</p>
+ *
+ * <pre>
+ * gradle redactLogs -Pin=app.log -Pout=app.redacted.log [-Pthreads=8] [-PchunkMb=8]
+ * </pre>
+ *
+ * <p>Uses the built-in rules; configured rules need the Spring context and are not applied. Lines are not
+ * subject to the per-message length limit of the logging pipeline.</p>
+ */
+public final class BulkRedactCommand {
+
+    private BulkRedactCommand() {}
+
+    /**
+     * @param input      file to read
+     * @param output     file to (over)write
+     * @param threads    worker threads
+     * @param chunkBytes target chunk size; a chunk always ends at a line break, so it may be longer
+     */
+    public record Options(Path input, Path output, int threads, int chunkBytes) {
+
+        public Options {
+            if (threads <= 0 || chunkBytes <= 0) {
+                throw new IllegalArgumentException("threads and chunk size must be positive");
+            }
+        }
+    }
+
+    /** Totals printed at the end of a run. */
+    public record Report(long bytesIn, long bytesOut, long lines, long redactedLines, int chunks, int threads, long nanos) {
+
+        /** @return input throughput in MiB/s */
+        public double mibPerSecond() {
+            return nanos == 0 ? 0 : bytesIn / (1024.0 * 1024.0) / (nanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "redacted %,d of %,d lines, %,d -> %,d bytes in %,d chunks, %d threads, %.2fs (%.1f MiB/s)",
+                    redactedLines, lines, bytesIn, bytesOut, chunks, threads, nanos / 1e9, mibPerSecond());
+        }
+    }
+
+    /**
+     * Usage: {@code BulkRedactCommand <input> <output> [threads] [chunkMb]}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("usage: BulkRedactCommand <input> <output> [threads] [chunkMb]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int chunkMb = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        Redactor.install(RedactionEngine.compile(BuiltinRules.defaults(),
+                new RedactionLimits(Integer.MAX_VALUE, RedactionLimits.DEFAULTS.chunkSize(), 0)));
+
+        Report report = run(new Options(Path.of(args[0]), Path.of(args[1]), threads, Math.toIntExact((long) chunkMb << 20)));
+        System.out.println(report);
+    }
+
+    /**
+     * Redacts {@code options.input()} into {@code options.output()} with the engine installed in {@link Redactor}.
+     *
+     * @return totals of the run
+     */
+    public static Report run(Options options) throws IOException {
+        long t0 = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(options.threads());
+        try (FileChannel in = FileChannel.open(options.input(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(options.output(), StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            int maxInFlight = 2 * options.threads();
+            Deque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>(maxInFlight);
+            long bytesOut = 0;
+            long lines = 0;
+            long redacted = 0;
+            int chunks = 0;
+            long start = 0;
+            while (start < size || !inFlight.isEmpty()) {
+                while (start < size && inFlight.size() < maxInFlight) {
+                    long end = lineBoundary(in, Math.min(size, start + options.chunkBytes()), size);
+                    MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                    inFlight.add(pool.submit(() -> redactChunk(mapped)));
+                    start = end;
+                }
+                Chunk c = inFlight.poll().join();
+                ByteBuffer buf = ByteBuffer.wrap(c.bytes, 0, c.length);
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+                bytesOut += c.length;
+                lines += c.lines;
+                redacted += c.redactedLines;
+                chunks++;
+            }
+            return new Report(size, bytesOut, lines, redacted, chunks, options.threads(), System.nanoTime() - t0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** @return offset just past the first line break at or after {@code from}, or {@code size} */
+    static long lineBoundary(FileChannel in, long from, long size) throws IOException {
+        if (from >= size) {
+            return size;
+        }
+        ByteBuffer probe = ByteBuffer.allocate(64 * 1024);
+        for (long pos = from; pos < size; ) {
+            probe.clear();
+            int n = in.read(probe, pos);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    private record Chunk(byte[] bytes, int length, long lines, long redactedLines) {}
+
+    private static Chunk redactChunk(MappedByteBuffer mapped) {
+        int n = mapped.remaining();
+        byte[] src = new byte[n];
+        mapped.get(src);
+        Output out = new Output(n + n / 16);
+        long lines = 0;
+        long redacted = 0;
+        for (int lineStart = 0; lineStart < n; ) {
+            int nl = indexOf(src, (byte) '\n', lineStart, n);
+            int lineEnd = nl < 0 ? n : nl;
+            String line = new String(src, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+            String clean = Redactor.redact(line);
+            if (clean == line || line.isBlank()) {
+                out.write(src, lineStart, lineEnd - lineStart);
+            } else {
+                byte[] b = clean.getBytes(StandardCharsets.UTF_8);
+                out.write(b, 0, b.length);
+                redacted++;
+            }
+            if (nl >= 0) {
+                out.write('\n');
+            }
+            lines++;
+            lineStart = lineEnd + 1;
+        }
+        return new Chunk(out.bytes, out.length, lines, redacted);
+    }
+
+    private static int indexOf(byte[] a, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (a[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Growable byte buffer whose array is handed to the writer without a copy. */
+    private static final class Output {
+
+        byte[] bytes;
+        int length;
+
+        Output(int capacity) {
+            bytes = new byte[Math.max(capacity, 16)];
+        }
+
+        void write(int b) {
+            ensure(1);
+            bytes[length++] = (byte) b;
+        }
+
+        void write(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, bytes, length, len);
+            length += len;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
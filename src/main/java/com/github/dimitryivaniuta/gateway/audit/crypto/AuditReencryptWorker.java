@@ -1,5 +1,9 @@
 package com.github.dimitryivaniuta.gateway.audit.crypto;
 
+import com.github.dimitryivaniuta.gateway.http.CorrelationIdFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -9,12 +13,17 @@ import java.time.Duration;
 
 /**
  * Background worker that processes re-encryption jobs in small throttled batches.
+ *
+ * <p>Each tick logs with the job id as its correlation id, so all batches of one job can be found together. The
+ * throttle sleeps; on a virtual thread ({@code spring.threads.virtual.enabled}) that does not hold a carrier.</p>
  */
 @Component
 @EnableScheduling
 @Profile("!test")
 public class AuditReencryptWorker {
 
+    private static final Logger log = LoggerFactory.getLogger(AuditReencryptWorker.class);
+
     private final AuditReencryptJobService jobs;
     private final AuditReencryptionService reencrypt;
 
@@ -30,6 +39,7 @@ public class AuditReencryptWorker {
             return;
         }
 
+        MDC.put(CorrelationIdFilter.MDC_KEY, "reencrypt-" + job.jobId());
         try {
             AuditReencryptionService.BatchResult r = reencrypt.reencryptBatchWithCheckpoint(
                     job.fromKid(),
@@ -46,6 +56,8 @@ public class AuditReencryptWorker {
             if (r.done()) {
                 jobs.markDone(job.jobId());
             }
+            log.debug("audit_reencrypt_batch from={} to={} processed={} done={}",
+                    job.fromKid(), job.toKid(), r.processed(), r.done());
 
             // Throttle outside of DB locks/transactions (reencrypt method is transactional).
             if (job.throttleMs() > 0 && r.processed() > 0) {
@@ -57,7 +69,10 @@ public class AuditReencryptWorker {
             }
 
         } catch (Exception e) {
+            log.warn("audit_reencrypt_failed from={} to={}", job.fromKid(), job.toKid(), e);
             jobs.markFailed(job.jobId(), abbreviate(e.toString(), 4000));
+        } finally {
+            MDC.remove(CorrelationIdFilter.MDC_KEY);
         }
     }
 
@@ -2,11 +2,80 @@ package com.github.dimitryivaniuta.gateway.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Logging properties.
  *
  * @param correlationHeader header that carries correlation id
+ * @param redaction         redaction rule configuration (nullable)
+ * @param access            access log settings (nullable: every request is logged)
  */
 @ConfigurationProperties(prefix = "app.logging")
-public record LoggingProperties(String correlationHeader) {
+public record LoggingProperties(String correlationHeader, Redaction redaction, Access access) {
+
+    /**
+     * Access log sampling and aggregation; unset values keep their defaults.
+     *
+     * @param sampleRate       share of ordinary requests logged, between 0 and 1 (default 1)
+     * @param routeSampleRates sample rates by route, the matched handler pattern such as {@code /api/demo/log};
+     *                         requests no handler matched use the route {@code unmatched}
+     * @param slowThreshold    requests at least this slow are always logged, like server errors (default 1s)
+     * @param summaryInterval  when set, per-route counts and latency percentiles are logged at this interval
+     */
+    public record Access(Double sampleRate, Map<String, Double> routeSampleRates, Duration slowThreshold,
+                         Duration summaryInterval) {}
+
+    /**
+     * Redaction settings.
+     *
+     * @param rules rules applied after the built-in ones; an entry named like a built-in rule
+     *              ({@code email}, {@code card}, {@code phone}) replaces it, or removes it with {@code enabled: false}
+     * @param metrics redaction metrics settings (nullable)
+     * @param limits  per-message work limits (nullable)
+     * @param rulesFile optional YAML or properties file with {@code app.logging.redaction.rules} and
+     *                  {@code app.logging.redaction.limits}; its values take precedence, and the rules are rebuilt
+     *                  whenever it changes
+     * @param rulesFileCheckInterval how often the rules file is checked for changes (default 10s)
+     */
+    public record Redaction(List<Rule> rules, Metrics metrics, Limits limits, Path rulesFile,
+                            Duration rulesFileCheckInterval) {}
+
+    /**
+     * Per-message redaction limits; unset values keep their defaults.
+     *
+     * @param maxLength   characters scanned per message, the rest is replaced by a truncation marker (default 262144)
+     * @param chunkSize   longer messages are scanned in overlapping chunks of this many characters (default 8192)
+     * @param maxScanTime time budget per message, checked between chunks; zero disables it (default 50ms)
+     */
+    public record Limits(Integer maxLength, Integer chunkSize, Duration maxScanTime) {}
+
+    /**
+     * Redaction metrics settings.
+     *
+     * @param enabled       {@code false} disables redaction timers and hit counters
+     * @param sampleRate    share of logging calls that are timed, between 0 and 1 (default 0.01)
+     * @param maxLoggerTags distinct logger names used as tag values before the rest are reported as {@code other}
+     *                      (default 100)
+     */
+    public record Metrics(Boolean enabled, Double sampleRate, Integer maxLoggerTags) {}
+
+    /**
+     * A configured regex rule.
+     *
+     * @param name        unique rule name
+     * @param pattern     regex fragment (no named groups)
+     * @param replacement replacement text, defaults to {@code ***NAME***}
+     * @param triggers    ASCII characters of which one must occur for the rule to run (prefilter)
+     * @param minDigits   minimum digit cluster size for the rule to run (prefilter)
+     * @param keepLast    trailing characters of the match kept after the replacement
+     * @param enabled     {@code false} removes the rule
+     * @param argumentSafe whether matches stay inside one token (letters, digits and {@code ._%+-@()}), which
+     *                     lets log arguments be redacted individually
+     */
+    public record Rule(String name, String pattern, String replacement, String triggers,
+                       Integer minDigits, Integer keepLast, Boolean enabled, Boolean argumentSafe) {}
 }
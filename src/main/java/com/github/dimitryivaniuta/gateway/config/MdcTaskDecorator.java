@@ -0,0 +1,49 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import org.slf4j.MDC;
+import org.slf4j.spi.MDCAdapter;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.Map;
+
+/**
+ * Carries the submitting thread's MDC, and with it the correlation id, to the thread that runs an {@code @Async}
+ * or scheduled task, and restores the worker's own MDC afterwards.
+ *
+ * <p>The snapshot is taken when the task is submitted. With logback it is the adapter's read-only copy of the MDC,
+ * which logging events already share and which is only rebuilt after the MDC changes, so submitting usually costs
+ * no copy at all; the worker copies it once into its own MDC. Tasks submitted with an empty MDC are not wrapped.</p>
+ */
+public final class MdcTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Map<String, String> snapshot = snapshot();
+        if (snapshot == null || snapshot.isEmpty()) {
+            return runnable;
+        }
+        return () -> {
+            Map<String, String> previous = snapshot();
+            MDC.setContextMap(snapshot);
+            try {
+                runnable.run();
+            } finally {
+                if (previous == null || previous.isEmpty()) {
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap(previous);
+                }
+            }
+        };
+    }
+
+    /** @return the current thread's MDC, not to be modified; {@code null} if it has none */
+    static Map<String, String> snapshot() {
+        MDCAdapter adapter = MDC.getMDCAdapter();
+        if (adapter instanceof LogbackMDCAdapter logback) {
+            return logback.getPropertyMap();
+        }
+        return MDC.getCopyOfContextMap();
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import com.github.dimitryivaniuta.gateway.logging.BuiltinRules;
+import com.github.dimitryivaniuta.gateway.logging.PatternRule;
+import com.github.dimitryivaniuta.gateway.logging.RedactionEngine;
+import com.github.dimitryivaniuta.gateway.logging.RedactionLimits;
+import com.github.dimitryivaniuta.gateway.logging.RedactionRule;
+import com.github.dimitryivaniuta.gateway.logging.Redactor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySource;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the redaction engine from built-in rules, {@link RedactionRule} beans and
+ * {@code app.logging.redaction.rules}, and installs it into {@link Redactor}.
+ *
+ * <p>With {@code app.logging.redaction.rules-file}, rules and limits are also read from that file, over the
+ * application configuration. A daemon thread checks the file's modification time and size every
+ * {@code rules-file-check-interval}; when either changed, the rules are rebuilt and the new engine is swapped in
+ * atomically. An invalid rule set is rejected and the previous engine stays active.</p>
+ */
+@Component
+public class RedactionRuleRegistry implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(RedactionRuleRegistry.class);
+    private static final Duration DEFAULT_CHECK_INTERVAL = Duration.ofSeconds(10);
+
+    private final LoggingProperties props;
+    private final Environment environment;
+    private final List<RedactionRule> ruleBeans;
+    private ScheduledExecutorService watcher;
+    /** The rules file when it was last read; watcher thread only after start. */
+    private Stamp lastSeen;
+
+    public RedactionRuleRegistry(LoggingProperties props, Environment environment, ObjectProvider<RedactionRule> ruleBeans) {
+        this.props = props;
+        this.environment = environment;
+        this.ruleBeans = ruleBeans.orderedStream().toList();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        Path file = props.redaction() == null ? null : props.redaction().rulesFile();
+        if (file == null) {
+            Redactor.install(RedactionEngine.compile(rules(props.redaction(), ruleBeans), limits(props.redaction())));
+            return;
+        }
+        lastSeen = Stamp.of(file);
+        LoggingProperties.Redaction cfg = bind(file);
+        Redactor.install(RedactionEngine.compile(rules(cfg, ruleBeans), limits(cfg)));
+        long millis = Math.max(1, Objects.requireNonNullElse(props.redaction().rulesFileCheckInterval(),
+                DEFAULT_CHECK_INTERVAL).toMillis());
+        watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "redaction-rules-watcher");
+            t.setDaemon(true);
+            return t;
+        });
+        watcher.scheduleWithFixedDelay(() -> reloadIfChanged(file), millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    /** Rebuilds the engine if the rules file changed since it was last read. */
+    void reloadIfChanged(Path file) {
+        Stamp stamp;
+        try {
+            stamp = Stamp.of(file);
+        } catch (UncheckedIOException e) {
+            log.warn("redaction_rules_reload_failed keeping previous rules: {}", e.getMessage());
+            return;
+        }
+        if (stamp.equals(lastSeen)) {
+            return;
+        }
+        lastSeen = stamp;
+        try {
+            LoggingProperties.Redaction cfg = bind(file);
+            RedactionEngine engine = RedactionEngine.compile(rules(cfg, ruleBeans), limits(cfg));
+            Redactor.install(engine);
+            log.info("redaction_rules_reloaded file={} rules={}", file, engine.ruleNames());
+        } catch (RuntimeException e) {
+            log.warn("redaction_rules_reload_failed keeping previous rules: {}", e.getMessage());
+        }
+    }
+
+    /** @return {@code app.logging.redaction} bound from the rules file over the application configuration */
+    LoggingProperties.Redaction bind(Path file) {
+        PropertySourceLoader loader = file.toString().endsWith(".properties")
+                ? new PropertiesPropertySourceLoader() : new YamlPropertySourceLoader();
+        List<ConfigurationPropertySource> sources = new ArrayList<>();
+        try {
+            for (PropertySource<?> source : loader.load("redaction-rules-file", new FileSystemResource(file))) {
+                sources.add(ConfigurationPropertySource.from(source));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+        ConfigurationPropertySources.get(environment).forEach(sources::add);
+        return new Binder(sources).bindOrCreate("app.logging", LoggingProperties.class).redaction();
+    }
+
+    /** Modification time and size of a file. */
+    private record Stamp(FileTime modified, long size) {
+
+        static Stamp of(Path file) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                return new Stamp(attrs.lastModifiedTime(), attrs.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Merges rule sources in precedence order: built-ins, then beans, then configured rules.
+     * A later rule with the same name replaces the earlier one in place.
+     */
+    static List<RedactionRule> rules(LoggingProperties.Redaction cfg, List<RedactionRule> beans) {
+        Map<String, RedactionRule> byName = new LinkedHashMap<>();
+        for (RedactionRule r : BuiltinRules.defaults()) {
+            byName.put(r.name(), r);
+        }
+        for (RedactionRule r : beans) {
+            byName.put(r.name(), r);
+        }
+        if (cfg != null && cfg.rules() != null) {
+            for (LoggingProperties.Rule r : cfg.rules()) {
+                if (r.name() == null || r.name().isBlank()) {
+                    throw new IllegalArgumentException("app.logging.redaction.rules: every rule needs a name");
+                }
+                if (Boolean.FALSE.equals(r.enabled())) {
+                    byName.remove(r.name());
+                } else if (r.pattern() != null) {
+                    byName.put(r.name(), new PatternRule(r.name(), r.pattern(), r.replacement(), r.triggers(),
+                            r.minDigits() == null ? 0 : r.minDigits(), r.keepLast() == null ? 0 : r.keepLast(),
+                            Boolean.TRUE.equals(r.argumentSafe())));
+                } else if (!byName.containsKey(r.name())) {
+                    throw new IllegalArgumentException("app.logging.redaction.rules: rule '" + r.name() + "' needs a pattern");
+                }
+            }
+        }
+        return new ArrayList<>(byName.values());
+    }
+
+    /** Applies configured limits over {@link RedactionLimits#DEFAULTS}. */
+    static RedactionLimits limits(LoggingProperties.Redaction cfg) {
+        RedactionLimits d = RedactionLimits.DEFAULTS;
+        LoggingProperties.Limits l = cfg == null ? null : cfg.limits();
+        if (l == null) {
+            return d;
+        }
+        return new RedactionLimits(
+                l.maxLength() == null ? d.maxLength() : l.maxLength(),
+                l.chunkSize() == null ? d.chunkSize() : l.chunkSize(),
+                l.maxScanTime() == null ? d.maxScanNanos() : l.maxScanTime().toNanos());
+    }
+}
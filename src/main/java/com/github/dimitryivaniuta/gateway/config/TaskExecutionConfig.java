@@ -0,0 +1,23 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * {@code @Async} and scheduled work.
+ *
+ * <p>Spring Boot runs both on the auto-configured executor and scheduler; with
+ * {@code spring.threads.virtual.enabled} each task, like each request, gets its own virtual thread. Boot applies
+ * the {@link TaskDecorator} bean to both, so tasks log with the MDC of the code that submitted them.</p>
+ */
+@Configuration
+@EnableAsync
+public class TaskExecutionConfig {
+
+    @Bean
+    public TaskDecorator mdcTaskDecorator() {
+        return new MdcTaskDecorator();
+    }
+}
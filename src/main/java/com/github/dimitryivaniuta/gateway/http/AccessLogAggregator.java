@@ -0,0 +1,112 @@
+package com.github.dimitryivaniuta.gateway.http;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-route access summaries: request counts by status class and latency percentiles, logged as one
+ * {@code http_access_summary} line per route and interval.
+ *
+ * <p>Latencies go to an HdrHistogram {@link Recorder} per route, which request threads write to without locks and
+ * the reporter swaps for an empty one each interval. Routes are the matched handler patterns and methods come
+ * from {@link RequestLoggingFilter#method}, so their number is bounded by the application; past
+ * {@value #MAX_ROUTES} routes the rest is counted as {@code other}.</p>
+ *
+ * <p>Summaries use their own logger rather than the one of {@link RequestLoggingFilter}, so throttling the
+ * per-request lines under load does not silence them.</p>
+ */
+final class AccessLogAggregator implements AutoCloseable {
+
+    static final int MAX_ROUTES = 1000;
+    private static final Logger log = LoggerFactory.getLogger(AccessLogAggregator.class);
+
+    private final ConcurrentHashMap<String, RouteStats> routes = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reporter;
+    private final Duration interval;
+
+    AccessLogAggregator(Duration interval) {
+        this.interval = interval;
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "access-log-summary");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = Math.max(1, interval.toMillis());
+        reporter.scheduleAtFixedRate(this::report, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Records one request; any thread. */
+    void record(String method, String route, int status, long tookNanos) {
+        String key = method + ' ' + route;
+        RouteStats s = routes.get(key);
+        if (s == null) {
+            s = routes.size() < MAX_ROUTES
+                    ? routes.computeIfAbsent(key, k -> new RouteStats(method, route))
+                    : routes.computeIfAbsent("other", k -> new RouteStats("other", "other"));
+        }
+        s.latencyMicros.recordValue(Math.max(0, tookNanos / 1_000));
+        s.statusClasses[Math.min(4, Math.max(0, status / 100 - 1))].increment();
+    }
+
+    /** Logs and resets the summary of every route that saw requests since the last report. */
+    synchronized void report() {
+        try {
+            for (RouteStats s : routes.values()) {
+                Histogram h = s.latencyMicros.getIntervalHistogram(s.spare);
+                s.spare = h;
+                long c1 = s.statusClasses[0].sumThenReset();
+                long c2 = s.statusClasses[1].sumThenReset();
+                long c3 = s.statusClasses[2].sumThenReset();
+                long c4 = s.statusClasses[3].sumThenReset();
+                long c5 = s.statusClasses[4].sumThenReset();
+                if (h.getTotalCount() == 0) {
+                    continue;
+                }
+                log.info("http_access_summary method={} route={} count={} 1xx={} 2xx={} 3xx={} 4xx={} 5xx={} "
+                                + "p50Ms={} p90Ms={} p99Ms={} maxMs={} intervalS={}",
+                        s.method, s.route, h.getTotalCount(), c1, c2, c3, c4, c5,
+                        millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(90)),
+                        millis(h.getValueAtPercentile(99)), millis(h.getMaxValue()), interval.toSeconds());
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive: an exception would cancel it.
+            log.warn("Failed to log access summaries", e);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    /** Stops the schedule and logs what was recorded since the last report. */
+    @Override
+    public void close() {
+        reporter.shutdownNow();
+        report();
+    }
+
+    private static final class RouteStats {
+        final String method;
+        final String route;
+        final Recorder latencyMicros = new Recorder(2);
+        /** 1xx to 5xx; anything else is counted with its nearest class. */
+        final LongAdder[] statusClasses = {new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder(),
+                new LongAdder()};
+        /** Guarded by the aggregator. */
+        Histogram spare;
+
+        RouteStats(String method, String route) {
+            this.method = method;
+            this.route = route;
+        }
+    }
+}
@@ -1,31 +1,47 @@
 package com.github.dimitryivaniuta.gateway.http;
 
 import com.github.dimitryivaniuta.gateway.config.LoggingProperties;
+import com.github.dimitryivaniuta.gateway.logging.Redactor;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Optional;
-import java.util.UUID;
 
 /**
  * Adds/propagates correlation id for each request using MDC.
+ *
+ * <p>The MDC value is trusted by the JSON log provider (written without redaction), so a client-supplied id is
+ * checked once here and replaced by a generated one unless it is at most {@value #MAX_LENGTH} characters of
+ * {@code [A-Za-z0-9._:-]} and the redaction rules leave it alone. New ids come from the application's
+ * {@link CorrelationIdGenerator} bean, or {@link UlidGenerator} if there is none.</p>
+ *
+ * <p>Runs before {@link RequestLoggingFilter}, so the access log line and latency exemplar carry the id.</p>
  */
 @Component
+@Order(Ordered.LOWEST_PRECEDENCE - 20)
 public class CorrelationIdFilter extends OncePerRequestFilter {
 
     /** MDC key used by the logging pipeline. */
     public static final String MDC_KEY = "correlationId";
 
+    /** Longest client-supplied id accepted. */
+    public static final int MAX_LENGTH = 64;
+
     private final LoggingProperties props;
+    private final CorrelationIdGenerator generator;
 
-    public CorrelationIdFilter(LoggingProperties props) {
+    public CorrelationIdFilter(LoggingProperties props, ObjectProvider<CorrelationIdGenerator> generator) {
         this.props = props;
+        this.generator = generator.getIfAvailable(UlidGenerator::new);
     }
 
     @Override
@@ -34,8 +50,9 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
 
         String header = Optional.ofNullable(props.correlationHeader()).orElse("X-Correlation-Id");
         String cid = Optional.ofNullable(request.getHeader(header))
-                .filter(v -> !v.isBlank())
-                .orElseGet(() -> UUID.randomUUID().toString());
+                .filter(CorrelationIdFilter::isWellFormed)
+                .filter(v -> Redactor.redact(v) == v)
+                .orElseGet(generator::next);
 
         MDC.put(MDC_KEY, cid);
         response.setHeader(header, cid);
@@ -46,4 +63,20 @@ public class CorrelationIdFilter extends OncePerRequestFilter {
             MDC.remove(MDC_KEY);
         }
     }
+
+    /** @return whether {@code id} is short and free of characters that could forge or break a log line */
+    static boolean isWellFormed(String id) {
+        int n = id.length();
+        if (n == 0 || n > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < n; i++) {
+            char c = id.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == ':')) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
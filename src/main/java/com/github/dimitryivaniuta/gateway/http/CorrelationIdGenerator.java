@@ -0,0 +1,20 @@
+package com.github.dimitryivaniuta.gateway.http;
+
+import java.util.UUID;
+
+/**
+ * Creates correlation ids for requests that arrive without one.
+ *
+ * <p>{@link CorrelationIdFilter} uses a {@code CorrelationIdGenerator} bean when the application defines one, and
+ * {@link UlidGenerator} otherwise. Ids are logged as-is, so they must not contain anything the redaction rules
+ * would mask.</p>
+ */
+@FunctionalInterface
+public interface CorrelationIdGenerator {
+
+    /** {@link UUID#randomUUID()}: unguessable, but every call goes through one shared {@code SecureRandom}. */
+    CorrelationIdGenerator RANDOM_UUID = () -> UUID.randomUUID().toString();
+
+    /** @return a new id; called concurrently from request threads */
+    String next();
+}
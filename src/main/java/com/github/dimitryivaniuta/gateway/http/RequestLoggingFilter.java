@@ -1,5 +1,9 @@
 package com.github.dimitryivaniuta.gateway.http;
 
+import com.github.dimitryivaniuta.gateway.config.LoggingProperties;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,31 +12,120 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * Lightweight access log (no bodies).
+ *
+ * <p>Server errors, requests that end in an exception and requests slower than {@code slowThreshold} are always
+ * logged, at WARN, so they also survive the async appender's load shedding. The rest is sampled per route (the
+ * matched handler pattern) at {@code routeSampleRates}, or {@code sampleRate} for other routes; each sampled line
+ * carries its rate so counts can be scaled back up. With a {@code summaryInterval}, an {@link AccessLogAggregator}
+ * also logs per-route counts and latency percentiles at that interval. See {@link LoggingProperties.Access}.</p>
+ *
+ * <p>Every request is also recorded in the {@code http.access} timer, tagged with the route instead of the raw
+ * URI and with non-standard methods as {@value #UNKNOWN_METHOD} to bound its cardinality, as a percentile
+ * histogram. It runs inside {@link CorrelationIdFilter}, so the
+ * correlation id is in the MDC for the log line and as the timer's exemplar.</p>
  */
 @Component
 @Order(Ordered.LOWEST_PRECEDENCE - 10)
 public class RequestLoggingFilter extends OncePerRequestFilter {
 
+    /** Route of requests no handler matched, e.g. 404s, so that raw paths do not become routes. */
+    static final String UNMATCHED = "unmatched";
+    /** Method tag of requests with a non-standard method, which clients can make up at will. */
+    static final String UNKNOWN_METHOD = "UNKNOWN";
+    private static final Set<String> METHODS = Arrays.stream(HttpMethod.values()).map(HttpMethod::name)
+            .collect(Collectors.toUnmodifiableSet());
+    private static final Duration DEFAULT_SLOW_THRESHOLD = Duration.ofSeconds(1);
+
     private static final Logger log = LoggerFactory.getLogger(RequestLoggingFilter.class);
 
+    private final double sampleRate;
+    private final Map<String, Double> routeSampleRates;
+    private final long slowNanos;
+    private final AccessLogAggregator aggregator;
+    private final Meter.MeterProvider<Timer> latency;
+
+    public RequestLoggingFilter(LoggingProperties props, MeterRegistry registry) {
+        LoggingProperties.Access access = props.access();
+        sampleRate = Optional.ofNullable(access).map(LoggingProperties.Access::sampleRate).orElse(1.0);
+        routeSampleRates = Optional.ofNullable(access).map(LoggingProperties.Access::routeSampleRates)
+                .map(Map::copyOf).orElse(Map.of());
+        slowNanos = Optional.ofNullable(access).map(LoggingProperties.Access::slowThreshold)
+                .orElse(DEFAULT_SLOW_THRESHOLD).toNanos();
+        aggregator = Optional.ofNullable(access).map(LoggingProperties.Access::summaryInterval)
+                .filter(d -> d.isPositive()).map(AccessLogAggregator::new).orElse(null);
+        latency = Timer.builder("http.access")
+                .description("Request latency by route, as seen by the access log")
+                .publishPercentileHistogram()
+                .withRegistry(registry);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         long start = System.nanoTime();
+        boolean failed = true;
         try {
             filterChain.doFilter(request, response);
+            failed = false;
         } finally {
-            long tookMs = (System.nanoTime() - start) / 1_000_000;
-            log.info("http_access method={} path={} status={} tookMs={}",
-                    request.getMethod(), request.getRequestURI(), response.getStatus(), tookMs);
+            long tookNanos = System.nanoTime() - start;
+            String route = route(request);
+            // An exception escaping the chain becomes a 500 after this filter has returned.
+            int status = failed ? 500 : response.getStatus();
+            String method = method(request);
+            latency.withTags("method", method, "route", route, "status", String.valueOf(status))
+                    .record(tookNanos, TimeUnit.NANOSECONDS);
+            if (aggregator != null) {
+                aggregator.record(method, route, status, tookNanos);
+            }
+            if (failed || status >= 500 || tookNanos >= slowNanos) {
+                log.warn("http_access method={} path={} status={} tookMs={} route={} reason={}",
+                        request.getMethod(), request.getRequestURI(), status, tookNanos / 1_000_000, route,
+                        failed ? "exception" : status >= 500 ? "error" : "slow");
+            } else {
+                double rate = routeSampleRates.getOrDefault(route, sampleRate);
+                if (rate >= 1.0 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate)) {
+                    log.info("http_access method={} path={} status={} tookMs={} route={} sampleRate={}",
+                            request.getMethod(), request.getRequestURI(), status, tookNanos / 1_000_000, route,
+                            Math.min(1.0, rate));
+                }
+            }
+        }
+    }
+
+    /** @return the request method if it is a standard one, else {@link #UNKNOWN_METHOD}, like Spring's metrics */
+    static String method(HttpServletRequest request) {
+        String method = request.getMethod();
+        return METHODS.contains(method) ? method : UNKNOWN_METHOD;
+    }
+
+    private static String route(HttpServletRequest request) {
+        return request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String p
+                ? p : UNMATCHED;
+    }
+
+    @Override
+    public void destroy() {
+        if (aggregator != null) {
+            aggregator.close();
         }
     }
 }
@@ -0,0 +1,120 @@
+package com.github.dimitryivaniuta.gateway.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lock-free, time-ordered correlation ids in the <a href="https://github.com/ulid/spec">ULID</a> format, with a
+ * {@code '-'} between the 10 characters of the 48-bit millisecond timestamp and the 16 characters of the 80 bits of
+ * entropy (all Crockford base32), so ids sort by creation time.
+ *
+ * <p>Each thread keeps its own state: the first id of a millisecond takes fresh entropy from
+ * {@link ThreadLocalRandom}, and later ids of the same millisecond increment it, so the ids of a thread are
+ * strictly increasing even if the clock steps back. No state is shared between threads, unlike
+ * {@link java.util.UUID#randomUUID()}. The ids are unique but not unguessable; use
+ * {@link CorrelationIdGenerator#RANDOM_UUID} where that matters. On a virtual thread per request (the
+ * {@code virtual-threads} profile) a thread rarely makes more than one id, so each takes fresh entropy and ids of the
+ * same millisecond are ordered at random.</p>
+ *
+ * <p>Ids must pass the redaction rules unchanged: the {@code '-'} keeps every run of letters and digits shorter
+ * than the 20 characters of a secret, and an id with a phone-like run of {@value #MAX_DIGIT_RUN}+ digits is
+ * skipped by raising the last digit of the run to {@code 'A'}, which keeps the ids increasing.</p>
+ */
+public final class UlidGenerator implements CorrelationIdGenerator {
+
+    /** Length of an id. */
+    public static final int LENGTH = 27;
+
+    /** Index of the {@code '-'} between timestamp and entropy. */
+    static final int SEPARATOR = 10;
+
+    /** Shortest run of digits (the {@code '-'} does not end a run) that the phone rule may mask. */
+    static final int MAX_DIGIT_RUN = 7;
+
+    private static final byte[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final long ENTROPY_HI_MASK = 0xFFFFL;
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    @Override
+    public String next() {
+        State s = state.get();
+        long now = System.currentTimeMillis();
+        if (now > s.millis) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            s.millis = now;
+            s.hi = random.nextLong() & ENTROPY_HI_MASK;
+            s.lo = random.nextLong();
+        } else if (++s.lo == 0 && (s.hi = (s.hi + 1) & ENTROPY_HI_MASK) == 0) {
+            // 2^80 ids in one millisecond: borrow the next one.
+            s.millis++;
+        }
+        byte[] out = new byte[LENGTH];
+        encode(s.millis, s.hi, s.lo, out);
+        for (int p; (p = endOfDigitRun(out)) >= 0; encode(s.millis, s.hi, s.lo, out)) {
+            // Digit d -> 'A' (10) at p: the character grows by 10 - d < 32, so nothing carries into its neighbours.
+            long step = 10 - (out[p] - '0');
+            if (p < SEPARATOR) {
+                s.millis += step << 5 * (SEPARATOR - 1 - p);
+            } else if (p < LENGTH - 13) {
+                s.hi += step << 5 * (LENGTH - 14 - p) + 1;
+            } else {
+                s.lo += step << 5 * (LENGTH - 1 - p);
+            }
+        }
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    /** @return the id of a 48-bit timestamp and 80 bits of entropy, split in 16 high and 64 low bits */
+    static String encode(long millis, long hi, long lo) {
+        byte[] out = new byte[LENGTH];
+        encode(millis, hi, lo, out);
+        return new String(out, StandardCharsets.ISO_8859_1);
+    }
+
+    private static void encode(long millis, long hi, long lo, byte[] out) {
+        // 10 characters of timestamp: 50 bits, of which the top 2 are zero.
+        for (int i = SEPARATOR - 1; i >= 0; i--) {
+            out[i] = ALPHABET[(int) (millis & 31)];
+            millis >>>= 5;
+        }
+        out[SEPARATOR] = '-';
+        // 16 characters of entropy: 80 bits, the low 64 bits first.
+        for (int i = LENGTH - 1; i >= LENGTH - 12; i--) {
+            out[i] = ALPHABET[(int) (lo & 31)];
+            lo >>>= 5;
+        }
+        // 12 characters took 60 bits of lo; the 13th combines its last 4 bits with the lowest bit of hi.
+        out[LENGTH - 13] = ALPHABET[(int) (lo | (hi & 1) << 4)];
+        hi >>>= 1;
+        for (int i = LENGTH - 14; i > SEPARATOR; i--) {
+            out[i] = ALPHABET[(int) (hi & 31)];
+            hi >>>= 5;
+        }
+    }
+
+    /** @return the index of the last digit of the first run of {@value #MAX_DIGIT_RUN}+ digits, or -1 */
+    static int endOfDigitRun(byte[] id) {
+        int run = 0;
+        for (int i = 0; i < id.length; i++) {
+            if (i == SEPARATOR) {
+                continue;
+            }
+            if (id[i] > '9') {
+                if (run >= MAX_DIGIT_RUN) {
+                    return i == SEPARATOR + 1 ? SEPARATOR - 1 : i - 1;
+                }
+                run = 0;
+            } else {
+                run++;
+            }
+        }
+        return run >= MAX_DIGIT_RUN ? id.length - 1 : -1;
+    }
+
+    private static final class State {
+        long millis = -1;
+        long hi;
+        long lo;
+    }
+}
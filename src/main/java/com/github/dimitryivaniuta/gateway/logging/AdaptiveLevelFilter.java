@@ -0,0 +1,86 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Turbo filter that, while raised, denies events below {@code level} from a set of noisy loggers (and their
+ * children), as if their level had been raised.
+ *
+ * <p>Installed by {@link RingBufferAsyncAppender}, which raises it when its queue fills up and restores it once
+ * the queue has drained. Loggers keep their configured levels, so a logback rescan or a Spring
+ * {@code logging.level.*} change is never overwritten. While restored, the only cost per log call is one volatile
+ * read.</p>
+ */
+final class AdaptiveLevelFilter extends TurboFilter {
+
+    private final List<String> loggers;
+    private final Level level;
+    private final AsyncAppenderStats stats;
+    private final AtomicBoolean raised = new AtomicBoolean();
+    private volatile long raisedAtNanos;
+
+    AdaptiveLevelFilter(List<String> loggers, Level level, AsyncAppenderStats stats) {
+        this.loggers = List.copyOf(loggers);
+        this.level = level;
+        this.stats = stats;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        if (!raised.get() || level == null || level.isGreaterOrEqual(this.level)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !matches(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        if (format != null) {
+            // Not an isXxxEnabled() check: an event is lost.
+            stats.onSuppressed();
+        }
+        return FilterReply.DENY;
+    }
+
+    private boolean matches(String name) {
+        for (String l : loggers) {
+            if (name.startsWith(l) && (name.length() == l.length() || name.charAt(l.length()) == '.')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isRaised() {
+        return raised.get();
+    }
+
+    /** Raises the level unless it already is; any thread. */
+    void raise() {
+        if (raised.compareAndSet(false, true)) {
+            raisedAtNanos = System.nanoTime();
+            stats.onAdaptive(true);
+            addInfo("Queue filling up: logging " + loggers + " at " + level + " and above only.");
+        }
+    }
+
+    /** Restores the configured levels if raised for at least {@code minNanos}. */
+    void restore(long minNanos) {
+        if (raised.get() && System.nanoTime() - raisedAtNanos >= minNanos && raised.compareAndSet(true, false)) {
+            stats.onAdaptive(false);
+            addInfo("Queue drained: restored the configured levels of " + loggers + ".");
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (raised.compareAndSet(true, false)) {
+            stats.onAdaptive(false);
+        }
+        super.stop();
+    }
+}
@@ -0,0 +1,204 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one {@link RingBufferAsyncAppender}, kept by appender name.
+ *
+ * <p>Logback re-creates appenders when it rescans its configuration; the counters outlive them, so meters bound
+ * to an instance keep counting. Updated on logging threads, read by the metrics registry.</p>
+ */
+public final class AsyncAppenderStats {
+
+    private static final Map<String, AsyncAppenderStats> BY_NAME = new ConcurrentHashMap<>();
+
+    private final String appender;
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedEvents = new LongAdder();
+    private final LongAdder spilled = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    /** Indexed by {@link #index(Level)}. */
+    private final LongAdder[] droppedByLevel = {new LongAdder(), new LongAdder(), new LongAdder(), new LongAdder(),
+            new LongAdder()};
+    /** Indexed by {@link #lane(Level)}. */
+    private final LongAdder[] shed = {new LongAdder(), new LongAdder(), new LongAdder()};
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder adaptiveRaises = new LongAdder();
+    private volatile boolean adaptiveActive;
+    private volatile RingBuffer<?> queue;
+    private volatile SpillQueue spill;
+
+    private AsyncAppenderStats(String appender) {
+        this.appender = appender;
+    }
+
+    /** @return the counters of the named appender, created on first use */
+    public static AsyncAppenderStats of(String appender) {
+        return BY_NAME.computeIfAbsent(appender, AsyncAppenderStats::new);
+    }
+
+    /** @return counters of every appender started so far */
+    public static Collection<AsyncAppenderStats> all() {
+        return BY_NAME.values();
+    }
+
+    public String appender() {
+        return appender;
+    }
+
+    /** @return events currently queued; {@code 0} while the appender is stopped */
+    public int queueDepth() {
+        RingBuffer<?> q = queue;
+        return q == null ? 0 : q.size();
+    }
+
+    /** @return queue capacity of the running appender; {@code 0} while it is stopped */
+    public int queueCapacity() {
+        RingBuffer<?> q = queue;
+        return q == null ? 0 : q.capacity();
+    }
+
+    public long enqueued() {
+        return enqueued.sum();
+    }
+
+    /** @return events dropped because the queue was full, or the spill was full or failed */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return events of {@code level} dropped because the queue or the spill was full, or the spill failed;
+     *         {@link #dropped()} also counts spilled events that could not be read back, whose level is unknown
+     */
+    public long dropped(Level level) {
+        return droppedByLevel[index(level)].sum();
+    }
+
+    /** @return events handed to the disk spill because the queue was filling up */
+    public long spilled() {
+        return spilled.sum();
+    }
+
+    /** @return spilled events delivered to the attached appenders */
+    public long replayed() {
+        return replayed.sum();
+    }
+
+    /** @return bytes of spill segments on disk; {@code 0} without a spill */
+    public long spillBytes() {
+        SpillQueue s = spill;
+        return s == null ? 0 : s.bytesOnDisk();
+    }
+
+    /**
+     * @param level {@code TRACE}, {@code DEBUG} or {@code INFO}
+     * @return events of that level shed because their lane of the queue, or of the spill, was full; {@code 0} for
+     * WARN and ERROR, which are only lost to a full queue or spill
+     */
+    public long shed(Level level) {
+        int lane = lane(level);
+        return lane < 0 ? 0 : shed[lane].sum();
+    }
+
+    /** @return events denied by the adaptive levels while they were raised */
+    public long suppressed() {
+        return suppressed.sum();
+    }
+
+    /** @return times the adaptive levels were raised */
+    public long adaptiveRaises() {
+        return adaptiveRaises.sum();
+    }
+
+    /** @return whether the adaptive levels are raised right now */
+    public boolean adaptiveActive() {
+        return adaptiveActive;
+    }
+
+    /** @return batches handed to the attached appenders */
+    public long batches() {
+        return batches.sum();
+    }
+
+    /** @return mean events per batch since start; {@code 0} before the first batch */
+    public double meanBatchSize() {
+        long b = batches.sum();
+        return b == 0 ? 0.0 : (double) batchedEvents.sum() / b;
+    }
+
+    void bind(RingBuffer<?> q) {
+        queue = q;
+    }
+
+    void bindSpill(SpillQueue s) {
+        spill = s;
+    }
+
+    void onSpilled() {
+        spilled.increment();
+    }
+
+    void onReplayed(int n) {
+        replayed.add(n);
+    }
+
+    void onEnqueued() {
+        enqueued.increment();
+    }
+
+    void onDropped() {
+        dropped.increment();
+    }
+
+    void onDropped(Level level) {
+        dropped.increment();
+        droppedByLevel[index(level)].increment();
+    }
+
+    void onShed(Level level) {
+        shed[Math.max(0, lane(level))].increment();
+    }
+
+    void onSuppressed() {
+        suppressed.increment();
+    }
+
+    void onAdaptive(boolean raised) {
+        if (raised) {
+            adaptiveRaises.increment();
+        }
+        adaptiveActive = raised;
+    }
+
+    private static int index(Level level) {
+        return switch (level.toInt()) {
+            case Level.TRACE_INT -> 0;
+            case Level.DEBUG_INT -> 1;
+            case Level.INFO_INT -> 2;
+            case Level.WARN_INT -> 3;
+            default -> 4;
+        };
+    }
+
+    private static int lane(Level level) {
+        return switch (level.toInt()) {
+            case Level.TRACE_INT -> 0;
+            case Level.DEBUG_INT -> 1;
+            case Level.INFO_INT -> 2;
+            default -> -1;
+        };
+    }
+
+    void onBatch(int size) {
+        batches.increment();
+        batchedEvents.add(size);
+    }
+}
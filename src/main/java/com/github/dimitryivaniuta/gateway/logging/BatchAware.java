@@ -0,0 +1,15 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+/**
+ * Implemented by appenders that buffer writes and want to flush them once per batch of events handed over by
+ * {@link RingBufferAsyncAppender}, rather than once per event.
+ */
+public interface BatchAware {
+
+    /** Called on the consumer thread before the first event of a batch. */
+    default void beginBatch() {
+    }
+
+    /** Called on the consumer thread after the last event of a batch. */
+    void endOfBatch();
+}
@@ -0,0 +1,346 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.util.List;
+
+/**
+ * Built-in email, card, phone and secret rules, in their default precedence.
+ *
+ * <p>A digit run that looks like a card number but fails the Luhn check is left to the phone rule, which may
+ * still find phone numbers inside it (see {@link RedactionRule#mask}).</p>
+ *
+ * <p>The regexes are defined in {@code src/main/redaction/builtin.rules}; the build generates
+ * {@link GeneratedRuleScanner} from that file, which the engine runs instead of {@code java.util.regex}.</p>
+ */
+public final class BuiltinRules {
+
+    private BuiltinRules() {}
+
+    public static final String EMAIL = "email";
+    public static final String CARD = "card";
+    public static final String PHONE = "phone";
+    public static final String SECRET = "secret";
+
+    /** @return the built-in rules in precedence order: email, card, phone, secret */
+    public static List<RedactionRule> defaults() {
+        return List.of(new EmailRule(), new CardRule(), new PhoneRule(), new SecretRule());
+    }
+
+    static final class EmailRule implements CompiledRule, CandidateLocator.Located {
+
+        @Override
+        public String name() {
+            return EMAIL;
+        }
+
+        @Override
+        public String regex() {
+            return GeneratedRuleScanner.EMAIL_REGEX;
+        }
+
+        @Override
+        public int matchAt(CharSequence in, int start, int to) {
+            return GeneratedRuleScanner.email(in, start, to);
+        }
+
+        @Override
+        public int maxMatchLength() {
+            return 64 + 1 + 253 + 1 + 24;
+        }
+
+        @Override
+        public String triggers() {
+            return "@";
+        }
+
+        @Override
+        public CandidateLocator.Kind candidates() {
+            return CandidateLocator.Kind.AT_SIGN;
+        }
+
+        @Override
+        public boolean argumentSafe() {
+            return true;
+        }
+
+        @Override
+        public boolean mask(CharSequence in, int start, int end, StringBuilder out) {
+            // Neither the local part nor the domain can contain '@', so the match holds exactly one.
+            int at = start;
+            while (in.charAt(at) != '@') {
+                at++;
+            }
+            if (at - start <= 2) {
+                out.append("***");
+            } else {
+                out.append(in.charAt(start)).append("***").append(in.charAt(at - 1));
+            }
+            out.append('@');
+            for (int i = at + 1; i < end; i++) {
+                char c = in.charAt(i);
+                out.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+            }
+            return true;
+        }
+    }
+
+    static final class CardRule implements CompiledRule, CandidateLocator.Located {
+
+        @Override
+        public String name() {
+            return CARD;
+        }
+
+        @Override
+        public String regex() {
+            return GeneratedRuleScanner.CARD_REGEX;
+        }
+
+        @Override
+        public int matchAt(CharSequence in, int start, int to) {
+            return GeneratedRuleScanner.card(in, start, to);
+        }
+
+        @Override
+        public int maxMatchLength() {
+            return 19 * 2;
+        }
+
+        @Override
+        public int minDigits() {
+            return 13;
+        }
+
+        @Override
+        public CandidateLocator.Kind candidates() {
+            return CandidateLocator.Kind.DIGIT_CLUSTER;
+        }
+
+        @Override
+        public boolean argumentSafe() {
+            return true;
+        }
+
+        @Override
+        public boolean mask(CharSequence in, int start, int end, StringBuilder out) {
+            int digits = Redactor.countDigits(in, start, end);
+            if (digits < 13 || digits > 19 || !Redactor.luhnValid(in, start, end)) {
+                return false;
+            }
+            out.append("**** **** **** ");
+            Redactor.appendLastDigits(in, start, end, 4, out);
+            return true;
+        }
+    }
+
+    static final class PhoneRule implements CompiledRule, CandidateLocator.Located {
+
+        @Override
+        public String name() {
+            return PHONE;
+        }
+
+        @Override
+        public String regex() {
+            return GeneratedRuleScanner.PHONE_REGEX;
+        }
+
+        @Override
+        public int matchAt(CharSequence in, int start, int to) {
+            return GeneratedRuleScanner.phone(in, start, to);
+        }
+
+        @Override
+        public int maxMatchLength() {
+            return 5 + 7 + 11;
+        }
+
+        @Override
+        public int minDigits() {
+            return 7;
+        }
+
+        @Override
+        public CandidateLocator.Kind candidates() {
+            return CandidateLocator.Kind.DIGIT_CLUSTER;
+        }
+
+        @Override
+        public boolean argumentSafe() {
+            return true;
+        }
+
+        @Override
+        public boolean mask(CharSequence in, int start, int end, StringBuilder out) {
+            if (Redactor.countDigits(in, start, end) < 7) {
+                return false;
+            }
+            out.append("***PHONE***");
+            Redactor.appendLastDigits(in, start, end, 4, out);
+            return true;
+        }
+    }
+
+    /**
+     * Bearer credentials, JWTs and API keys.
+     *
+     * <p>{@code Bearer} tokens and JWT-shaped strings are always masked. A plain run of 20 or more letters and
+     * digits is only masked when it looks random: a 32-character window over it has a Shannon entropy of at least
+     * 80% of the maximum for its length and changes between digits, upper and lower case at least once every four
+     * characters, or it is a hex string of 40 or more characters. Changes from upper to lower case are not counted,
+     * so identifiers such as {@code RedactingMdcJsonProvider} (one counted change per word) stay below that. Runs with
+     * seven or more consecutive digits are masked too, as the card and phone rules cannot see inside the run.
+     * Entropy is updated as the window slides, so a run costs one pass.</p>
+     */
+    static final class SecretRule implements CompiledRule, CandidateLocator.Located {
+
+        static final int WINDOW = 32;
+
+        /** {@code c * log2(c)} for the character counts a window can hold. */
+        private static final double[] C_LOG_C = new double[WINDOW + 1];
+
+        static {
+            for (int c = 1; c <= WINDOW; c++) {
+                C_LOG_C[c] = c * Math.log(c) / Math.log(2);
+            }
+        }
+
+        private static final ThreadLocal<int[]> COUNTS = ThreadLocal.withInitial(() -> new int[128]);
+
+        @Override
+        public String name() {
+            return SECRET;
+        }
+
+        @Override
+        public String regex() {
+            return GeneratedRuleScanner.SECRET_REGEX;
+        }
+
+        @Override
+        public int matchAt(CharSequence in, int start, int to) {
+            return GeneratedRuleScanner.secret(in, start, to);
+        }
+
+        @Override
+        public int maxMatchLength() {
+            return 6 + 8 + 2048 + 2;
+        }
+
+        @Override
+        public int minWordLength() {
+            return 16;
+        }
+
+        @Override
+        public CandidateLocator.Kind candidates() {
+            return CandidateLocator.Kind.CREDENTIAL;
+        }
+
+        @Override
+        public boolean argumentSafe() {
+            // A "Bearer" literal before a placeholder is caught by MessageTemplate's probe.
+            return true;
+        }
+
+        @Override
+        public boolean mask(CharSequence in, int start, int end, StringBuilder out) {
+            char first = in.charAt(start);
+            if (first == 'b' || first == 'B') {
+                int keyword = start;
+                while (keyword < end && Character.isLetter(in.charAt(keyword))) {
+                    keyword++;
+                }
+                if (keyword - start == 6 && keyword < end && Character.isWhitespace(in.charAt(keyword))) {
+                    out.append(in, start, keyword).append(" ***");
+                    return true;
+                }
+            }
+            for (int i = start; i < end; i++) {
+                if (in.charAt(i) == '.') {
+                    out.append("***JWT***");
+                    return true;
+                }
+            }
+            if (!looksRandom(in, start, end)) {
+                return false;
+            }
+            out.append("***SECRET***");
+            return true;
+        }
+
+        /** @return whether the letter/digit run {@code in[start, end)} looks like a key rather than a word */
+        static boolean looksRandom(CharSequence in, int start, int end) {
+            int digitRun = 0;
+            boolean hex = true;
+            boolean letters = false;
+            for (int i = start; i < end; i++) {
+                char c = in.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    if (++digitRun >= 7) {
+                        return true;
+                    }
+                } else {
+                    digitRun = 0;
+                    letters = true;
+                    hex &= (c | 0x20) >= 'a' && (c | 0x20) <= 'f';
+                }
+            }
+            if (!letters) {
+                // Long digit strings are left to the card and phone rules.
+                return false;
+            }
+            if (hex && end - start >= 40) {
+                return true;
+            }
+            int[] counts = COUNTS.get();
+            int w = Math.min(WINDOW, end - start);
+            double threshold = 0.8 * Math.log(w) / Math.log(2);
+            double cLogC = 0;
+            int transitions = 0;
+            boolean random = false;
+            int i = start;
+            for (; i < end; i++) {
+                char c = in.charAt(i);
+                int from = i - w + 1;
+                // Slide out before sliding in, so that no count exceeds the window.
+                if (from > start) {
+                    char out = in.charAt(from - 1);
+                    cLogC += C_LOG_C[counts[out] - 1] - C_LOG_C[counts[out]];
+                    counts[out]--;
+                    if (isTransition(out, in.charAt(from))) {
+                        transitions--;
+                    }
+                }
+                cLogC += C_LOG_C[counts[c] + 1] - C_LOG_C[counts[c]];
+                counts[c]++;
+                if (i > start && isTransition(in.charAt(i - 1), c)) {
+                    transitions++;
+                }
+                if (from >= start) {
+                    // H = log2(w) - sum(c * log2(c)) / w
+                    double entropy = Math.log(w) / Math.log(2) - cLogC / w;
+                    if (entropy >= threshold && transitions * 4 >= w) {
+                        random = true;
+                        i++;
+                        break;
+                    }
+                }
+            }
+            for (int k = Math.max(start, i - w); k < i; k++) {
+                counts[in.charAt(k)] = 0;
+            }
+            return random;
+        }
+
+        /** Change between digits, upper and lower case, except upper to lower, which every camel-case word has. */
+        private static boolean isTransition(char prev, char c) {
+            int a = charClass(prev);
+            int b = charClass(c);
+            return a != b && !(a == 1 && b == 2);
+        }
+
+        private static int charClass(char c) {
+            return c <= '9' ? 0 : c <= 'Z' ? 1 : 2;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.util.Arrays;
+
+/**
+ * Finds the spans of a text that can hold a match of the built-in rules, so the regex only runs inside them.
+ *
+ * <p>Every email match holds one {@code @} with at most 64 local-part characters before it and 278 domain
+ * characters after it; every card or phone match lies inside a digit cluster (digits, whitespace and
+ * {@code + ( ) . -}) holding at least the rule's {@link RedactionRule#minDigits() minimum} of digits; every secret
+ * match starts at a run of letters and digits that is the {@code bearer} keyword, starts with {@code eyJ} or is
+ * at least 20 long, and goes on over whitespace and {@linkplain RedactionEngine#isWordChar word characters}.
+ * Spans are supersets of all possible matches and are merged when they touch, so scanning the spans with
+ * transparent bounds gives exactly the same result as scanning the whole text.</p>
+ *
+ * <p>Subclasses only differ in how they skip to the next digit or {@code @}: {@link #SCALAR} one character at a
+ * time, {@code VectorCandidateLocator} a vector of characters at a time. The locator is picked with
+ * {@code -Dpii.redaction.locator=auto|scalar|off}; {@code auto} (the default) uses the vector form when the JVM
+ * runs with {@code --add-modules jdk.incubator.vector} and falls back to the scalar form otherwise.</p>
+ */
+abstract class CandidateLocator {
+
+    /** What a rule's matches are anchored on; rules that are not {@link Located} always scan the whole text. */
+    enum Kind {
+        /** Matches hold an {@code @} within the email length bounds. */
+        AT_SIGN,
+        /** Matches lie inside a digit cluster. */
+        DIGIT_CLUSTER,
+        /** Matches are a bearer credential, a JWT or a long run of letters and digits. */
+        CREDENTIAL
+    }
+
+    /** Implemented by rules whose matches the locator can find. */
+    interface Located {
+        Kind candidates();
+    }
+
+    static final int MAX_LOCAL = 64;
+    static final int MAX_DOMAIN = 253 + 1 + 24;
+    static final int MIN_KEY = 20;
+    private static final String BEARER = "bearer";
+
+    static final CandidateLocator SCALAR = new CandidateLocator() {
+        @Override
+        int next(char[] a, int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = a[i];
+                if ((c >= '0' && c <= '9') || c == '@') {
+                    return i;
+                }
+            }
+            return to;
+        }
+
+        @Override
+        public String toString() {
+            return "scalar";
+        }
+    };
+
+    /** @return index of the first digit or {@code @} in {@code a[from, to)}, or {@code to} */
+    abstract int next(char[] a, int from, int to);
+
+    /**
+     * Collects merged candidate spans of {@code a[from, to)}.
+     *
+     * @param email       whether to look for email spans
+     * @param minDigits   digits a cluster needs to become a span; {@link Integer#MAX_VALUE} to skip clusters
+     * @param credentials whether to look for secret spans
+     * @return number of spans; span {@code k} is {@code [spans.at(2k), spans.at(2k + 1))}
+     */
+    final int locate(char[] a, int from, int to, boolean email, int minDigits, boolean credentials, Spans spans) {
+        spans.clear();
+        int i = from;
+        while ((i = next(a, i, to)) < to) {
+            if (a[i] == '@') {
+                if (email) {
+                    int left = i;
+                    while (left > from && i - left < MAX_LOCAL && isLocal(a[left - 1])) {
+                        left--;
+                    }
+                    int right = i + 1;
+                    while (right < to && right - i - 1 < MAX_DOMAIN && isDomain(a[right])) {
+                        right++;
+                    }
+                    spans.add(left, right);
+                }
+                i++;
+                continue;
+            }
+            // A cluster may start with separators such as '+' or '('.
+            int start = i;
+            while (start > from && RedactionEngine.isClusterSeparator(a[start - 1])) {
+                start--;
+            }
+            int digits = 0;
+            int end = i;
+            for (; end < to; end++) {
+                char c = a[end];
+                if (c >= '0' && c <= '9') {
+                    digits++;
+                } else if (!RedactionEngine.isClusterSeparator(c)) {
+                    break;
+                }
+            }
+            if (digits >= minDigits) {
+                spans.add(start, end);
+            }
+            i = end;
+        }
+        if (credentials) {
+            // Letters are not skipped by next(), so this is a separate scalar pass, merged in start order.
+            Spans found = spans.scratch();
+            credentials(a, from, to, found);
+            spans.merge(found);
+        }
+        return spans.count();
+    }
+
+    private static void credentials(char[] a, int from, int to, Spans spans) {
+        int i = from;
+        while (i < to) {
+            if (!isAlnum(a[i])) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < to && isAlnum(a[i])) {
+                i++;
+            }
+            if (isBearer(a, start, i) || isJwtStart(a, start, i)) {
+                int end = i;
+                while (end < to && Character.isWhitespace(a[end])) {
+                    end++;
+                }
+                while (end < to && RedactionEngine.isWordChar(a[end])) {
+                    end++;
+                }
+                spans.add(start, end);
+            } else if (i - start >= MIN_KEY) {
+                spans.add(start, i);
+            }
+        }
+    }
+
+    private static boolean isBearer(char[] a, int start, int end) {
+        if (end - start != BEARER.length()) {
+            return false;
+        }
+        for (int k = 0; k < BEARER.length(); k++) {
+            if ((a[start + k] | 0x20) != BEARER.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isJwtStart(char[] a, int start, int end) {
+        return end - start >= 3 && a[start] == 'e' && a[start + 1] == 'y' && a[start + 2] == 'J';
+    }
+
+    private static boolean isAlnum(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isLocal(char c) {
+        return isDomain(c) || c == '_' || c == '%' || c == '+';
+    }
+
+    private static boolean isDomain(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-';
+    }
+
+    /** @return the locator selected by {@code pii.redaction.locator}, or {@code null} for {@code off} */
+    static CandidateLocator configured() {
+        return switch (System.getProperty("pii.redaction.locator", "auto")) {
+            case "off" -> null;
+            case "scalar" -> SCALAR;
+            default -> {
+                CandidateLocator v = vector();
+                yield v != null ? v : SCALAR;
+            }
+        };
+    }
+
+    /** @return the vector locator, or {@code null} when the incubator module is not in the boot layer */
+    static CandidateLocator vector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            // Loaded reflectively so this class links without the incubator module.
+            return (CandidateLocator) Class.forName(CandidateLocator.class.getPackageName() + ".VectorCandidateLocator")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /** Growable list of merged {@code [start, end)} pairs, reused per thread. */
+    static final class Spans {
+
+        private int[] bounds = new int[16];
+        private int size;
+        private Spans scratch;
+        private int[] copy = new int[0];
+
+        void clear() {
+            size = 0;
+        }
+
+        int count() {
+            return size / 2;
+        }
+
+        int at(int index) {
+            return bounds[index];
+        }
+
+        /** @return an empty second list, for spans found in a separate pass */
+        Spans scratch() {
+            if (scratch == null) {
+                scratch = new Spans();
+            }
+            scratch.clear();
+            return scratch;
+        }
+
+        /** Adds all spans of {@code other}, keeping the list merged and in start order. */
+        void merge(Spans other) {
+            if (other.size == 0) {
+                return;
+            }
+            if (copy.length < size) {
+                copy = new int[bounds.length];
+            }
+            int[] mine = copy;
+            System.arraycopy(bounds, 0, mine, 0, size);
+            int n = size;
+            size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < n || j < other.size) {
+                if (j == other.size || (i < n && mine[i] <= other.bounds[j])) {
+                    add(mine[i], mine[i + 1]);
+                    i += 2;
+                } else {
+                    add(other.bounds[j], other.bounds[j + 1]);
+                    j += 2;
+                }
+            }
+        }
+
+        /** Adds a span, merging it with the spans it touches (an email span can reach back over earlier ones). */
+        void add(int start, int end) {
+            while (size > 0 && start <= bounds[size - 1]) {
+                start = Math.min(start, bounds[size - 2]);
+                end = Math.max(end, bounds[size - 1]);
+                size -= 2;
+            }
+            if (size == bounds.length) {
+                bounds = Arrays.copyOf(bounds, size * 2);
+            }
+            bounds[size++] = start;
+            bounds[size++] = end;
+        }
+    }
+}
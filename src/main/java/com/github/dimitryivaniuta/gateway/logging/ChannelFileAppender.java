@@ -0,0 +1,499 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rolling file appender that writes encoded events through a {@link FileChannel}.
+ *
+ * <p>Encoded events are copied into a small pool of direct buffers that is reused for the life of the appender
+ * and written with one gathering {@link FileChannel#write(ByteBuffer[], int, int)} per batch, instead of one
+ * {@code OutputStream} write (and flush) per event. Attached to a {@link RingBufferAsyncAppender}, a whole
+ * drained batch is encoded (on {@code workers} threads, in order, like {@link ParallelConsoleAppender}) and
+ * written at once; {@code syncPerBatch} then forces it to disk before the next batch. Events appended from other
+ * threads are written immediately.</p>
+ *
+ * <p>The active segment rolls when it reaches {@code maxFileSize} (checked after each batch, so a segment may
+ * overshoot by one batch) or when the wall clock crosses a multiple of {@code rollInterval}. A closed segment is
+ * renamed to {@code <name>-<yyyyMMdd-HHmmss>[.n].<ext>} and gzip-compressed on a background thread; the oldest
+ * archives beyond {@code maxArchives} are deleted.</p>
+ *
+ * <pre>
+ * &lt;appender name="FILE_JSON" class="com.github.dimitryivaniuta.gateway.logging.ChannelFileAppender"&gt;
+ *     &lt;file&gt;logs/gateway.log&lt;/file&gt;
+ *     &lt;maxFileSize&gt;100MB&lt;/maxFileSize&gt;
+ *     &lt;rollInterval&gt;1 day&lt;/rollInterval&gt;
+ *     &lt;maxArchives&gt;30&lt;/maxArchives&gt;
+ *     &lt;syncPerBatch&gt;false&lt;/syncPerBatch&gt;
+ *     &lt;encoder class="..."/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class ChannelFileAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements BatchAware {
+
+    public static final long DEFAULT_MAX_FILE_SIZE = 100 * FileSize.MB_COEFFICIENT;
+    public static final int DEFAULT_WRITE_BUFFER_SIZE = 256 * 1024;
+    public static final int DEFAULT_MAX_PENDING = 256;
+
+    /** Direct buffers in the pool; one gathering write covers all of them. */
+    static final int BUFFERS = 8;
+
+    private static final DateTimeFormatter ARCHIVE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private Encoder<ILoggingEvent> encoder;
+    private String file;
+    private FileSize maxFileSize = new FileSize(DEFAULT_MAX_FILE_SIZE);
+    private Duration rollInterval;
+    private boolean syncPerBatch;
+    private boolean compress = true;
+    private int maxArchives;
+    private int writeBufferSize = DEFAULT_WRITE_BUFFER_SIZE;
+    private int workers = 1;
+    private int maxPending = DEFAULT_MAX_PENDING;
+
+    /** Guards the channel and the buffer pool; held by the batch thread and by direct callers. */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private Path path;
+    private FileChannel channel;
+    private long position;
+    private long segmentStart;
+    private long nextRollAt = Long.MAX_VALUE;
+    private ByteBuffer[] buffers;
+    private int current;
+    private ExecutorService archiver;
+
+    private OrderedEncodingStage stage;
+    /** Consumer thread inside a batch; only its events are collected. */
+    private volatile Thread batchThread;
+    private ILoggingEvent[] pending;
+    private byte[][] encoded;
+    private int count;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (encoder == null) {
+            addError("No encoder set for the appender named [" + name + "].");
+            return;
+        }
+        if (file == null || file.isBlank()) {
+            addError("No file set for the appender named [" + name + "].");
+            return;
+        }
+        if (workers < 1 || maxPending < 1 || writeBufferSize < BUFFERS) {
+            addError("workers, maxPending and writeBufferSize must be positive, got " + workers + ", "
+                    + maxPending + " and " + writeBufferSize);
+            return;
+        }
+        path = Paths.get(file).toAbsolutePath();
+        buffers = new ByteBuffer[BUFFERS];
+        for (int i = 0; i < BUFFERS; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(writeBufferSize / BUFFERS);
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            openSegment(System.currentTimeMillis());
+        } catch (IOException e) {
+            addError("Failed to open [" + path + "].", e);
+            return;
+        }
+        archiver = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "logback-archive-" + name);
+            t.setDaemon(true);
+            return t;
+        });
+        pending = new ILoggingEvent[maxPending];
+        encoded = new byte[maxPending][];
+        stage = new OrderedEncodingStage(encoder, workers, name, this);
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            writePending();
+            batchThread = null;
+            super.stop();
+            closeSegment();
+        } catch (IOException e) {
+            addError("Failed to close [" + path + "].", e);
+        } finally {
+            writeLock.unlock();
+        }
+        stage.close();
+        archiver.shutdown();
+        try {
+            if (!archiver.awaitTermination(30, TimeUnit.SECONDS)) {
+                addWarn("Archiving of [" + name + "] did not finish in 30 s.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void beginBatch() {
+        batchThread = Thread.currentThread();
+    }
+
+    @Override
+    public void endOfBatch() {
+        writePending();
+        batchThread = null;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!isStarted()) {
+            return;
+        }
+        if (Thread.currentThread() == batchThread) {
+            pending[count++] = OrderedEncodingStage.snapshot(event);
+            if (count == pending.length) {
+                writePending();
+            }
+            return;
+        }
+        byte[] bytes;
+        try {
+            bytes = encoder.encode(event);
+        } catch (RuntimeException e) {
+            addError("Failed to encode an event of [" + event.getLoggerName() + "].", e);
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (isStarted()) {
+                rollIfDue(System.currentTimeMillis());
+                put(bytes);
+                drain();
+                if (syncPerBatch) {
+                    channel.force(false);
+                }
+                rollIfFull();
+            }
+        } catch (IOException e) {
+            failed(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writePending() {
+        if (count == 0) {
+            return;
+        }
+        int n = count;
+        stage.encode(pending, n, encoded);
+        writeLock.lock();
+        try {
+            if (isStarted()) {
+                rollIfDue(System.currentTimeMillis());
+                for (int i = 0; i < n; i++) {
+                    put(encoded[i]);
+                }
+                drain();
+                if (syncPerBatch) {
+                    channel.force(false);
+                }
+                rollIfFull();
+            }
+        } catch (IOException e) {
+            failed(e);
+        } finally {
+            writeLock.unlock();
+            Arrays.fill(pending, 0, n, null);
+            Arrays.fill(encoded, 0, n, null);
+            count = 0;
+        }
+    }
+
+    /** Copies {@code bytes} into the buffer pool, writing the pool out whenever it fills up. */
+    private void put(byte[] bytes) throws IOException {
+        if (bytes == null) {
+            return;
+        }
+        int off = 0;
+        while (off < bytes.length) {
+            ByteBuffer b = buffers[current];
+            if (!b.hasRemaining()) {
+                if (current == BUFFERS - 1) {
+                    drain();
+                } else {
+                    current++;
+                }
+                continue;
+            }
+            int len = Math.min(b.remaining(), bytes.length - off);
+            b.put(bytes, off, len);
+            off += len;
+        }
+    }
+
+    /** Writes the filled part of the pool with gathering writes and resets it. */
+    private void drain() throws IOException {
+        int used = current + 1;
+        for (int i = 0; i < used; i++) {
+            buffers[i].flip();
+        }
+        ByteBuffer last = buffers[current];
+        while (last.hasRemaining()) {
+            position += channel.write(buffers, 0, used);
+        }
+        for (int i = 0; i < used; i++) {
+            buffers[i].clear();
+        }
+        current = 0;
+    }
+
+    private void rollIfDue(long now) throws IOException {
+        if (now < nextRollAt) {
+            return;
+        }
+        if (position > 0) {
+            roll(now);
+        } else {
+            nextRollAt = nextRollAt(now);
+        }
+    }
+
+    private void rollIfFull() throws IOException {
+        if (position >= maxFileSize.getSize()) {
+            roll(System.currentTimeMillis());
+        }
+    }
+
+    private void roll(long now) throws IOException {
+        closeSegment();
+        Path archive = archivePath(segmentStart);
+        Files.move(path, archive);
+        openSegment(now);
+        archiver.execute(() -> archive(archive));
+    }
+
+    private void openSegment(long now) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        position = channel.size();
+        segmentStart = now;
+        nextRollAt = nextRollAt(now);
+        if (position == 0) {
+            put(encoder.headerBytes());
+            drain();
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        put(encoder.footerBytes());
+        drain();
+        if (syncPerBatch) {
+            channel.force(false);
+        }
+        channel.close();
+    }
+
+    private long nextRollAt(long now) {
+        if (rollInterval == null || rollInterval.getMilliseconds() <= 0) {
+            return Long.MAX_VALUE;
+        }
+        long interval = rollInterval.getMilliseconds();
+        return (now / interval + 1) * interval;
+    }
+
+    private Path archivePath(long start) {
+        String fileName = path.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        String ext = dot > 0 ? fileName.substring(dot) : "";
+        String stem = base + "-" + ARCHIVE_TIME.format(Instant.ofEpochMilli(start));
+        Path candidate = path.resolveSibling(stem + ext);
+        for (int i = 1; Files.exists(candidate) || Files.exists(gzipped(candidate)); i++) {
+            candidate = path.resolveSibling(stem + "." + i + ext);
+        }
+        return candidate;
+    }
+
+    /** Runs on the archiver thread: compresses a closed segment, then prunes old archives. */
+    private void archive(Path segment) {
+        if (compress) {
+            Path gz = gzipped(segment);
+            Path tmp = gz.resolveSibling(gz.getFileName() + ".tmp");
+            try (InputStream in = Files.newInputStream(segment);
+                 OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024)) {
+                in.transferTo(out);
+            } catch (IOException e) {
+                addError("Failed to compress [" + segment + "].", e);
+                return;
+            }
+            try {
+                Files.move(tmp, gz, StandardCopyOption.ATOMIC_MOVE);
+                Files.delete(segment);
+            } catch (IOException e) {
+                addError("Failed to replace [" + segment + "] with [" + gz + "].", e);
+            }
+        }
+        if (maxArchives > 0) {
+            prune();
+        }
+    }
+
+    private void prune() {
+        String fileName = path.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        Pattern archiveName = Pattern.compile(Pattern.quote(dot > 0 ? fileName.substring(0, dot) : fileName)
+                + "-(\\d{8}-\\d{6})(?:\\.(\\d+))?" + Pattern.quote(dot > 0 ? fileName.substring(dot) : "")
+                + "(?:\\.gz)?");
+        List<Matcher> archives = new ArrayList<>();
+        try (Stream<Path> files = Files.list(path.getParent())) {
+            files.map(p -> archiveName.matcher(p.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .forEach(archives::add);
+        } catch (IOException e) {
+            addError("Failed to list archives of [" + path + "].", e);
+            return;
+        }
+        // Oldest first: segment start time, then the collision index.
+        archives.sort(Comparator.comparing((Matcher m) -> m.group(1))
+                .thenComparingInt(m -> m.group(2) == null ? 0 : Integer.parseInt(m.group(2))));
+        for (int i = 0; i < archives.size() - maxArchives; i++) {
+            Path archive = path.resolveSibling(archives.get(i).group());
+            try {
+                Files.deleteIfExists(archive);
+            } catch (IOException e) {
+                addError("Failed to delete [" + archive + "].", e);
+            }
+        }
+    }
+
+    private static Path gzipped(Path p) {
+        return p.resolveSibling(p.getFileName() + ".gz");
+    }
+
+    private void failed(IOException e) {
+        started = false;
+        addError("IO failure in appender [" + name + "], writing to [" + path + "].", e);
+    }
+
+    public Encoder<ILoggingEvent> getEncoder() {
+        return encoder;
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    /** @param file path of the active segment */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public FileSize getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(FileSize maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+
+    public Duration getRollInterval() {
+        return rollInterval;
+    }
+
+    /** @param rollInterval e.g. {@code 1 hour} or {@code 1 day}; segments roll at multiples of it (UTC) */
+    public void setRollInterval(Duration rollInterval) {
+        this.rollInterval = rollInterval;
+    }
+
+    public boolean isSyncPerBatch() {
+        return syncPerBatch;
+    }
+
+    /** @param syncPerBatch whether each batch (or direct event) is forced to disk before the next one is written */
+    public void setSyncPerBatch(boolean syncPerBatch) {
+        this.syncPerBatch = syncPerBatch;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    public int getMaxArchives() {
+        return maxArchives;
+    }
+
+    /** @param maxArchives rolled segments to keep; {@code 0} keeps all */
+    public void setMaxArchives(int maxArchives) {
+        this.maxArchives = maxArchives;
+    }
+
+    public int getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    /** @param writeBufferSize total size of the direct buffer pool, in bytes */
+    public void setWriteBufferSize(int writeBufferSize) {
+        this.writeBufferSize = writeBufferSize;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /** @param workers threads encoding a batch, including the async consumer thread */
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    /** @param maxPending events collected before a partial batch is encoded and written */
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+/**
+ * A rule that can match without {@code java.util.regex}, through a matcher generated at build time
+ * ({@link GeneratedRuleScanner}).
+ *
+ * <p>When every rule of a scan is compiled, the engine tries them in precedence order at each position instead of
+ * running the combined pattern; {@link #matchAt} must give the same match as {@link #regex()} would.</p>
+ */
+interface CompiledRule extends RedactionRule {
+
+    /**
+     * Matches the rule at {@code start}, looking behind {@code start} and past {@code to} for lookarounds only.
+     *
+     * @return end of the match within {@code in[start, to)}, or {@code -1}
+     */
+    int matchAt(CharSequence in, int start, int to);
+}
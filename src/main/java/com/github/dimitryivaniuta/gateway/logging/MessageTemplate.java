@@ -0,0 +1,150 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parsed SLF4J message template ({@code "demo_payload email={} phone={}"}) with a cached verdict on whether
+ * its arguments can be redacted one by one.
+ *
+ * <p>A template is split-safe when its literal parts contain nothing the engine would mask and every
+ * placeholder borders a token boundary (see {@link RedactionRule#argumentSafe()}), so no match can start in
+ * the literal text and continue into an argument or the other way around. Whitespace alone between two
+ * placeholders is not a boundary: phone and card numbers contain spaces, so one can span several arguments.
+ * A literal ending in a keyword that a match continues after, such as {@code "Authorization: Bearer "}, is
+ * caught by scanning it with a letter-only probe argument appended.</p>
+ */
+final class MessageTemplate {
+
+    /** Templates are source-code constants, so a small bounded cache covers them; it is cleared when full. */
+    private static final int MAX_CACHED = 4096;
+
+    private static final Map<String, MessageTemplate> CACHE = new ConcurrentHashMap<>();
+
+    /** Stand-in argument: letters only, so it cannot complete a digit-based match, and longer than a short keyword. */
+    private static final String PROBE = "abcdefghijklmnopqrstuvwxyz";
+
+    /** Literal segments; {@code literals.length == placeholders + 1}. */
+    final String[] literals;
+    final boolean splitSafe;
+    /** Engine the verdict was computed for. */
+    private final RedactionEngine engine;
+
+    private MessageTemplate(String[] literals, boolean splitSafe, RedactionEngine engine) {
+        this.literals = literals;
+        this.splitSafe = splitSafe;
+        this.engine = engine;
+    }
+
+    int placeholders() {
+        return literals.length - 1;
+    }
+
+    /**
+     * @param template raw SLF4J template
+     * @param engine   engine the verdict is computed for; verdicts cached for another engine are recomputed
+     * @return parsed template with its verdict
+     */
+    static MessageTemplate of(String template, RedactionEngine engine) {
+        MessageTemplate t = CACHE.get(template);
+        if (t == null || t.engine != engine) {
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            t = parse(template, engine);
+            CACHE.put(template, t);
+        }
+        return t;
+    }
+
+    static MessageTemplate parse(String template, RedactionEngine engine) {
+        List<String> parts = new ArrayList<>();
+        int from = 0;
+        int at;
+        boolean escaped = false;
+        while ((at = template.indexOf("{}", from)) >= 0) {
+            if (at > 0 && template.charAt(at - 1) == '\\') {
+                // Escaped placeholders follow MessageFormatter's rules; leave those templates to the slow path.
+                escaped = true;
+            }
+            parts.add(template.substring(from, at));
+            from = at + 2;
+        }
+        parts.add(template.substring(from));
+        String[] literals = parts.toArray(String[]::new);
+        return new MessageTemplate(literals, !escaped && engine.argumentSafe() && verdict(literals, engine), engine);
+    }
+
+    private static boolean verdict(String[] literals, RedactionEngine engine) {
+        for (int i = 0; i < literals.length; i++) {
+            String lit = literals[i];
+            if (masks(lit, engine)) {
+                return false;
+            }
+            boolean last = i == literals.length - 1;
+            if (i > 0 && !last && lit.isBlank()) {
+                // Only whitespace between two arguments: a match can run across both ("{} {} {}" with 500, 600, 700).
+                return false;
+            }
+            if (i > 0 && !(last && lit.isEmpty()) && !boundaryBefore(lit)) {
+                return false;
+            }
+            if (!last && !(i == 0 && lit.isEmpty()) && !boundaryAfter(lit)) {
+                return false;
+            }
+            if (!last && !lit.isEmpty() && masks(lit + PROBE, engine)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean masks(String text, RedactionEngine engine) {
+        long active = engine.activeRules(text);
+        return active != 0 && engine.scan(text, active, new StringBuilder()) != 0;
+    }
+
+    /** Whether the text right after a placeholder (the start of {@code lit}) ends the argument's token. */
+    private static boolean boundaryBefore(String lit) {
+        if (lit.isEmpty()) {
+            return false;
+        }
+        char c = lit.charAt(0);
+        if (isHardDelimiter(c)) {
+            return true;
+        }
+        int i = 0;
+        while (i < lit.length() && Character.isWhitespace(lit.charAt(i))) {
+            i++;
+        }
+        return i > 0 && (i == lit.length() || Character.isLetter(lit.charAt(i)) || isHardDelimiter(lit.charAt(i)));
+    }
+
+    /** Whether the text right before a placeholder (the end of {@code lit}) ends the preceding token. */
+    private static boolean boundaryAfter(String lit) {
+        if (lit.isEmpty()) {
+            return false;
+        }
+        char c = lit.charAt(lit.length() - 1);
+        if (isHardDelimiter(c)) {
+            return true;
+        }
+        int i = lit.length() - 1;
+        while (i >= 0 && Character.isWhitespace(lit.charAt(i))) {
+            i--;
+        }
+        return i < lit.length() - 1 && (i < 0 || Character.isLetter(lit.charAt(i)) || isHardDelimiter(lit.charAt(i)));
+    }
+
+    private static boolean isHardDelimiter(char c) {
+        if (Character.isLetterOrDigit(c) || Character.isWhitespace(c)) {
+            return false;
+        }
+        return switch (c) {
+            case '.', '_', '%', '+', '-', '@', '(', ')' -> false;
+            default -> true;
+        };
+    }
+}
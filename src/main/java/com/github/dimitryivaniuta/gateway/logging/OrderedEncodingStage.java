@@ -0,0 +1,145 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.spi.CallerData;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.spi.ContextAware;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Encodes a batch of events on several threads and returns the bytes in event order.
+ *
+ * <p>The calling thread and {@code workers - 1} helper threads claim chunks of the batch from a shared cursor and
+ * write each result into the slot of its event, so the output is re-sequenced by index with no reordering buffer.
+ * Redaction runs inside the encoder (converters and JSON providers), so it scales with the workers too.</p>
+ *
+ * <p>The events must be immutable snapshots: the helpers only read them, concurrently. The encoder has to be
+ * thread-safe, as logstash encoders and the redacting converters are.</p>
+ */
+final class OrderedEncodingStage implements AutoCloseable {
+
+    /** Events claimed per cursor step: enough to amortize the CAS, small enough to balance the load. */
+    static final int CHUNK = 8;
+
+    private final Encoder<ILoggingEvent> encoder;
+    private final ContextAware status;
+    private final Thread[] helpers;
+    private volatile Job job;
+    private volatile boolean running = true;
+
+    /**
+     * @param workers threads encoding a batch, including the caller; {@code 1} encodes on the caller only
+     * @param status  where encoding failures are reported
+     */
+    OrderedEncodingStage(Encoder<ILoggingEvent> encoder, int workers, String name, ContextAware status) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("workers must be positive, got " + workers);
+        }
+        this.encoder = encoder;
+        this.status = status;
+        this.helpers = new Thread[workers - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Thread(this::help, "logback-encode-" + name + "-" + (i + 1));
+            helpers[i].setDaemon(true);
+            helpers[i].start();
+        }
+    }
+
+    int workers() {
+        return helpers.length + 1;
+    }
+
+    /**
+     * Freezes the lazily computed parts of the event before other threads read it. Caller data that was not
+     * captured on the logging thread would otherwise be computed from an encoding thread's stack.
+     */
+    static ILoggingEvent snapshot(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (!event.hasCallerData() && event instanceof LoggingEvent le) {
+            le.setCallerData(CallerData.EMPTY_CALLER_DATA_ARRAY);
+        }
+        return event;
+    }
+
+    /**
+     * Encodes {@code events[0..n)} into {@code out[0..n)}; a slot stays {@code null} if its event failed to encode.
+     * Not reentrant: one caller thread at a time.
+     */
+    void encode(ILoggingEvent[] events, int n, byte[][] out) {
+        if (helpers.length == 0 || n <= CHUNK) {
+            for (int i = 0; i < n; i++) {
+                out[i] = encodeOne(events[i]);
+            }
+            return;
+        }
+        Job j = new Job(events, n, out);
+        job = j;
+        for (Thread h : helpers) {
+            LockSupport.unpark(h);
+        }
+        work(j);
+        int attempt = 0;
+        while (j.done.get() < n) {
+            attempt = WaitStrategy.SLEEPING.idle(attempt);
+        }
+        job = null;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        for (Thread h : helpers) {
+            LockSupport.unpark(h);
+        }
+    }
+
+    private void help() {
+        Job seen = null;
+        while (running) {
+            Job j = job;
+            if (j == null || j == seen) {
+                LockSupport.park(this);
+                continue;
+            }
+            seen = j;
+            work(j);
+        }
+    }
+
+    private void work(Job j) {
+        int from;
+        while ((from = j.cursor.getAndAdd(CHUNK)) < j.n) {
+            int to = Math.min(j.n, from + CHUNK);
+            for (int i = from; i < to; i++) {
+                j.out[i] = encodeOne(j.events[i]);
+            }
+            j.done.addAndGet(to - from);
+        }
+    }
+
+    private byte[] encodeOne(ILoggingEvent event) {
+        try {
+            return encoder.encode(event);
+        } catch (RuntimeException e) {
+            status.addError("Failed to encode an event of [" + event.getLoggerName() + "].", e);
+            return null;
+        }
+    }
+
+    private static final class Job {
+        final ILoggingEvent[] events;
+        final int n;
+        final byte[][] out;
+        final AtomicInteger cursor = new AtomicInteger();
+        final AtomicInteger done = new AtomicInteger();
+
+        Job(ILoggingEvent[] events, int n, byte[][] out) {
+            this.events = events;
+            this.n = n;
+            this.out = out;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.status.ErrorStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Console appender that redacts and encodes the batches of a {@link RingBufferAsyncAppender} in parallel.
+ *
+ * <p>With one async consumer thread, the encoder (and the redacting converters and MDC provider inside it) is
+ * the bottleneck once redaction gets CPU-heavy. Attached to a {@link RingBufferAsyncAppender}, this appender
+ * collects the events of a batch, encodes them on {@code workers} threads with {@link OrderedEncodingStage}, then
+ * writes the bytes in the original order and flushes once. Events appended from any other thread, e.g. with
+ * synchronous logging in tests, are encoded and written immediately like in a plain {@link ConsoleAppender}.</p>
+ *
+ * <pre>
+ * &lt;appender name="CONSOLE_JSON" class="com.github.dimitryivaniuta.gateway.logging.ParallelConsoleAppender"&gt;
+ *     &lt;workers&gt;4&lt;/workers&gt;   &lt;!-- default: available processors, at most 8 --&gt;
+ *     &lt;encoder class="..."/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class ParallelConsoleAppender extends ConsoleAppender<ILoggingEvent> implements BatchAware {
+
+    public static final int DEFAULT_MAX_WORKERS = 8;
+    public static final int DEFAULT_MAX_PENDING = 256;
+
+    private int workers = Math.min(DEFAULT_MAX_WORKERS, Runtime.getRuntime().availableProcessors());
+    private int maxPending = DEFAULT_MAX_PENDING;
+
+    private OrderedEncodingStage stage;
+    /** Consumer thread inside a batch; only its events are collected. */
+    private volatile Thread batchThread;
+    private ILoggingEvent[] pending;
+    private byte[][] encoded;
+    private int count;
+
+    @Override
+    public void start() {
+        if (workers < 1 || maxPending < 1) {
+            addError("workers and maxPending must be positive, got " + workers + " and " + maxPending);
+            return;
+        }
+        super.start();
+        if (isStarted()) {
+            pending = new ILoggingEvent[maxPending];
+            encoded = new byte[maxPending][];
+            stage = new OrderedEncodingStage(encoder, workers, name, this);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        writePending();
+        batchThread = null;
+        stage.close();
+        super.stop();
+    }
+
+    @Override
+    public void beginBatch() {
+        batchThread = Thread.currentThread();
+    }
+
+    @Override
+    public void endOfBatch() {
+        writePending();
+        batchThread = null;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!isStarted()) {
+            return;
+        }
+        if (Thread.currentThread() != batchThread) {
+            super.append(event);
+            return;
+        }
+        pending[count++] = OrderedEncodingStage.snapshot(event);
+        if (count == pending.length) {
+            writePending();
+        }
+    }
+
+    private void writePending() {
+        if (count == 0) {
+            return;
+        }
+        int n = count;
+        stage.encode(pending, n, encoded);
+        streamWriteLock.lock();
+        try {
+            OutputStream out = getOutputStream();
+            for (int i = 0; i < n; i++) {
+                byte[] bytes = encoded[i];
+                if (bytes != null && bytes.length > 0) {
+                    out.write(bytes);
+                    updateByteCount(bytes);
+                }
+            }
+            if (isImmediateFlush()) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            started = false;
+            addStatus(new ErrorStatus("IO failure in appender", this, e));
+        } finally {
+            streamWriteLock.unlock();
+            Arrays.fill(pending, 0, n, null);
+            Arrays.fill(encoded, 0, n, null);
+            count = 0;
+        }
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /** @param workers threads encoding a batch, including the async consumer thread; {@code 1} disables the stage */
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    /** @param maxPending events collected before a partial batch is encoded and written */
+    public void setMaxPending(int maxPending) {
+        this.maxPending = maxPending;
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Configuration-defined rule: replaces every match with a fixed replacement, optionally keeping the last
+ * {@code keepLast} characters of the match (e.g. {@code ***IBAN***1234}).
+ *
+ * @param name        unique rule name
+ * @param regex       regex fragment (no named groups)
+ * @param replacement replacement text; defaults to {@code ***NAME***}
+ * @param triggers    prefilter characters, see {@link RedactionRule#triggers()}
+ * @param minDigits   prefilter digit cluster size, see {@link RedactionRule#minDigits()}
+ * @param keepLast    number of trailing characters of the match to keep after the replacement
+ * @param argumentSafe whether matches stay inside one token, see {@link RedactionRule#argumentSafe()}
+ */
+public record PatternRule(String name, String regex, String replacement, String triggers, int minDigits, int keepLast,
+                          boolean argumentSafe) implements RedactionRule {
+
+    public PatternRule {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(regex, "regex");
+        if (replacement == null) {
+            replacement = "***" + name.toUpperCase(Locale.ROOT) + "***";
+        }
+        if (triggers == null) {
+            triggers = "";
+        }
+        if (minDigits < 0 || keepLast < 0) {
+            throw new IllegalArgumentException("Rule '" + name + "': minDigits and keepLast must be >= 0");
+        }
+    }
+
+    public PatternRule(String name, String regex, String replacement, String triggers, int minDigits, int keepLast) {
+        this(name, regex, replacement, triggers, minDigits, keepLast, false);
+    }
+
+    @Override
+    public boolean mask(CharSequence in, int start, int end, StringBuilder out) {
+        out.append(replacement);
+        if (keepLast > 0) {
+            out.append(in, Math.max(start, end - keepLast), end);
+        }
+        return true;
+    }
+}
@@ -3,13 +3,124 @@ package com.github.dimitryivaniuta.gateway.logging;
 import ch.qos.logback.classic.pattern.ClassicConverter;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 
+import java.util.UUID;
+
 /**
  * Logback converter returning redacted formatted message.
+ *
+ * <p>For parameterized messages the template is not re-scanned on every call. When the template is
+ * {@linkplain MessageTemplate split-safe}, its literal parts are copied as-is and only the argument values are
+ * redacted; small integers, booleans, enums and UUIDs are appended without scanning. Other messages are
+ * formatted first and redacted as a whole.</p>
  */
 public class RedactedMessageConverter extends ClassicConverter {
 
+    /** Integers below this magnitude have fewer digits than the shortest phone, so they cannot be PII. */
+    private static final long MAX_PLAIN_NUMBER = 1_000_000L;
+
+    private static final int MAX_POOLED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
     @Override
     public String convert(ILoggingEvent event) {
-        return event == null ? "" : Redactor.redact(event.getFormattedMessage());
+        if (event == null) {
+            return "";
+        }
+        RedactionTelemetry.Probe probe = RedactionTelemetry.begin(RedactionSite.MESSAGE, event.getLoggerName());
+        try {
+            return redact(event);
+        } finally {
+            RedactionTelemetry.end(probe);
+        }
+    }
+
+    private static String redact(ILoggingEvent event) {
+        MessageTemplate t = splitTemplate(event);
+        if (t == null) {
+            return Redactor.redact(event.getFormattedMessage());
+        }
+
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        try {
+            appendSplit(t, event.getArgumentArray(), sb);
+            return sb.toString();
+        } finally {
+            if (sb.capacity() > MAX_POOLED_CAPACITY) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * Appends the same text {@link #convert} returns to {@code out}, for encoders that write into their own buffer.
+     * Telemetry is left to the caller.
+     */
+    static void redactTo(ILoggingEvent event, StringBuilder out) {
+        MessageTemplate t = splitTemplate(event);
+        if (t == null) {
+            Redactor.redactTo(event.getFormattedMessage(), out);
+        } else {
+            appendSplit(t, event.getArgumentArray(), out);
+        }
+    }
+
+    /** @return the event's template if its literals can be copied and only its arguments redacted, else null */
+    private static MessageTemplate splitTemplate(ILoggingEvent event) {
+        Object[] args = event.getArgumentArray();
+        String template = event.getMessage();
+        if (args == null || args.length == 0 || template == null) {
+            return null;
+        }
+        MessageTemplate t = MessageTemplate.of(template, Redactor.engine());
+        if (!t.splitSafe || args.length < t.placeholders() || hasArray(args, t.placeholders())) {
+            return null;
+        }
+        return t;
+    }
+
+    private static void appendSplit(MessageTemplate t, Object[] args, StringBuilder sb) {
+        sb.append(t.literals[0]);
+        for (int i = 0; i < t.placeholders(); i++) {
+            appendArgument(args[i], sb);
+            sb.append(t.literals[i + 1]);
+        }
+    }
+
+    private static boolean hasArray(Object[] args, int count) {
+        for (int i = 0; i < count; i++) {
+            if (args[i] != null && args[i].getClass().isArray()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendArgument(Object arg, StringBuilder sb) {
+        if (arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte) {
+            long v = ((Number) arg).longValue();
+            if (v > -MAX_PLAIN_NUMBER && v < MAX_PLAIN_NUMBER) {
+                sb.append(v);
+                return;
+            }
+        } else if (arg == null || arg instanceof Boolean || arg instanceof Enum<?> || arg instanceof UUID) {
+            sb.append(arg);
+            return;
+        }
+
+        String s;
+        try {
+            s = String.valueOf(arg);
+        } catch (RuntimeException e) {
+            // Same placeholder SLF4J's MessageFormatter prints.
+            sb.append("[FAILED toString()]");
+            return;
+        }
+        if (s.isBlank()) {
+            sb.append(s);
+        } else {
+            Redactor.redactTo(s, sb);
+        }
     }
 }
@@ -1,15 +1,202 @@
 package com.github.dimitryivaniuta.gateway.logging;
 
 import ch.qos.logback.classic.pattern.ThrowableProxyConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Logback converter returning redacted exception string.
+ *
+ * <p>Output matches {@link ThrowableProxyConverter}, but only the exception message lines ("Class: message",
+ * "Caused by: ...", "Suppressed: ...") are redacted. Stack frames hold class, method and file names, never user
+ * input, so they are not scanned. Rendered frame blocks are cached in a bounded LRU keyed by the frames
+ * themselves; a burst of the same exception renders its stack once.</p>
+ *
+ * <p>Options: the usual length/evaluator options of {@code %ex}, plus {@code collapse}, which folds repeated
+ * frame cycles (deep recursion) into a single "... n repeated frames omitted" line.</p>
  */
 public class RedactedThrowableConverter extends ThrowableProxyConverter {
 
+    static final String COLLAPSE_OPTION = "collapse";
+
+    private static final int CACHE_SIZE = 256;
+
+    /** Longest recursion cycle (in frames) that {@code collapse} looks for. */
+    private static final int MAX_CYCLE = 16;
+
+    private static final ThreadLocal<StringBuilder> FIRST_LINE = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private final Map<FrameKey, String> frameCache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FrameKey, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private boolean collapse;
+
+    @Override
+    public void start() {
+        List<String> options = getOptionList();
+        if (options != null && options.contains(COLLAPSE_OPTION)) {
+            collapse = true;
+            List<String> rest = new ArrayList<>(options);
+            rest.remove(COLLAPSE_OPTION);
+            // Logback reads the remaining options positionally (length first, then evaluators).
+            setOptionList(rest.isEmpty() ? null : rest);
+        }
+        super.start();
+    }
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        if (event.getThrowableProxy() == null) {
+            return "";
+        }
+        RedactionTelemetry.Probe probe = RedactionTelemetry.begin(RedactionSite.THROWABLE, event.getLoggerName());
+        try {
+            return super.convert(event);
+        } finally {
+            RedactionTelemetry.end(probe);
+        }
+    }
+
     @Override
     protected String throwableProxyToString(IThrowableProxy tp) {
-        return Redactor.redact(super.throwableProxyToString(tp));
+        StringBuilder sb = new StringBuilder(BUILDER_CAPACITY);
+        recursiveAppend(sb, null, ThrowableProxyUtil.REGULAR_EXCEPTION_INDENT, tp);
+        return sb.toString();
+    }
+
+    /**
+     * Appends what {@link #convert} returns for an event with {@code tp} to {@code out}, for encoders that write
+     * into their own buffer. Telemetry and evaluators are left to the caller.
+     */
+    void redactTo(IThrowableProxy tp, StringBuilder out) {
+        recursiveAppend(out, null, ThrowableProxyUtil.REGULAR_EXCEPTION_INDENT, tp);
+    }
+
+    private void recursiveAppend(StringBuilder sb, String prefix, int indent, IThrowableProxy tp) {
+        if (tp == null) {
+            return;
+        }
+        ThrowableProxyUtil.indent(sb, indent - 1);
+        if (prefix != null) {
+            sb.append(prefix);
+        }
+        appendRedactedMessage(sb, tp);
+        sb.append(CoreConstants.LINE_SEPARATOR);
+        sb.append(frames(indent, tp));
+        IThrowableProxy[] suppressed = tp.getSuppressed();
+        if (suppressed != null) {
+            for (IThrowableProxy current : suppressed) {
+                recursiveAppend(sb, CoreConstants.SUPPRESSED, indent + ThrowableProxyUtil.SUPPRESSED_EXCEPTION_INDENT, current);
+            }
+        }
+        recursiveAppend(sb, CoreConstants.CAUSED_BY, indent, tp.getCause());
+    }
+
+    private static void appendRedactedMessage(StringBuilder sb, IThrowableProxy tp) {
+        StringBuilder line = FIRST_LINE.get();
+        line.setLength(0);
+        ThrowableProxyUtil.subjoinExceptionMessage(line, tp);
+        Redactor.redactTo(line, sb);
+    }
+
+    private String frames(int indent, IThrowableProxy tp) {
+        FrameKey key = new FrameKey(tp.getStackTraceElementProxyArray(), tp.getCommonFrames(), indent);
+        synchronized (frameCache) {
+            String cached = frameCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        StringBuilder block = new StringBuilder(BUILDER_CAPACITY);
+        subjoinSTEPArray(block, indent, tp);
+        String rendered = collapse ? collapseCycles(block.toString()) : block.toString();
+        synchronized (frameCache) {
+            frameCache.put(key, rendered);
+        }
+        return rendered;
+    }
+
+    /** Folds consecutive repetitions of a frame cycle (up to {@link #MAX_CYCLE} lines long) into one marker line. */
+    static String collapseCycles(String block) {
+        String[] lines = block.split(CoreConstants.LINE_SEPARATOR, -1);
+        StringBuilder out = new StringBuilder(block.length());
+        int n = lines.length - 1; // trailing empty element after the last separator
+        int i = 0;
+        while (i < n) {
+            int bestPeriod = 0;
+            int bestReps = 1;
+            for (int p = 1; p <= MAX_CYCLE && i + 2 * p <= n; p++) {
+                int reps = 1;
+                while (i + (reps + 1) * p <= n && sameLines(lines, i, i + reps * p, p)) {
+                    reps++;
+                }
+                if (reps > 1 && (reps - 1) * p > (bestReps - 1) * bestPeriod) {
+                    bestPeriod = p;
+                    bestReps = reps;
+                }
+            }
+            if (bestPeriod == 0) {
+                out.append(lines[i++]).append(CoreConstants.LINE_SEPARATOR);
+                continue;
+            }
+            for (int k = 0; k < bestPeriod; k++) {
+                out.append(lines[i + k]).append(CoreConstants.LINE_SEPARATOR);
+            }
+            String first = lines[i];
+            out.append(first, 0, first.length() - first.stripLeading().length())
+                    .append("... ").append((bestReps - 1) * bestPeriod).append(" repeated frames omitted")
+                    .append(CoreConstants.LINE_SEPARATOR);
+            i += bestReps * bestPeriod;
+        }
+        return out.toString();
+    }
+
+    private static boolean sameLines(String[] lines, int a, int b, int len) {
+        for (int k = 0; k < len; k++) {
+            if (!lines[a + k].equals(lines[b + k])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Cache key: the frames plus everything else that changes how they are rendered. */
+    private static final class FrameKey {
+
+        private final StackTraceElementProxy[] frames;
+        private final int commonFrames;
+        private final int indent;
+        private final int hash;
+
+        FrameKey(StackTraceElementProxy[] frames, int commonFrames, int indent) {
+            this.frames = frames;
+            this.commonFrames = commonFrames;
+            this.indent = indent;
+            this.hash = 31 * (31 * Arrays.hashCode(frames) + commonFrames) + indent;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof FrameKey k && hash == k.hash && commonFrames == k.commonFrames && indent == k.indent
+                    && Arrays.equals(frames, k.frames);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
     }
 }
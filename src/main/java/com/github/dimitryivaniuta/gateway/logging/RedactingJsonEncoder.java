@@ -0,0 +1,364 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON encoder for the redacting pipeline that writes each event straight into a reusable per-thread byte buffer.
+ *
+ * <p>Produces the same line as the {@code LoggingEventCompositeJsonEncoder} setup it replaces (timestamp, level,
+ * logger and thread name, the MDC through {@link RedactingMdcJsonProvider}'s policies, then {@code message} and
+ * {@code exception} from {@link RedactedMessageConverter} and {@link RedactedThrowableConverter}), byte for byte:</p>
+ * <pre>{@code
+ * {"@timestamp":"2026-01-01T10:00:00.123456Z","level":"INFO","logger_name":"...","thread_name":"...",
+ *  "correlationId":"...","message":"...","exception":""}
+ * }</pre>
+ *
+ * <p>That setup renders message and exception through a pattern, parses the result as JSON and writes it again
+ * with Jackson. Here the redacted text goes to a per-thread character buffer and is JSON-escaped and UTF-8
+ * encoded in a single pass over it. Field names are constants, and the escaped logger names and MDC keys are
+ * cached, so an event without PII allocates only the returned array. Per-thread buffers that grew past
+ * {@value #MAX_POOLED_BYTES} bytes are dropped after use.</p>
+ *
+ * <pre>
+ * &lt;encoder class="com.github.dimitryivaniuta.gateway.logging.RedactingJsonEncoder"&gt;
+ *     &lt;trustedKey&gt;correlationId&lt;/trustedKey&gt;
+ *     &lt;redactedKey&gt;sessionToken&lt;/redactedKey&gt;
+ * &lt;/encoder&gt;
+ * </pre>
+ *
+ * <p>Thread-safe: {@link ParallelConsoleAppender} calls it from several encoding threads at once.</p>
+ */
+public class RedactingJsonEncoder extends EncoderBase<ILoggingEvent> {
+
+    static final int MAX_POOLED_BYTES = 64 * 1024;
+    private static final int MAX_POOLED_CHARS = 16 * 1024;
+
+    /** Cached logger names and MDC keys; past this many, the rest is escaped on every event. */
+    static final int MAX_CACHED_NAMES = 4096;
+
+    /** Characters escaped per capacity check: bounds the buffer growth for long strings. */
+    private static final int CHUNK = 4096;
+
+    private static final byte[] START = ascii("{\"@timestamp\":\"");
+    private static final byte[] LEVEL = ascii("\",\"level\":\"");
+    private static final byte[] LOGGER = ascii("\",\"logger_name\":\"");
+    private static final byte[] THREAD = ascii("\",\"thread_name\":\"");
+    private static final byte[] MESSAGE = ascii(",\"message\":\"");
+    private static final byte[] EXCEPTION = ascii("\",\"exception\":\"");
+    private static final byte[] END = ascii("\"}" + CoreConstants.LINE_SEPARATOR);
+
+    private static final byte[] TRACE = ascii("TRACE");
+    private static final byte[] DEBUG = ascii("DEBUG");
+    private static final byte[] INFO = ascii("INFO");
+    private static final byte[] WARN = ascii("WARN");
+    private static final byte[] ERROR = ascii("ERROR");
+
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+
+    /**
+     * Per ASCII character: {@code 0} written as-is, {@code -1} written as a unicode escape, else the letter of its
+     * short escape. Same choices as Jackson.
+     */
+    private static final int[] ESCAPES = new int[128];
+
+    static {
+        Arrays.fill(ESCAPES, 0, 0x20, -1);
+        ESCAPES['"'] = '"';
+        ESCAPES['\\'] = '\\';
+        ESCAPES['\b'] = 'b';
+        ESCAPES['\t'] = 't';
+        ESCAPES['\n'] = 'n';
+        ESCAPES['\f'] = 'f';
+        ESCAPES['\r'] = 'r';
+    }
+
+    /**
+     * Per-thread scratch space. Only pooled threads reuse it: with synchronous logging on a virtual thread per request
+     * every request fills a fresh one.
+     */
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private final Map<String, RedactingMdcJsonProvider.Policy> policies = new HashMap<>();
+    private final ConcurrentHashMap<String, byte[]> loggerNames = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, byte[]> mdcKeys = new ConcurrentHashMap<>();
+    private final RedactedThrowableConverter throwableConverter = new RedactedThrowableConverter();
+
+    /** Declares an MDC key whose value is written without scanning. */
+    public void addTrustedKey(String key) {
+        policies.put(key.trim(), RedactingMdcJsonProvider.Policy.TRUSTED);
+    }
+
+    /** Declares an MDC key whose value is never written. */
+    public void addRedactedKey(String key) {
+        policies.put(key.trim(), RedactingMdcJsonProvider.Policy.REDACT);
+    }
+
+    /** @return the policy applied to the MDC value of {@code key} */
+    public RedactingMdcJsonProvider.Policy policy(String key) {
+        return policies.getOrDefault(key, RedactingMdcJsonProvider.Policy.SCAN);
+    }
+
+    @Override
+    public void start() {
+        throwableConverter.setContext(getContext());
+        throwableConverter.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        throwableConverter.stop();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        Buffers b = BUFFERS.get();
+        b.len = 0;
+        try {
+            b.bytes(START);
+            b.timestamp(event.getInstant() != null ? event.getInstant() : Instant.ofEpochMilli(event.getTimeStamp()));
+            b.bytes(LEVEL);
+            b.bytes(level(event.getLevel()));
+            b.bytes(LOGGER);
+            b.bytes(loggerName(event.getLoggerName()));
+            b.bytes(THREAD);
+            b.string(event.getThreadName());
+            b.ascii('"');
+            writeMdc(b, event);
+            b.bytes(MESSAGE);
+            writeMessage(b, event);
+            b.bytes(EXCEPTION);
+            writeThrowable(b, event);
+            b.bytes(END);
+            return Arrays.copyOf(b.buf, b.len);
+        } finally {
+            if (b.buf.length > MAX_POOLED_BYTES || b.chars.capacity() > MAX_POOLED_CHARS) {
+                BUFFERS.remove();
+            }
+        }
+    }
+
+    private void writeMdc(Buffers b, ILoggingEvent event) {
+        Map<String, String> mdc = event.getMDCPropertyMap();
+        if (mdc == null || mdc.isEmpty()) {
+            return;
+        }
+        RedactionTelemetry.Probe probe = RedactionTelemetry.begin(RedactionSite.MDC, event.getLoggerName());
+        try {
+            for (Map.Entry<String, String> e : mdc.entrySet()) {
+                String key = e.getKey();
+                String val = e.getValue();
+                if (key == null || val == null) {
+                    continue;
+                }
+                b.bytes(mdcKey(key));
+                switch (policy(key)) {
+                    case TRUSTED -> b.string(val);
+                    case REDACT -> b.string(RedactingMdcJsonProvider.REDACTED);
+                    case SCAN -> b.string(b.verdicts.redact(val));
+                }
+                b.ascii('"');
+            }
+        } finally {
+            RedactionTelemetry.end(probe);
+        }
+    }
+
+    private static void writeMessage(Buffers b, ILoggingEvent event) {
+        RedactionTelemetry.Probe probe = RedactionTelemetry.begin(RedactionSite.MESSAGE, event.getLoggerName());
+        try {
+            b.chars.setLength(0);
+            RedactedMessageConverter.redactTo(event, b.chars);
+        } finally {
+            RedactionTelemetry.end(probe);
+        }
+        b.string(b.chars);
+    }
+
+    private void writeThrowable(Buffers b, ILoggingEvent event) {
+        IThrowableProxy tp = event.getThrowableProxy();
+        if (tp == null) {
+            return;
+        }
+        RedactionTelemetry.Probe probe = RedactionTelemetry.begin(RedactionSite.THROWABLE, event.getLoggerName());
+        try {
+            b.chars.setLength(0);
+            throwableConverter.redactTo(tp, b.chars);
+        } finally {
+            RedactionTelemetry.end(probe);
+        }
+        b.string(b.chars);
+    }
+
+    private static byte[] level(Level level) {
+        return switch (level.toInt()) {
+            case Level.TRACE_INT -> TRACE;
+            case Level.DEBUG_INT -> DEBUG;
+            case Level.INFO_INT -> INFO;
+            case Level.WARN_INT -> WARN;
+            case Level.ERROR_INT -> ERROR;
+            default -> ascii(level.levelStr);
+        };
+    }
+
+    private byte[] loggerName(String name) {
+        return cached(loggerNames, name == null ? "" : name, "", "");
+    }
+
+    private byte[] mdcKey(String key) {
+        return cached(mdcKeys, key, ",\"", "\":\"");
+    }
+
+    /** @return {@code prefix}, the escaped {@code s} and {@code suffix} as UTF-8, cached per {@code s} */
+    private static byte[] cached(ConcurrentHashMap<String, byte[]> cache, String s, String prefix, String suffix) {
+        byte[] bytes = cache.get(s);
+        if (bytes == null) {
+            Buffers tmp = new Buffers();
+            tmp.bytes(ascii(prefix));
+            tmp.string(s);
+            tmp.bytes(ascii(suffix));
+            bytes = Arrays.copyOf(tmp.buf, tmp.len);
+            if (cache.size() < MAX_CACHED_NAMES) {
+                cache.putIfAbsent(s, bytes);
+            }
+        }
+        return bytes;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Output and scratch buffers of one thread. */
+    private static final class Buffers {
+
+        byte[] buf = new byte[1024];
+        int len;
+        /** Redacted message or exception text before it is escaped. */
+        final StringBuilder chars = new StringBuilder(256);
+        final RedactingMdcJsonProvider.Verdicts verdicts = new RedactingMdcJsonProvider.Verdicts();
+        /** {@code yyyy-MM-ddTHH:mm:ss} of {@link #second}, which events of the same second share. */
+        byte[] secondText;
+        long second = Long.MIN_VALUE;
+
+        void ensure(int extra) {
+            if (len + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(len + extra, buf.length * 2));
+            }
+        }
+
+        void ascii(char c) {
+            ensure(1);
+            buf[len++] = (byte) c;
+        }
+
+        void bytes(byte[] b) {
+            ensure(b.length);
+            System.arraycopy(b, 0, buf, len, b.length);
+            len += b.length;
+        }
+
+        /** Writes {@code t} as ISO-8601 in UTC, with as many fraction digits as it needs, like Jackson's. */
+        void timestamp(Instant t) {
+            long s = t.getEpochSecond();
+            if (s != second) {
+                secondText = DateTimeFormatter.ISO_LOCAL_DATE_TIME
+                        .format(LocalDateTime.ofEpochSecond(s, 0, ZoneOffset.UTC))
+                        .getBytes(StandardCharsets.US_ASCII);
+                second = s;
+            }
+            bytes(secondText);
+            ensure(11);
+            int nanos = t.getNano();
+            if (nanos != 0) {
+                int digits = 9;
+                while (nanos % 10 == 0) {
+                    nanos /= 10;
+                    digits--;
+                }
+                buf[len++] = '.';
+                for (int i = len + digits - 1; i >= len; i--) {
+                    buf[i] = (byte) ('0' + nanos % 10);
+                    nanos /= 10;
+                }
+                len += digits;
+            }
+            buf[len++] = 'Z';
+        }
+
+        /** JSON-escapes and UTF-8 encodes {@code s} in one pass; {@code null} writes nothing. */
+        void string(CharSequence s) {
+            if (s == null) {
+                return;
+            }
+            int n = s.length();
+            for (int from = 0; from < n; from += CHUNK) {
+                int to = Math.min(n, from + CHUNK);
+                // At most 6 bytes per char: a unicode escape, written for controls and for each half of a surrogate pair.
+                ensure((to - from) * 6);
+                byte[] b = buf;
+                int p = len;
+                for (int i = from; i < to; i++) {
+                    char c = s.charAt(i);
+                    if (c < 0x80) {
+                        int e = ESCAPES[c];
+                        if (e == 0) {
+                            b[p++] = (byte) c;
+                        } else if (e > 0) {
+                            b[p++] = '\\';
+                            b[p++] = (byte) e;
+                        } else {
+                            p = unicodeEscape(b, p, c);
+                        }
+                    } else if (c < 0x800) {
+                        b[p++] = (byte) (0xC0 | (c >> 6));
+                        b[p++] = (byte) (0x80 | (c & 0x3F));
+                    } else if (Character.isSurrogate(c)) {
+                        // Jackson escapes each half rather than combining them; this also keeps lone halves valid.
+                        p = unicodeEscape(b, p, c);
+                    } else {
+                        b[p++] = (byte) (0xE0 | (c >> 12));
+                        b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                        b[p++] = (byte) (0x80 | (c & 0x3F));
+                    }
+                }
+                len = p;
+            }
+        }
+
+        private static int unicodeEscape(byte[] b, int p, char c) {
+            b[p++] = '\\';
+            b[p++] = 'u';
+            b[p++] = HEX[c >> 12];
+            b[p++] = HEX[(c >> 8) & 0xF];
+            b[p++] = HEX[(c >> 4) & 0xF];
+            b[p++] = HEX[c & 0xF];
+            return p;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import net.logstash.logback.composite.loggingevent.MdcJsonProvider;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -12,9 +13,52 @@ import java.util.Map;
  *
  * <p>This is a safety-net: production code should avoid putting raw user input into MDC.
  * If it happens, this provider prevents accidental PII persistence.</p>
+ *
+ * <p>Each key has a {@link Policy}. Keys default to {@link Policy#SCAN}; keys whose values the application
+ * produces itself can be declared trusted and are written without any redaction work:</p>
+ * <pre>{@code
+ * <provider class="...RedactingMdcJsonProvider">
+ *     <trustedKey>correlationId</trustedKey>
+ *     <redactedKey>sessionToken</redactedKey>
+ * </provider>
+ * }</pre>
+ *
+ * <p>MDC values repeat across every event of a request, so scan results are memoized in a small per-thread
+ * cache. Include/exclude lists and key renames of {@link MdcJsonProvider} are honoured.</p>
  */
 public class RedactingMdcJsonProvider extends MdcJsonProvider {
 
+    /** How the value of an MDC key is written. */
+    public enum Policy {
+        /** Written as-is. Only for values the application generates or has already validated. */
+        TRUSTED,
+        /** Always replaced by {@link #REDACTED}, whatever the content. */
+        REDACT,
+        /** Run through the redaction engine. */
+        SCAN
+    }
+
+    static final String REDACTED = "***REDACTED***";
+
+    private final Map<String, Policy> policies = new HashMap<>();
+
+    private static final ThreadLocal<Verdicts> VERDICTS = ThreadLocal.withInitial(Verdicts::new);
+
+    /** Declares a key whose value is written without scanning. */
+    public void addTrustedKey(String key) {
+        policies.put(key.trim(), Policy.TRUSTED);
+    }
+
+    /** Declares a key whose value is never written. */
+    public void addRedactedKey(String key) {
+        policies.put(key.trim(), Policy.REDACT);
+    }
+
+    /** @return the policy applied to {@code key} */
+    public Policy policy(String key) {
+        return policies.getOrDefault(key, Policy.SCAN);
+    }
+
     @Override
     public void writeTo(JsonGenerator generator, ILoggingEvent event) throws IOException {
         Map<String, String> mdc = event.getMDCPropertyMap();
@@ -22,13 +66,74 @@ public class RedactingMdcJsonProvider extends MdcJsonProvider {
             return;
         }
 
-        String fieldName = getFieldName();
-        generator.writeObjectFieldStart(fieldName);
-        for (Map.Entry<String, String> e : mdc.entrySet()) {
-            String key = e.getKey();
-            String val = e.getValue();
-            generator.writeStringField(key, Redactor.redact(val));
+        RedactionTelemetry.Probe probe = RedactionTelemetry.begin(RedactionSite.MDC, event.getLoggerName());
+        try {
+            String fieldName = getFieldName();
+            boolean started = false;
+            for (Map.Entry<String, String> e : mdc.entrySet()) {
+                String key = e.getKey();
+                String val = e.getValue();
+                if (key == null || val == null || !included(key)) {
+                    continue;
+                }
+                if (!started && fieldName != null) {
+                    generator.writeObjectFieldStart(fieldName);
+                }
+                started = true;
+                generator.writeFieldName(mdcKeyFieldNames.getOrDefault(key, key));
+                switch (policy(key)) {
+                    case TRUSTED -> generator.writeString(val);
+                    case REDACT -> generator.writeString(REDACTED);
+                    case SCAN -> generator.writeString(VERDICTS.get().redact(val));
+                }
+            }
+            if (started && fieldName != null) {
+                generator.writeEndObject();
+            }
+        } finally {
+            RedactionTelemetry.end(probe);
+        }
+    }
+
+    private boolean included(String key) {
+        if (includeMdcKeyNames != null && !includeMdcKeyNames.isEmpty()) {
+            return includeMdcKeyNames.contains(key);
+        }
+        return excludeMdcKeyNames == null || !excludeMdcKeyNames.contains(key);
+    }
+
+    /**
+     * Direct-mapped cache of recent scan results for the current thread.
+     *
+     * <p>Entries remember the engine that produced them, so a rule reload invalidates them implicitly. A cache hit
+     * replays the counters of the scan it stands for, so lines, per-rule counters and hits stay exact.</p>
+     */
+    static final class Verdicts {
+
+        private static final int SLOTS = 32;
+
+        private final String[] inputs = new String[SLOTS];
+        private final String[] outputs = new String[SLOTS];
+        private final Redactor.Verdict[] verdicts = new Redactor.Verdict[SLOTS];
+
+        Verdicts() {
+            for (int i = 0; i < SLOTS; i++) {
+                verdicts[i] = new Redactor.Verdict();
+            }
+        }
+
+        String redact(String value) {
+            int slot = value.hashCode() & (SLOTS - 1);
+            Redactor.Verdict verdict = verdicts[slot];
+            String cached = inputs[slot];
+            if (verdict.engine == Redactor.engine() && (cached == value || value.equals(cached))) {
+                Redactor.replay(verdict);
+                return outputs[slot];
+            }
+            String out = Redactor.redact(value, verdict);
+            inputs[slot] = value;
+            outputs[slot] = out;
+            return out;
         }
-        generator.writeEndObject();
     }
 }
@@ -0,0 +1,112 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * UTF-8 output stream that redacts PII before passing bytes on.
+ *
+ * <p>Bytes are decoded to text (a multi-byte character split across writes is kept until complete), redacted
+ * through a {@link RedactingWriter} and encoded back to UTF-8. Malformed input is replaced with U+FFFD.
+ * {@link #close()} must be called to write the tail.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public class RedactingOutputStream extends OutputStream {
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(8192);
+    private final CharBuffer chars = CharBuffer.allocate(8192);
+    private final RedactingWriter writer;
+    private boolean closed;
+
+    /** Redacts with the currently active engine. */
+    public RedactingOutputStream(OutputStream out) {
+        this(out, Redactor.engine());
+    }
+
+    public RedactingOutputStream(OutputStream out, RedactionEngine engine) {
+        this.writer = new RedactingWriter(new OutputStreamWriter(Objects.requireNonNull(out, "out"), StandardCharsets.UTF_8),
+                engine);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!bytes.hasRemaining()) {
+            decode(false);
+        }
+        bytes.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureOpen();
+        while (len > 0) {
+            if (!bytes.hasRemaining()) {
+                decode(false);
+            }
+            int n = Math.min(len, bytes.remaining());
+            bytes.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        decode(false);
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            decode(true);
+            while (decoder.flush(chars).isOverflow()) {
+                writeChars();
+            }
+            writeChars();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void decode(boolean endOfInput) throws IOException {
+        bytes.flip();
+        CoderResult r;
+        do {
+            r = decoder.decode(bytes, chars, endOfInput);
+            writeChars();
+        } while (r.isOverflow());
+        bytes.compact();
+    }
+
+    private void writeChars() throws IOException {
+        chars.flip();
+        writer.write(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        chars.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
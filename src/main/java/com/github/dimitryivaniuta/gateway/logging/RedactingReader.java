@@ -0,0 +1,97 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Objects;
+
+/**
+ * Reader that returns the redacted form of another reader's text.
+ *
+ * <p>Reads ahead one chunk at a time (see {@link RedactionEngine#chunk()}) so matches split across reads of the
+ * source are masked whole; memory stays bounded whatever the input size. Unlike {@link Redactor#redact}, no
+ * length limit applies.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public class RedactingReader extends Reader {
+
+    private final Reader in;
+    private final StreamWindow window;
+    private final StringBuilder redacted = new StringBuilder();
+    private final char[] chars;
+    private int pos;
+    private boolean eof;
+    private boolean closed;
+
+    /** Redacts with the currently active engine. */
+    public RedactingReader(Reader in) {
+        this(in, Redactor.engine());
+    }
+
+    public RedactingReader(Reader in, RedactionEngine engine) {
+        this.in = Objects.requireNonNull(in, "in");
+        this.window = new StreamWindow(Objects.requireNonNull(engine, "engine"));
+        this.chars = new char[engine.chunk()];
+    }
+
+    @Override
+    public int read() throws IOException {
+        return hasText() ? redacted.charAt(pos++) : -1;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, cbuf.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (!hasText()) {
+            return -1;
+        }
+        int n = Math.min(len, redacted.length() - pos);
+        redacted.getChars(pos, pos + n, cbuf, off);
+        pos += n;
+        return n;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        ensureOpen();
+        return pos < redacted.length();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        in.close();
+    }
+
+    /** @return {@code false} at end of stream; otherwise there is redacted text at {@link #pos} */
+    private boolean hasText() throws IOException {
+        ensureOpen();
+        while (pos == redacted.length()) {
+            if (eof) {
+                return false;
+            }
+            redacted.setLength(0);
+            pos = 0;
+            int n = in.read(chars, 0, window.room());
+            if (n < 0) {
+                eof = true;
+                window.drain(true, redacted);
+            } else {
+                window.append(chars, 0, n);
+                if (window.room() == 0) {
+                    window.drain(false, redacted);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+
+/**
+ * Writer that redacts PII before passing text on, for payloads too large to hold as one string
+ * (exports, request bodies, batch jobs).
+ *
+ * <p>Text is buffered in a bounded window (see {@link RedactionEngine#overlap()}), so a match split across
+ * {@code write} calls is still masked whole. {@link #flush()} passes on everything that can no longer be part of
+ * a match; the last few hundred characters are only written by {@link #close()}. Unlike {@link Redactor#redact},
+ * no length limit applies.</p>
+ *
+ * <p>Not thread-safe.</p>
+ */
+public class RedactingWriter extends Writer {
+
+    private final Writer out;
+    private final StreamWindow window;
+    private final StringBuilder redacted = new StringBuilder();
+    private char[] chars = new char[1024];
+    private boolean closed;
+
+    /** Redacts with the currently active engine. */
+    public RedactingWriter(Writer out) {
+        this(out, Redactor.engine());
+    }
+
+    public RedactingWriter(Writer out, RedactionEngine engine) {
+        this.out = Objects.requireNonNull(out, "out");
+        this.window = new StreamWindow(Objects.requireNonNull(engine, "engine"));
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        if (window.room() == 0) {
+            emit(false);
+        }
+        window.append((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, cbuf.length);
+        ensureOpen();
+        while (len > 0) {
+            int n = Math.min(len, window.room());
+            window.append(cbuf, off, n);
+            off += n;
+            len -= n;
+            if (window.room() == 0) {
+                emit(false);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, str.length());
+        ensureOpen();
+        int end = off + len;
+        while (off < end) {
+            int n = Math.min(end - off, window.room());
+            window.append(str, off, off + n);
+            off += n;
+            if (window.room() == 0) {
+                emit(false);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        emit(false);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            emit(true);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void emit(boolean eof) throws IOException {
+        redacted.setLength(0);
+        window.drain(eof, redacted);
+        int n = redacted.length();
+        if (n == 0) {
+            return;
+        }
+        if (chars.length < n) {
+            chars = new char[Math.max(n, chars.length * 2)];
+        }
+        redacted.getChars(0, n, chars, 0);
+        out.write(chars, 0, n);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
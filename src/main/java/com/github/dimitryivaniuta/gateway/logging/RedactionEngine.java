@@ -0,0 +1,625 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable, compiled set of {@link RedactionRule}s.
+ *
+ * <p>All rules are combined into one alternation and the input is scanned once, left to right. Before scanning,
+ * a single character pass computes which rules can possibly match (see {@link RedactionRule#triggers()},
+ * {@link RedactionRule#minDigits()} and {@link RedactionRule#minWordLength()}); the line is then scanned with a
+ * pattern that only contains those rules. Such sub-patterns are compiled on first use and cached, so the per-line
+ * cost follows the rules a line can actually trigger rather than the total number of configured rules.</p>
+ *
+ * <p>Work per message is bounded by {@link RedactionLimits}. Messages longer than the chunk size are scanned in
+ * chunks that overlap by the longest possible match ({@link RedactionRule#maxMatchLength()}); a match is only
+ * taken from a chunk if it starts before the overlap, so matches across chunk boundaries are found exactly as in
+ * a single pass. Lookarounds see past the chunk edges. Because every regex attempt is confined to one chunk, the
+ * scan is linear in the message length even for rules with unbounded quantifiers.</p>
+ *
+ * <p>The built-in rules take two shortcuts that give the same output: {@link CandidateLocator} limits the scan to
+ * the spans that can hold one of their matches, and their build-time generated matchers ({@link CompiledRule})
+ * replace the combined pattern whenever every rule of the scan has one.</p>
+ *
+ * <p>Instances are thread-safe. {@link Redactor} holds the active engine and swaps it atomically.</p>
+ */
+public final class RedactionEngine {
+
+    /** Rules are tracked in a {@code long} bitmask. */
+    static final int MAX_RULES = 63;
+
+    /** Bit set in the result of {@link #scan} when part of the input was replaced by a truncation marker. */
+    static final long TRUNCATED = 1L << MAX_RULES;
+
+    /** Beyond this many distinct rule combinations, lines fall back to the full pattern. */
+    private static final int MAX_VARIANTS = 256;
+
+    private static final CandidateLocator DEFAULT_LOCATOR = CandidateLocator.configured();
+
+    private static final Pattern NAMED_GROUP = Pattern.compile("\\(\\?<[a-zA-Z]");
+
+    private final RedactionRule[] rules;
+    private final LongAdder[] counters;
+    /** Per-rule trigger characters as a 128-bit ASCII set; both words zero means "no trigger required". */
+    private final long[] triggerLo;
+    private final long[] triggerHi;
+    private final int[] minDigits;
+    private final int[] minWordLength;
+    private final long allRules;
+    private final boolean argumentSafe;
+    private final RedactionLimits limits;
+    private final int overlap;
+    private final int chunk;
+    private final CandidateLocator locator;
+    /** Rules whose matches {@link CandidateLocator} can find; other rules always scan the whole region. */
+    private final long locatedRules;
+    private final long atSignRules;
+    private final long clusterRules;
+    private final long credentialRules;
+    private final Variant full;
+    private final Map<Long, Variant> variants = new ConcurrentHashMap<>();
+
+    private RedactionEngine(List<RedactionRule> rules, RedactionLimits limits, CandidateLocator locator) {
+        if (rules.size() > MAX_RULES) {
+            throw new IllegalArgumentException("At most " + MAX_RULES + " redaction rules are supported, got " + rules.size());
+        }
+        this.rules = rules.toArray(RedactionRule[]::new);
+        this.counters = new LongAdder[this.rules.length];
+        this.triggerLo = new long[this.rules.length];
+        this.triggerHi = new long[this.rules.length];
+        this.minDigits = new int[this.rules.length];
+        this.minWordLength = new int[this.rules.length];
+
+        boolean allArgumentSafe = true;
+        int longestMatch = 1;
+        long located = 0;
+        long atSign = 0;
+        long cluster = 0;
+        long credential = 0;
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < this.rules.length; i++) {
+            RedactionRule r = this.rules[i];
+            validate(r, names);
+            counters[i] = Redactor.counter(r.name());
+            minDigits[i] = r.minDigits();
+            minWordLength[i] = r.minWordLength();
+            allArgumentSafe &= r.argumentSafe();
+            if (r.maxMatchLength() <= 0) {
+                throw new IllegalArgumentException("Rule '" + r.name() + "': maxMatchLength must be positive");
+            }
+            longestMatch = Math.max(longestMatch, r.maxMatchLength());
+            if (r instanceof CandidateLocator.Located l) {
+                located |= 1L << i;
+                switch (l.candidates()) {
+                    case AT_SIGN -> atSign |= 1L << i;
+                    case DIGIT_CLUSTER -> cluster |= 1L << i;
+                    case CREDENTIAL -> credential |= 1L << i;
+                }
+            }
+            for (char c : r.triggers().toCharArray()) {
+                if (c >= 128) {
+                    throw new IllegalArgumentException("Rule '" + r.name() + "': trigger characters must be ASCII");
+                }
+                if (c < 64) triggerLo[i] |= 1L << c;
+                else triggerHi[i] |= 1L << (c - 64);
+            }
+        }
+        this.allRules = (1L << this.rules.length) - 1;
+        this.argumentSafe = allArgumentSafe;
+        this.limits = limits;
+        this.overlap = longestMatch;
+        // Each chunk has to commit at least as much text as it re-reads.
+        this.chunk = Math.max(limits.chunkSize(), 2 * longestMatch);
+        this.locator = locator;
+        this.locatedRules = located;
+        this.atSignRules = atSign;
+        this.clusterRules = cluster;
+        this.credentialRules = credential;
+        this.full = new Variant(allRules);
+        variants.put(allRules, full);
+    }
+
+    /**
+     * Compiles rules into an engine.
+     *
+     * @param rules rules in precedence order
+     * @return compiled engine
+     * @throws IllegalArgumentException if a rule is invalid or names are duplicated
+     */
+    public static RedactionEngine compile(List<? extends RedactionRule> rules) {
+        return compile(rules, RedactionLimits.DEFAULTS);
+    }
+
+    /**
+     * Compiles rules into an engine with explicit work limits.
+     *
+     * @param rules  rules in precedence order
+     * @param limits per-message limits
+     * @return compiled engine
+     * @throws IllegalArgumentException if a rule is invalid or names are duplicated
+     */
+    public static RedactionEngine compile(List<? extends RedactionRule> rules, RedactionLimits limits) {
+        return compile(rules, limits, DEFAULT_LOCATOR);
+    }
+
+    /** Same as {@link #compile(List, RedactionLimits)} with an explicit candidate locator; {@code null} disables it. */
+    static RedactionEngine compile(List<? extends RedactionRule> rules, RedactionLimits limits, CandidateLocator locator) {
+        return new RedactionEngine(List.copyOf(rules), Objects.requireNonNull(limits, "limits"), locator);
+    }
+
+    /** @return engine with {@link BuiltinRules#defaults()} */
+    public static RedactionEngine builtin() {
+        return compile(BuiltinRules.defaults());
+    }
+
+    /** @return rule names in precedence order */
+    public List<String> ruleNames() {
+        List<String> out = new ArrayList<>(rules.length);
+        for (RedactionRule r : rules) {
+            out.add(r.name());
+        }
+        return out;
+    }
+
+    /**
+     * @param index bit index used in rule bitmasks
+     * @return rule name
+     */
+    public String ruleName(int index) {
+        return rules[index].name();
+    }
+
+    /** @return number of rules */
+    int ruleCount() {
+        return rules.length;
+    }
+
+    /** Adds per-rule mask counts recorded by {@link #scan(CharSequence, long, StringBuilder, int[])} to the counters. */
+    void count(int[] masks) {
+        for (int i = 0; i < rules.length; i++) {
+            if (masks[i] != 0) {
+                counters[i].add(masks[i]);
+            }
+        }
+    }
+
+    /** @return per-message work limits */
+    public RedactionLimits limits() {
+        return limits;
+    }
+
+    /** @return {@code true} if {@link #scan} cuts a message of this length */
+    boolean truncates(int length) {
+        return length > limits.maxLength();
+    }
+
+    /** @return {@code true} if every rule is {@linkplain RedactionRule#argumentSafe() token-local} */
+    public boolean argumentSafe() {
+        return argumentSafe;
+    }
+
+    private static void validate(RedactionRule r, Set<String> names) {
+        if (r.name() == null || r.name().isBlank()) {
+            throw new IllegalArgumentException("Redaction rule name must not be blank");
+        }
+        if (!names.add(r.name())) {
+            throw new IllegalArgumentException("Duplicate redaction rule '" + r.name() + "'");
+        }
+        if (NAMED_GROUP.matcher(r.regex()).find()) {
+            throw new IllegalArgumentException("Rule '" + r.name() + "': named groups are not supported");
+        }
+        try {
+            Pattern.compile(r.regex());
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Rule '" + r.name() + "': invalid regex: " + e.getDescription(), e);
+        }
+    }
+
+    /**
+     * One character pass deciding which rules can match {@code s}. Only the first
+     * {@link RedactionLimits#maxLength()} characters are looked at.
+     *
+     * @return bitmask of rules to run; {@code 0} when the line cannot contain anything to redact
+     */
+    long activeRules(CharSequence s) {
+        return activeRules(s, 0, Math.min(s.length(), limits.maxLength()));
+    }
+
+    private long activeRules(CharSequence s, int from, int to) {
+        long lo = 0;
+        long hi = 0;
+        int cluster = 0;
+        int maxCluster = 0;
+        int word = 0;
+        int maxWord = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++cluster > maxCluster) {
+                    maxCluster = cluster;
+                }
+                word++;
+            } else {
+                if (!isClusterSeparator(c)) {
+                    cluster = 0;
+                }
+                word = isWordChar(c) ? word + 1 : 0;
+            }
+            if (word > maxWord) {
+                maxWord = word;
+            }
+            if (c < 64) lo |= 1L << c;
+            else if (c < 128) hi |= 1L << (c - 64);
+        }
+
+        long active = 0;
+        for (int i = 0; i < rules.length; i++) {
+            boolean triggered = (triggerLo[i] | triggerHi[i]) == 0 || (triggerLo[i] & lo) != 0 || (triggerHi[i] & hi) != 0;
+            if (triggered && maxCluster >= minDigits[i] && maxWord >= minWordLength[i]) {
+                active |= 1L << i;
+            }
+        }
+        return active;
+    }
+
+    static boolean isClusterSeparator(char c) {
+        return switch (c) {
+            case ' ', '\t', '\n', '\u000B', '\f', '\r', '.', '-', '+', '(', ')' -> true;
+            default -> false;
+        };
+    }
+
+    /** @return whether {@code c} can be part of a word, see {@link RedactionRule#minWordLength()} */
+    static boolean isWordChar(char c) {
+        return switch (c) {
+            case '-', '.', '_', '~', '+', '/', '=' -> true;
+            default -> (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+        };
+    }
+
+    /**
+     * Scans {@code in} with the given rules and appends the result to {@code out}.
+     *
+     * @param active bitmask from {@link #activeRules(CharSequence)}; {@code 0} only applies the length limit
+     * @return bitmask of rules that masked at least one match, plus {@link #TRUNCATED} if the input was cut;
+     *         {@code 0} if the text was left unchanged
+     */
+    long scan(CharSequence in, long active, StringBuilder out) {
+        return scan(in, active, out, null);
+    }
+
+    /**
+     * Same as {@link #scan(CharSequence, long, StringBuilder)}, also adding the number of matches each rule masked
+     * to {@code masks} (indexed by rule, at least {@link #ruleCount()} long) when it is not {@code null}.
+     */
+    long scan(CharSequence in, long active, StringBuilder out, int[] masks) {
+        int n = in.length();
+        int limit = Math.min(n, limits.maxLength());
+        long hits = 0;
+        int scanned = limit;
+        if (active == 0) {
+            out.append(in, 0, limit);
+        } else {
+            Variant v = variant(active);
+            Cursor c = v.cursor(in);
+            c.masks = masks;
+            try {
+                long deadline = limits.maxScanNanos() > 0 && limit > chunk ? System.nanoTime() + limits.maxScanNanos() : 0;
+                int from = 0;
+                while (from < limit) {
+                    int regionEnd = limit - from <= chunk ? limit : from + chunk;
+                    from = commit(v, c, in, from, regionEnd, regionEnd == limit, out);
+                    if (deadline != 0 && from < limit && System.nanoTime() - deadline > 0) {
+                        scanned = from;
+                        break;
+                    }
+                }
+                hits = c.hits;
+            } finally {
+                c.release();
+            }
+        }
+        if (scanned < n) {
+            out.append("***TRUNCATED ").append(n - scanned).append(" chars***");
+            hits |= TRUNCATED;
+        }
+        return hits;
+    }
+
+    /**
+     * One step of a streaming scan over {@code in[from, to)}; {@code in[0, from)} has already been written and is
+     * only consulted by lookbehinds. Unlike {@link #scan}, no length limit applies.
+     *
+     * @param eof {@code true} if no more input follows {@code to}
+     * @return end of the text written to {@code out}: {@code to} when {@code eof}, otherwise at least
+     *         {@code to - }{@link #overlap()}; the caller scans the rest again once more input has arrived
+     */
+    int scanStream(CharSequence in, int from, int to, boolean eof, StringBuilder out) {
+        long active = activeRules(in, from, to);
+        if (active == 0) {
+            int done = eof ? to : Math.max(from, to - overlap);
+            out.append(in, from, done);
+            return done;
+        }
+        Variant v = variant(active);
+        Cursor c = v.cursor(in);
+        try {
+            return commit(v, c, in, from, to, eof, out);
+        } finally {
+            c.release();
+        }
+    }
+
+    /** @return longest possible match; a streaming caller has to hold at least this much unscanned text back */
+    int overlap() {
+        return overlap;
+    }
+
+    /** @return characters scanned per region (chunk size, at least twice the overlap) */
+    int chunk() {
+        return chunk;
+    }
+
+    /**
+     * Writes matches of region {@code in[from, to)} that start before the overlap at its end (or all of them when
+     * {@code last}), plus the text between them. Matches starting in the overlap are left to the next region,
+     * which sees them whole.
+     *
+     * @return end of the text written
+     */
+    private int commit(Variant v, Cursor c, CharSequence in, int from, int to, boolean last, StringBuilder out) {
+        int commitEnd = last ? to : Math.max(from, to - overlap);
+        int written = from;
+        if (v.located) {
+            // Every possible match lies inside a candidate span, so scanning only the spans gives the same result.
+            CandidateLocator.Spans spans = c.locate(in, from, to, v);
+            for (int k = 0, n = spans.count(); k < n; k++) {
+                int start = from + spans.at(2 * k);
+                if (start >= commitEnd) {
+                    break;
+                }
+                written = match(v, c, in, start, from + spans.at(2 * k + 1), commitEnd, written, out);
+            }
+        } else {
+            written = match(v, c, in, from, to, commitEnd, written, out);
+        }
+        int done = Math.max(written, commitEnd);
+        out.append(in, written, done);
+        return done;
+    }
+
+    /** Masks the matches of {@code in[from, to)} that start before {@code commitEnd}; @return end of the text written */
+    private int match(Variant v, Cursor c, CharSequence in, int from, int to, int commitEnd, int written, StringBuilder out) {
+        if (v.compiled != null) {
+            return matchCompiled(v, c, in, from, to, commitEnd, written, out);
+        }
+        Matcher m = c.matcher.region(from, to);
+        while (m.find()) {
+            int start = m.start();
+            if (start >= commitEnd) {
+                break;
+            }
+            written = masked(v, v.ruleAt(m), c, in, written, start, m.end(), out);
+        }
+        return written;
+    }
+
+    /**
+     * Same as the combined pattern: at each position the first rule in precedence order that matches wins.
+     * An {@code @}-anchored rule is only tried where an {@code @} follows within the local-part bound, so it does
+     * not re-read the same letters from every position of a long word.
+     */
+    private int matchCompiled(Variant v, Cursor c, CharSequence in, int from, int to, int commitEnd, int written,
+                              StringBuilder out) {
+        CompiledRule[] compiled = v.compiled;
+        int[] ruleIndex = v.ruleIndex;
+        int limit = Math.min(commitEnd, to);
+        int at = -1;
+        for (int p = from; p < limit; ) {
+            int end = -1;
+            int k = 0;
+            for (; k < compiled.length; k++) {
+                if ((atSignRules & (1L << ruleIndex[k])) != 0) {
+                    if (at < p) {
+                        at = p;
+                        while (at < to && in.charAt(at) != '@') {
+                            at++;
+                        }
+                    }
+                    if (at - p > CandidateLocator.MAX_LOCAL) {
+                        continue;
+                    }
+                }
+                if ((end = compiled[k].matchAt(in, p, to)) >= 0) {
+                    break;
+                }
+            }
+            if (end < 0) {
+                p++;
+                continue;
+            }
+            written = masked(v, ruleIndex[k], c, in, written, p, end, out);
+            p = end;
+        }
+        return written;
+    }
+
+    private int masked(Variant v, int rule, Cursor c, CharSequence in, int written, int start, int end,
+                       StringBuilder out) {
+        out.append(in, written, start);
+        if (rules[rule].mask(in, start, end, out)) {
+            counters[rule].increment();
+            c.hits |= 1L << rule;
+            if (c.masks != null) {
+                c.masks[rule]++;
+            }
+        } else {
+            declined(v, rule, c, in, start, end, out);
+        }
+        return end;
+    }
+
+    /**
+     * Scans a match that its rule declined with the rules after it, as if each rule ran as a pass of its own: a
+     * Luhn-invalid card candidate can still hold a phone number. The declining rule does not match inside it again.
+     */
+    private void declined(Variant v, int rule, Cursor c, CharSequence in, int start, int end, StringBuilder out) {
+        long later = v.mask & -(2L << rule);
+        if (later == 0) {
+            out.append(in, start, end);
+            return;
+        }
+        // Not subject to MAX_VARIANTS: the full pattern would hold the declining rule again.
+        Variant w = variants.computeIfAbsent(later, Variant::new);
+        Cursor d = w.cursor(in);
+        d.masks = c.masks;
+        try {
+            out.append(in, match(w, d, in, start, end, end, start, out), end);
+            c.hits |= d.hits;
+        } finally {
+            d.release();
+        }
+    }
+
+    private Variant variant(long active) {
+        Variant v = variants.get(active);
+        if (v != null) {
+            return v;
+        }
+        if (variants.size() >= MAX_VARIANTS) {
+            // A superset of the active rules gives the same result: inactive rules cannot match anyway.
+            return full;
+        }
+        return variants.computeIfAbsent(active, Variant::new);
+    }
+
+    /** Combined pattern for one subset of rules. */
+    private final class Variant {
+
+        /** Rules of the variant. */
+        final long mask;
+        private final int[] ruleIndex;
+        private final int[] groupIndex;
+        /** Generated matchers in precedence order, or {@code null} when a rule only has a regex. */
+        final CompiledRule[] compiled;
+        /** Matcher and scratch arrays of a thread; a short-lived virtual thread builds its own on its first scan. */
+        private final ThreadLocal<Cursor> cursor;
+        /** Whether all rules of the variant can be located, and what to look for. */
+        final boolean located;
+        final boolean atSign;
+        final int clusterDigits;
+        final boolean credentials;
+
+        Variant(long mask) {
+            this.mask = mask;
+            int count = Long.bitCount(mask);
+            located = locator != null && (mask & ~locatedRules) == 0;
+            atSign = (mask & atSignRules) != 0;
+            credentials = (mask & credentialRules) != 0;
+            int digits = Integer.MAX_VALUE;
+            ruleIndex = new int[count];
+            groupIndex = new int[count];
+            StringBuilder regex = new StringBuilder();
+            int group = 1;
+            for (int i = 0, k = 0; i < rules.length; i++) {
+                if ((mask & (1L << i)) == 0) {
+                    continue;
+                }
+                if (k > 0) {
+                    regex.append('|');
+                }
+                if ((clusterRules & (1L << i)) != 0) {
+                    digits = Math.min(digits, rules[i].minDigits());
+                }
+                regex.append('(').append(rules[i].regex()).append(')');
+                ruleIndex[k] = i;
+                groupIndex[k] = group;
+                group += 1 + Pattern.compile(rules[i].regex()).matcher("").groupCount();
+                k++;
+            }
+            clusterDigits = digits;
+            CompiledRule[] generated = new CompiledRule[count];
+            for (int k = 0; k < count; k++) {
+                if (!(rules[ruleIndex[k]] instanceof CompiledRule r)) {
+                    generated = null;
+                    break;
+                }
+                generated[k] = r;
+            }
+            compiled = generated;
+            Pattern pattern = Pattern.compile(regex.toString());
+            cursor = ThreadLocal.withInitial(() -> new Cursor(pattern.matcher("")));
+        }
+
+        Cursor cursor(CharSequence in) {
+            Cursor c = cursor.get();
+            if (compiled == null) {
+                // Generated matchers read the text directly; resetting a matcher is not free.
+                c.matcher.reset(in).useTransparentBounds(true).useAnchoringBounds(false);
+            }
+            c.hits = 0;
+            return c;
+        }
+
+        int ruleAt(Matcher m) {
+            for (int k = 0; k < groupIndex.length; k++) {
+                if (m.start(groupIndex[k]) >= 0) {
+                    return ruleIndex[k];
+                }
+            }
+            throw new IllegalStateException("match without rule group");
+        }
+    }
+
+    /** Per-thread matcher of a {@link Variant} plus the hits of the scan in progress. */
+    private final class Cursor {
+
+        final Matcher matcher;
+        long hits;
+        /** Per-rule mask counts of the current scan, or {@code null} when they are not recorded. */
+        int[] masks;
+        private char[] chars = new char[0];
+        private final CandidateLocator.Spans spans = new CandidateLocator.Spans();
+
+        Cursor(Matcher matcher) {
+            this.matcher = matcher;
+        }
+
+        /** Candidate spans of {@code in[from, to)}, relative to {@code from}. */
+        CandidateLocator.Spans locate(CharSequence in, int from, int to, Variant v) {
+            int n = to - from;
+            if (chars.length < n) {
+                chars = new char[Math.max(n, chars.length * 2)];
+            }
+            if (in instanceof String s) {
+                s.getChars(from, to, chars, 0);
+            } else if (in instanceof StringBuilder sb) {
+                sb.getChars(from, to, chars, 0);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    chars[i] = in.charAt(from + i);
+                }
+            }
+            locator.locate(chars, 0, n, v.atSign, v.clusterDigits, v.credentials, spans);
+            return spans;
+        }
+
+        /** Drops the references to the scanned text and the mask counts. */
+        void release() {
+            masks = null;
+            if (matcher.regionEnd() != 0) {
+                matcher.reset("");
+            }
+        }
+    }
+}
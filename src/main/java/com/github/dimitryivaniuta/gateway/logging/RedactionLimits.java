@@ -0,0 +1,27 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message work limits of a {@link RedactionEngine}.
+ *
+ * <p>Text that is not scanned is never written: past {@code maxLength}, or once the time budget is spent, the
+ * remainder of the message is replaced by a {@code ***TRUNCATED n chars***} marker.</p>
+ *
+ * @param maxLength    characters scanned per message
+ * @param chunkSize    messages longer than this are scanned in overlapping chunks of this size, so a single
+ *                     regex attempt never looks further than one chunk
+ * @param maxScanNanos time budget per message, checked between chunks; {@code 0} disables it
+ */
+public record RedactionLimits(int maxLength, int chunkSize, long maxScanNanos) {
+
+    public static final RedactionLimits DEFAULTS =
+            new RedactionLimits(256 * 1024, 8 * 1024, TimeUnit.MILLISECONDS.toNanos(50));
+
+    public RedactionLimits {
+        if (maxLength <= 0 || chunkSize <= 0 || maxScanNanos < 0) {
+            throw new IllegalArgumentException("Redaction limits must be positive: maxLength=" + maxLength
+                    + ", chunkSize=" + chunkSize + ", maxScanNanos=" + maxScanNanos);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+/**
+ * Receives redaction telemetry from the logging pipeline; installed with {@link RedactionTelemetry#install}.
+ *
+ * <p>Called on logging threads, so implementations must be cheap and must not log.</p>
+ */
+public interface RedactionObserver {
+
+    /** Observer that samples nothing and records nothing. */
+    RedactionObserver NOOP = new RedactionObserver() {
+        @Override
+        public boolean sample() {
+            return false;
+        }
+
+        @Override
+        public void onSample(RedactionSite site, String logger, int length, long nanos, long scanNanos,
+                             RedactionEngine engine, long activeRules) {
+        }
+
+        @Override
+        public void onHits(RedactionSite site, String logger, RedactionEngine engine, long hitRules) {
+        }
+    };
+
+    /** @return whether the call that is about to start should be timed */
+    boolean sample();
+
+    /**
+     * A sampled call finished.
+     *
+     * @param length      characters handed to the redactor
+     * @param nanos       time spent in the call site, formatting included
+     * @param scanNanos   time spent in the regex engine
+     * @param activeRules bitmask of rules the prefilter let through, indexed as in {@link RedactionEngine#ruleNames()}
+     */
+    void onSample(RedactionSite site, String logger, int length, long nanos, long scanNanos,
+                  RedactionEngine engine, long activeRules);
+
+    /**
+     * A call masked something; reported for every call, sampled or not.
+     *
+     * @param hitRules bitmask of rules that masked at least one match
+     */
+    void onHits(RedactionSite site, String logger, RedactionEngine engine, long hitRules);
+}
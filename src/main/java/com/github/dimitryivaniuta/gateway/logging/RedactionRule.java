@@ -0,0 +1,70 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+/**
+ * A redaction rule contributed to the {@link RedactionEngine}.
+ *
+ * <p>Rules do not scan text themselves. Each rule supplies a regex fragment; the engine compiles all enabled
+ * fragments into one alternation and calls {@link #mask} for every match the rule wins. Rules listed earlier take
+ * precedence when two of them match at the same position.</p>
+ *
+ * <p>{@link #triggers()}, {@link #minDigits()} and {@link #minWordLength()} form a cheap prefilter: a line only
+ * pays for a rule when it contains one of its trigger characters, a digit cluster of the required size and a word
+ * of the required length. A digit cluster is a run of digits, whitespace and
+ * {@code + ( ) . -}; a word is a run of ASCII letters, digits and {@code - . _ ~ + / =}.</p>
+ */
+public interface RedactionRule {
+
+    /** @return unique rule name, used for metrics and to override or disable the rule from configuration */
+    String name();
+
+    /** @return regex fragment; capturing groups are allowed, named groups are not */
+    String regex();
+
+    /** @return ASCII characters of which at least one must occur for the rule to run; empty means always run */
+    default String triggers() {
+        return "";
+    }
+
+    /**
+     * @return minimum digits a digit cluster must hold for the rule to run; only meaningful for rules whose
+     *         matches consist of digits and cluster separators alone
+     */
+    default int minDigits() {
+        return 0;
+    }
+
+    /**
+     * @return minimum length of a word a line must hold for the rule to run; for rules that look for long
+     *         strings such as keys
+     */
+    default int minWordLength() {
+        return 0;
+    }
+
+    /**
+     * Whether matches of this rule stay inside one token. A token ends at any character other than a letter,
+     * digit, whitespace or {@code . _ % + - @ ( )}, and at whitespace followed by a letter.
+     *
+     * <p>When every rule is token-local, log arguments can be redacted one by one instead of the formatted
+     * message, see {@link RedactedMessageConverter}.</p>
+     */
+    default boolean argumentSafe() {
+        return false;
+    }
+
+    /**
+     * Upper bound on the length of a match. Long messages are scanned in chunks that overlap by the largest
+     * bound of all rules, so a match crossing a chunk boundary is still found whole.
+     */
+    default int maxMatchLength() {
+        return 256;
+    }
+
+    /**
+     * Appends the masked form of {@code in[start, end)} to {@code out}.
+     *
+     * @return {@code false} (with nothing appended) to decline the match: the rules after this one then scan
+     *         the matched text as if they ran on their own, and whatever none of them masks is kept as-is
+     */
+    boolean mask(CharSequence in, int start, int end, StringBuilder out);
+}
@@ -0,0 +1,19 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.util.Locale;
+
+/**
+ * Where in the logging pipeline redaction happened; used as a metrics tag.
+ */
+public enum RedactionSite {
+    MESSAGE,
+    THROWABLE,
+    MDC;
+
+    private final String tag = name().toLowerCase(Locale.ROOT);
+
+    /** @return lower-case tag value */
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.util.Objects;
+
+/**
+ * Per-call redaction telemetry for the logback call sites.
+ *
+ * <p>A call site wraps its work in {@link #begin}/{@link #end}; every {@link Redactor} call in between adds its
+ * input length, active rules and hits to the thread's probe. Timing only happens for calls the
+ * {@link RedactionObserver} samples, so unsampled calls cost a thread-local lookup and a few field writes.</p>
+ */
+public final class RedactionTelemetry {
+
+    private RedactionTelemetry() {}
+
+    private static volatile RedactionObserver observer = RedactionObserver.NOOP;
+
+    private static final ThreadLocal<Probe> PROBE = ThreadLocal.withInitial(Probe::new);
+
+    /**
+     * Replaces the active observer.
+     *
+     * @param o observer
+     */
+    public static void install(RedactionObserver o) {
+        observer = Objects.requireNonNull(o, "observer");
+    }
+
+    /** Restores the no-op observer. */
+    public static void uninstall() {
+        observer = RedactionObserver.NOOP;
+    }
+
+    /**
+     * Starts a call site invocation on this thread.
+     *
+     * @param site   call site
+     * @param logger logger name of the event (nullable)
+     * @return the thread's probe, to be passed to {@link #end}
+     */
+    static Probe begin(RedactionSite site, String logger) {
+        Probe p = PROBE.get();
+        p.site = site;
+        p.logger = logger;
+        p.length = 0;
+        p.scanNanos = 0;
+        p.active = 0;
+        p.hits = 0;
+        p.engine = null;
+        p.sampled = observer.sample();
+        p.start = p.sampled ? System.nanoTime() : 0;
+        p.open = true;
+        return p;
+    }
+
+    static void end(Probe p) {
+        p.open = false;
+        RedactionObserver o = observer;
+        if (p.hits != 0) {
+            o.onHits(p.site, p.logger, p.engine, p.hits);
+        }
+        if (p.sampled) {
+            o.onSample(p.site, p.logger, p.length, System.nanoTime() - p.start, p.scanNanos, p.engine, p.active);
+        }
+    }
+
+    /** @return this thread's probe if a call site is in progress, otherwise {@code null} */
+    static Probe current() {
+        Probe p = PROBE.get();
+        return p.open ? p : null;
+    }
+
+    /** Mutable per-thread accumulator; never shared between threads. */
+    static final class Probe {
+        RedactionSite site;
+        String logger;
+        boolean open;
+        boolean sampled;
+        long start;
+        long scanNanos;
+        int length;
+        long active;
+        long hits;
+        RedactionEngine engine;
+
+        void line(RedactionEngine e, int len, long activeRules) {
+            engine = e;
+            length += len;
+            active |= activeRules;
+        }
+    }
+}
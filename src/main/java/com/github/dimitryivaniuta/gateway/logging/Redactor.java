@@ -1,128 +1,284 @@
-\
 package com.github.dimitryivaniuta.gateway.logging;
 
-import java.util.Locale;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * PII redaction utility.
  *
- * <p>Redacts emails, phones and card numbers (with Luhn validation).</p>
+ * <p>Redacts emails, phones and card numbers (with Luhn validation) plus any configured
+ * {@link RedactionRule}s. The rules live in a {@link RedactionEngine}; the active engine can be replaced at
+ * runtime with {@link #install(RedactionEngine)} and callers always see either the old or the new rule set.</p>
  */
 public final class Redactor {
 
     private Redactor() {}
 
-    private static final LongAdder EMAIL_REDACTIONS = new LongAdder();
-private static final LongAdder PHONE_REDACTIONS = new LongAdder();
-private static final LongAdder CARD_REDACTIONS = new LongAdder();
+    /** Per-rule counters, keyed by rule name; they survive engine swaps. */
+    private static final Map<String, LongAdder> REDACTIONS = new ConcurrentHashMap<>();
+    private static final LongAdder LINES = new LongAdder();
+    private static final LongAdder FAST_PATH_LINES = new LongAdder();
+    private static final LongAdder TRUNCATED_LINES = new LongAdder();
 
-/** @return total number of email redactions performed since JVM start */
-public static long emailRedactions() { return EMAIL_REDACTIONS.sum(); }
+    private static final AtomicReference<RedactionEngine> ENGINE = new AtomicReference<>(RedactionEngine.builtin());
 
-/** @return total number of phone redactions performed since JVM start */
-public static long phoneRedactions() { return PHONE_REDACTIONS.sum(); }
+    /** @return total number of email redactions performed since JVM start */
+    public static long emailRedactions() { return redactions(BuiltinRules.EMAIL); }
 
-/** @return total number of card redactions performed since JVM start */
-public static long cardRedactions() { return CARD_REDACTIONS.sum(); }
+    /** @return total number of phone redactions performed since JVM start */
+    public static long phoneRedactions() { return redactions(BuiltinRules.PHONE); }
 
-    private static final Pattern EMAIL = Pattern.compile(
-            "(?i)([a-z0-9._%+-]{1,64})@([a-z0-9.-]{1,253}\\.[a-z]{2,24})"
-    );
+    /** @return total number of card redactions performed since JVM start */
+    public static long cardRedactions() { return redactions(BuiltinRules.CARD); }
 
-    private static final Pattern PHONE = Pattern.compile(
-            "(?x)(?<!\\d)(\\+?\\d{1,3}[\\s.-]?)?(\\(?\\d{2,4}\\)?[\\s.-]?)?\\d{3}[\\s.-]?\\d{2,3}[\\s.-]?\\d{2,3}(?!\\d)"
-    );
+    /** @return total number of secret (JWT, bearer token, API key) redactions performed since JVM start */
+    public static long secretRedactions() { return redactions(BuiltinRules.SECRET); }
 
-    private static final Pattern CARD_CANDIDATE = Pattern.compile(
-            "(?<!\\d)(?:\\d[ -]?){13,19}(?!\\d)"
-    );
+    /** @return total number of redactions performed by the named rule since JVM start */
+    public static long redactions(String rule) { return counter(rule).sum(); }
+
+    /** @return total number of non-blank inputs passed to {@link #redact(String)} since JVM start */
+    public static long lines() { return LINES.sum(); }
+
+    /** @return number of inputs returned as-is by the pre-check, without running the regex engine */
+    public static long fastPathLines() { return FAST_PATH_LINES.sum(); }
+
+    /** @return number of inputs cut short by the engine's {@link RedactionLimits} */
+    public static long truncatedLines() { return TRUNCATED_LINES.sum(); }
+
+    static LongAdder counter(String rule) {
+        return REDACTIONS.computeIfAbsent(rule, k -> new LongAdder());
+    }
+
+    /** @return the engine currently used by {@link #redact(String)} */
+    public static RedactionEngine engine() {
+        return ENGINE.get();
+    }
+
+    /**
+     * Atomically replaces the active rule set.
+     *
+     * @param engine compiled rules
+     * @return the previously active engine
+     */
+    public static RedactionEngine install(RedactionEngine engine) {
+        return ENGINE.getAndSet(Objects.requireNonNull(engine, "engine"));
+    }
+
+    /** Retained per-thread buffers are capped so one huge message does not pin memory for the thread's lifetime. */
+    private static final int MAX_POOLED_CAPACITY = 16 * 1024;
+
+    /** Reused by pool threads; a virtual thread per request (the {@code virtual-threads} profile) starts a new one. */
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
 
     /**
      * Redacts PII in input.
      *
      * @param input text (nullable)
-     * @return redacted string (non-null)
+     * @return redacted string (non-null); the input instance itself when nothing was masked
      */
     public static String redact(String input) {
+        return redact(input, null);
+    }
+
+    /**
+     * What one call of {@link #redact(String, Verdict)} did, so that a cache of its result can count a later use
+     * with {@link #replay(Verdict)} exactly as if the input had been redacted again.
+     */
+    static final class Verdict {
+        /** Engine that redacted the input; {@code null} for blank input, which is not counted. */
+        RedactionEngine engine;
+        int length;
+        long active;
+        long hits;
+        int[] masks = new int[0];
+    }
+
+    /**
+     * Same as {@link #redact(String)}, recording the counters the call touched in {@code verdict} (nullable).
+     */
+    static String redact(String input, Verdict verdict) {
+        if (verdict != null) {
+            verdict.engine = null;
+        }
         if (input == null || input.isBlank()) {
             return "";
         }
 
-        String out = input;
+        LINES.increment();
+        RedactionEngine engine = ENGINE.get();
+        long active = engine.activeRules(input);
+        RedactionTelemetry.Probe probe = RedactionTelemetry.current();
+        if (probe != null) {
+            probe.line(engine, input.length(), active);
+        }
+        int[] masks = null;
+        if (verdict != null) {
+            verdict.engine = engine;
+            verdict.length = input.length();
+            verdict.active = active;
+            verdict.hits = 0;
+            if (verdict.masks.length < engine.ruleCount()) {
+                verdict.masks = new int[engine.ruleCount()];
+            } else {
+                Arrays.fill(verdict.masks, 0);
+            }
+            masks = verdict.masks;
+        }
+        if (active == 0 && !engine.truncates(input.length())) {
+            FAST_PATH_LINES.increment();
+            return input;
+        }
 
-        if (EMAIL.matcher(out).find()) {
-            out = redactEmail(out);
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        try {
+            long hits = scan(engine, input, active, sb, probe, masks);
+            if (verdict != null) {
+                verdict.hits = hits;
+            }
+            return hits != 0 ? sb.toString() : input;
+        } finally {
+            if (sb.capacity() > MAX_POOLED_CAPACITY) {
+                BUFFER.remove();
+            }
         }
-        if (PHONE.matcher(out).find()) {
-            out = redactPhone(out);
+    }
+
+    /**
+     * Appends the redacted form of {@code input} to {@code out} without building intermediate strings.
+     *
+     * <p>Blank input appends nothing, mirroring {@link #redact(String)}.</p>
+     *
+     * @param input text (nullable)
+     * @param out   destination buffer
+     */
+    public static void redactTo(CharSequence input, StringBuilder out) {
+        if (input == null || isBlank(input)) {
+            return;
         }
-        if (CARD_CANDIDATE.matcher(out).find()) {
-            out = redactCard(out);
+
+        LINES.increment();
+        RedactionEngine engine = ENGINE.get();
+        long active = engine.activeRules(input);
+        RedactionTelemetry.Probe probe = RedactionTelemetry.current();
+        if (probe != null) {
+            probe.line(engine, input.length(), active);
         }
-        return out;
+        if (active == 0 && !engine.truncates(input.length())) {
+            FAST_PATH_LINES.increment();
+            out.append(input);
+            return;
+        }
+        scan(engine, input, active, out, probe, null);
     }
 
-    private static String redactEmail(String s) {
-        Matcher m = EMAIL.matcher(s);
-        StringBuffer sb = new StringBuffer();
-        while (m.find()) {
-            String local = m.group(1);
-            String domain = m.group(2);
-            String maskedLocal = local.length() <= 2 ? "***" : local.substring(0, 1) + "***" + local.substring(local.length() - 1);
-            String replacement = maskedLocal + "@" + domain.toLowerCase(Locale.ROOT);
-            EMAIL_REDACTIONS.increment();
-            PHONE_REDACTIONS.increment();
-            m.appendReplacement(sb, Matcher.quoteReplacement(replacement));
-        }
-        m.appendTail(sb);
-        return sb.toString();
+    /**
+     * Counts a use of a cached {@link #redact(String, Verdict)} result: the line, fast-path, truncation and per-rule
+     * counters and the thread's telemetry probe move exactly as they did for the recorded call.
+     */
+    static void replay(Verdict verdict) {
+        RedactionEngine engine = verdict.engine;
+        if (engine == null) {
+            return;
+        }
+        LINES.increment();
+        RedactionTelemetry.Probe probe = RedactionTelemetry.current();
+        if (probe != null) {
+            probe.line(engine, verdict.length, verdict.active);
+            probe.hits |= verdict.hits & ~RedactionEngine.TRUNCATED;
+        }
+        if (verdict.active == 0 && !engine.truncates(verdict.length)) {
+            FAST_PATH_LINES.increment();
+            return;
+        }
+        if ((verdict.hits & RedactionEngine.TRUNCATED) != 0) {
+            TRUNCATED_LINES.increment();
+        }
+        if (verdict.hits != 0) {
+            engine.count(verdict.masks);
+        }
     }
 
-    private static String redactPhone(String s) {
-        Matcher m = PHONE.matcher(s);
-        StringBuffer sb = new StringBuffer();
-        while (m.find()) {
-            String raw = m.group();
-            String digits = raw.replaceAll("\\D", "");
-            if (digits.length() < 7) {
-                m.appendReplacement(sb, Matcher.quoteReplacement(raw));
-                continue;
+    private static long scan(RedactionEngine engine, CharSequence in, long active, StringBuilder out,
+                             RedactionTelemetry.Probe probe, int[] masks) {
+        long t0 = probe != null && probe.sampled ? System.nanoTime() : 0;
+        long hits = engine.scan(in, active, out, masks);
+        if ((hits & RedactionEngine.TRUNCATED) != 0) {
+            TRUNCATED_LINES.increment();
+        }
+        if (probe != null) {
+            if (probe.sampled) {
+                probe.scanNanos += System.nanoTime() - t0;
             }
-            String suffix = digits.length() <= 4 ? digits : digits.substring(digits.length() - 4);
-            String replacement = "***PHONE***" + suffix;
-            m.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+            probe.hits |= hits & ~RedactionEngine.TRUNCATED;
         }
-        m.appendTail(sb);
-        return sb.toString();
+        return hits;
     }
 
-    private static String redactCard(String s) {
-        Matcher m = CARD_CANDIDATE.matcher(s);
-        StringBuffer sb = new StringBuffer();
-        while (m.find()) {
-            String raw = m.group();
-            String digits = raw.replaceAll("\\D", "");
-            if (digits.length() < 13 || digits.length() > 19 || !luhnValid(digits)) {
-                m.appendReplacement(sb, Matcher.quoteReplacement(raw));
-                continue;
+    /**
+     * Cheap pre-check run before the regex engine.
+     *
+     * @return {@code false} when no rule of the active engine can possibly match
+     */
+    static boolean mayContainPii(CharSequence s) {
+        return ENGINE.get().activeRules(s) != 0;
+    }
+
+    private static boolean isBlank(CharSequence s) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (!Character.isWhitespace(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int countDigits(CharSequence s, int start, int end) {
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    /** Appends the last {@code count} digits of {@code s[start, end)} in their original order. */
+    static void appendLastDigits(CharSequence s, int start, int end, int count, StringBuilder out) {
+        int from = end;
+        for (int seen = 0; from > start && seen < count; ) {
+            char c = s.charAt(--from);
+            if (c >= '0' && c <= '9') {
+                seen++;
+            }
+        }
+        for (int i = from; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                out.append(c);
             }
-            String last4 = digits.substring(digits.length() - 4);
-            String replacement = "**** **** **** " + last4;
-            CARD_REDACTIONS.increment();
-            m.appendReplacement(sb, Matcher.quoteReplacement(replacement));
         }
-        m.appendTail(sb);
-        return sb.toString();
     }
 
-    static boolean luhnValid(String digits) {
+    static boolean luhnValid(CharSequence digits) {
+        return luhnValid(digits, 0, digits.length());
+    }
+
+    /** Luhn check over the digits of {@code s[start, end)}; any other character is skipped. */
+    static boolean luhnValid(CharSequence s, int start, int end) {
         int sum = 0;
         boolean alternate = false;
-        for (int i = digits.length() - 1; i >= 0; i--) {
-            int n = digits.charAt(i) - '0';
+        for (int i = end - 1; i >= start; i--) {
+            int n = s.charAt(i) - '0';
+            if (n < 0 || n > 9) {
+                continue;
+            }
             if (alternate) {
                 n *= 2;
                 if (n > 9) n -= 9;
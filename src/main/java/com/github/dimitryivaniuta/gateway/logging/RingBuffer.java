@@ -0,0 +1,149 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Bounded, preallocated multi-producer single-consumer queue.
+ *
+ * <p>Every slot carries a sequence number. A producer claims the next position with one CAS on the tail and
+ * publishes its element by advancing the slot's sequence; the consumer takes elements in claim order and hands
+ * the slot back by advancing the sequence by the capacity. There are no locks, and a full queue is reported to
+ * the producer instead of blocking it, so callers decide whether to drop, wait or divert.</p>
+ *
+ * <p>{@link #offer} may be called from any thread; {@link #drainTo} and {@link #poll} only from the single
+ * consumer thread.</p>
+ *
+ * @param <E> element type
+ */
+final class RingBuffer<E> {
+
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle TAIL;
+    private static final VarHandle HEAD;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            TAIL = lookup.findVarHandle(RingBuffer.class, "tail", long.class);
+            HEAD = lookup.findVarHandle(RingBuffer.class, "head", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Object[] slots;
+    private final long[] sequences;
+    private final int mask;
+
+    // Producers write tail and the consumer writes head; padding keeps them on separate cache lines.
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+    private volatile long tail;
+    @SuppressWarnings("unused")
+    private long q1, q2, q3, q4, q5, q6, q7;
+    private volatile long head;
+    @SuppressWarnings("unused")
+    private long r1, r2, r3, r4, r5, r6, r7;
+
+    /**
+     * @param capacity requested capacity; rounded up to a power of two
+     */
+    RingBuffer(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be in [2, 2^30], got " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        slots = new Object[size];
+        sequences = new long[size];
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+        mask = size - 1;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    /** @return elements claimed but not yet taken; a snapshot that may be stale by the time it is read */
+    int size() {
+        long h = (long) HEAD.getOpaque(this);
+        long t = (long) TAIL.getOpaque(this);
+        return (int) Math.max(0, Math.min(t - h, slots.length));
+    }
+
+    /** @return whether no element is ready to be taken; consumer thread only */
+    boolean isEmpty() {
+        long pos = head;
+        return (long) SEQUENCE.getAcquire(sequences, (int) pos & mask) != pos + 1;
+    }
+
+    /**
+     * Appends {@code e} unless the queue is full.
+     *
+     * @return {@code false} if the queue was full; the element was not added
+     */
+    boolean offer(E e) {
+        long pos = (long) TAIL.getOpaque(this);
+        while (true) {
+            int index = (int) pos & mask;
+            long seq = (long) SEQUENCE.getAcquire(sequences, index);
+            long diff = seq - pos;
+            if (diff == 0) {
+                long witness = (long) TAIL.compareAndExchange(this, pos, pos + 1);
+                if (witness == pos) {
+                    slots[index] = e;
+                    SEQUENCE.setRelease(sequences, index, pos + 1);
+                    return true;
+                }
+                pos = witness;
+            } else if (diff < 0) {
+                // The slot still holds the element from one lap ago: full.
+                return false;
+            } else {
+                pos = (long) TAIL.getOpaque(this);
+            }
+        }
+    }
+
+    /** @return the next element, or {@code null} if none is published yet; consumer thread only */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        long pos = head;
+        int index = (int) pos & mask;
+        if ((long) SEQUENCE.getAcquire(sequences, index) != pos + 1) {
+            return null;
+        }
+        E e = (E) slots[index];
+        slots[index] = null;
+        SEQUENCE.setRelease(sequences, index, pos + slots.length);
+        HEAD.setRelease(this, pos + 1);
+        return e;
+    }
+
+    /**
+     * Moves up to {@code max} published elements, in order, into {@code batch}; consumer thread only.
+     *
+     * @return number of elements moved
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(E[] batch, int max) {
+        long pos = head;
+        int n = 0;
+        while (n < max) {
+            int index = (int) pos & mask;
+            if ((long) SEQUENCE.getAcquire(sequences, index) != pos + 1) {
+                break;
+            }
+            batch[n++] = (E) slots[index];
+            slots[index] = null;
+            SEQUENCE.setRelease(sequences, index, pos + slots.length);
+            pos++;
+        }
+        if (n > 0) {
+            HEAD.setRelease(this, pos);
+        }
+        return n;
+    }
+}
@@ -0,0 +1,772 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous appender backed by a preallocated lock-free {@link RingBuffer}, a drop-in replacement for
+ * logback's {@code AsyncAppender}.
+ *
+ * <p>Request threads snapshot the event (message, MDC, optionally caller data) and claim a slot with one CAS, so
+ * a burst from many threads does not serialize on the lock of an {@code ArrayBlockingQueue}. One consumer thread
+ * drains the ring in batches of up to {@code maxBatchSize} events and hands them to the attached appenders.
+ * Attached {@link OutputStreamAppender}s are switched to deferred flushing and flushed once per batch;
+ * {@link BatchAware} appenders are told when a batch begins and ends.</p>
+ *
+ * <pre>
+ * &lt;appender name="ASYNC" class="com.github.dimitryivaniuta.gateway.logging.RingBufferAsyncAppender"&gt;
+ *     &lt;bufferSize&gt;8192&lt;/bufferSize&gt;
+ *     &lt;maxBatchSize&gt;256&lt;/maxBatchSize&gt;
+ *     &lt;waitStrategy&gt;sleeping&lt;/waitStrategy&gt;   &lt;!-- sleeping | yielding | busy-spin | blocking --&gt;
+ *     &lt;neverBlock&gt;true&lt;/neverBlock&gt;
+ *     &lt;appender-ref ref="CONSOLE_JSON"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ *
+ * <p>When the ring is full, {@code neverBlock} drops the event; otherwise the caller backs off until a slot is
+ * free. Depth, drops and batch sizes are kept in {@link AsyncAppenderStats} under the appender name.</p>
+ *
+ * <p>Levels have lanes: INFO events may fill the ring up to {@code infoLaneCapacity} (default 80%), TRACE and
+ * DEBUG up to {@code debugLaneCapacity} (50%), and only WARN and ERROR the rest, so a burst of access lines never
+ * pushes out an error. An event over its lane is shed with {@code neverBlock}, and waits for room otherwise. The
+ * lanes bound admission to the one ring, so the events of a thread are still delivered in order.</p>
+ *
+ * <p>Loggers named by {@code adaptiveLogger} are logged at {@code adaptiveLevel} and above only (an
+ * {@link AdaptiveLevelFilter}) once the ring is {@code adaptiveRaiseAt} full, until it has drained below
+ * {@code adaptiveRestoreAt} and at least {@code adaptiveMinDuration} has passed.</p>
+ *
+ * <p>With a {@code spillDirectory}, events are not dropped while the disk has room: once the ring holds more than
+ * {@code spillThreshold} of its capacity, new events go to a second ring that a spill thread redacts
+ * ({@link SpilledEvents}) and appends to memory-mapped segments ({@link SpillQueue}) of at most
+ * {@code maxSpillSize} in total. The consumer replays them behind the events already in the ring, and only
+ * switches back to the ring once the spill is empty, so the events of each thread stay in order. A request
+ * thread never writes to disk. The second ring and the spill segments have the same lanes as the ring, so INFO
+ * and DEBUG events are shed before a warning or error is dropped there too.</p>
+ */
+public class RingBufferAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    public static final int DEFAULT_MAX_FLUSH_TIME = 1000;
+    public static final double DEFAULT_SPILL_THRESHOLD = 0.9;
+    public static final long DEFAULT_MAX_SPILL_SIZE = 256 * FileSize.MB_COEFFICIENT;
+    public static final long DEFAULT_SPILL_SEGMENT_SIZE = 16 * FileSize.MB_COEFFICIENT;
+    public static final double DEFAULT_INFO_LANE_CAPACITY = 0.8;
+    public static final double DEFAULT_DEBUG_LANE_CAPACITY = 0.5;
+    public static final double DEFAULT_ADAPTIVE_RAISE_AT = 0.5;
+    public static final double DEFAULT_ADAPTIVE_RESTORE_AT = 0.1;
+    public static final long DEFAULT_ADAPTIVE_MIN_DURATION = 10_000;
+
+    private static final int NORMAL = 0;
+    private static final int SPILLING = 1;
+    /** The consumer replays the rest of the spill; new events queue in the ring behind it. */
+    private static final int ENDING = 2;
+
+    private final AppenderAttachableImpl<ILoggingEvent> aai = new AppenderAttachableImpl<>();
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private WaitStrategy waitStrategy = WaitStrategy.SLEEPING;
+    private boolean neverBlock;
+    private boolean includeCallerData;
+    private boolean flushPerBatch = true;
+    private int maxFlushTime = DEFAULT_MAX_FLUSH_TIME;
+    private String spillDirectory;
+    private double spillThreshold = DEFAULT_SPILL_THRESHOLD;
+    private FileSize maxSpillSize = new FileSize(DEFAULT_MAX_SPILL_SIZE);
+    private FileSize spillSegmentSize = new FileSize(DEFAULT_SPILL_SEGMENT_SIZE);
+    private final List<String> spillTrustedKeys = new ArrayList<>();
+    private double infoLaneCapacity = DEFAULT_INFO_LANE_CAPACITY;
+    private double debugLaneCapacity = DEFAULT_DEBUG_LANE_CAPACITY;
+    private final List<String> adaptiveLoggers = new ArrayList<>();
+    private Level adaptiveLevel = Level.WARN;
+    private double adaptiveRaiseAt = DEFAULT_ADAPTIVE_RAISE_AT;
+    private double adaptiveRestoreAt = DEFAULT_ADAPTIVE_RESTORE_AT;
+    private Duration adaptiveMinDuration = new Duration(DEFAULT_ADAPTIVE_MIN_DURATION);
+
+    private RingBuffer<ILoggingEvent> queue;
+    /** Ring occupancy at which INFO, and TRACE or DEBUG, events are over their lane. */
+    private int infoLimit;
+    private int debugLimit;
+    private AdaptiveLevelFilter adaptive;
+    private int adaptiveRaiseLimit;
+    private int adaptiveRestoreLimit;
+    private AsyncAppenderStats stats;
+    private Thread consumer;
+    /** Set while a {@link WaitStrategy#BLOCKING} consumer parks; producers then unpark it. */
+    private volatile boolean consumerParked;
+    private final List<BatchAware> batchAware = new ArrayList<>();
+    /** Appenders whose immediate flush this appender switched off, to be flushed per batch and restored on stop. */
+    private final List<OutputStreamAppender<?>> deferredFlush = new ArrayList<>();
+
+    private SpillQueue spill;
+    private SpilledEvents spillCodec;
+    /** Events on their way to the spill thread. */
+    private RingBuffer<ILoggingEvent> handoff;
+    private Thread spillWriter;
+    private int highWater;
+    /** Spill segments that INFO, and TRACE or DEBUG, events may fill. */
+    private int infoSpillSegments;
+    private int debugSpillSegments;
+    private final AtomicInteger spillState = new AtomicInteger(NORMAL);
+    /** Producers between reading {@link #spillState} and handing their event over. */
+    private final AtomicInteger spillInFlight = new AtomicInteger();
+    private final AtomicLong spillAccepted = new AtomicLong();
+    /** Events the spill thread has written or given up on; written by that thread only. */
+    private volatile long spillHandled;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!aai.iteratorForAppenders().hasNext()) {
+            addError("No attached appenders found for [" + name + "].");
+            return;
+        }
+        if (maxBatchSize < 1) {
+            addError("maxBatchSize must be positive, got " + maxBatchSize);
+            return;
+        }
+        try {
+            queue = new RingBuffer<>(bufferSize);
+        } catch (IllegalArgumentException e) {
+            addError("Invalid bufferSize for [" + name + "]: " + e.getMessage());
+            return;
+        }
+        infoLimit = slots(infoLaneCapacity);
+        debugLimit = Math.min(infoLimit, slots(debugLaneCapacity));
+        if (spillDirectory != null && !spillDirectory.isBlank() && !openSpill()) {
+            return;
+        }
+        for (Iterator<Appender<ILoggingEvent>> it = aai.iteratorForAppenders(); it.hasNext(); ) {
+            Appender<ILoggingEvent> a = it.next();
+            if (a instanceof BatchAware b) {
+                batchAware.add(b);
+            } else if (flushPerBatch && a instanceof OutputStreamAppender<?> o && o.isImmediateFlush()) {
+                o.setImmediateFlush(false);
+                deferredFlush.add(o);
+            }
+        }
+        stats = AsyncAppenderStats.of(name);
+        stats.bind(queue);
+        if (!adaptiveLoggers.isEmpty()) {
+            adaptive = new AdaptiveLevelFilter(adaptiveLoggers, adaptiveLevel, stats);
+            adaptive.setContext(getContext());
+            adaptive.setName("adaptive-" + name);
+            adaptive.start();
+            adaptiveRaiseLimit = slots(adaptiveRaiseAt);
+            adaptiveRestoreLimit = Math.min(adaptiveRaiseLimit - 1, (int) (queue.capacity() * adaptiveRestoreAt));
+            ((LoggerContext) getContext()).addTurboFilter(adaptive);
+        }
+        super.start();
+        if (spill != null) {
+            stats.bindSpill(spill);
+            spillWriter = new Thread(this::writeSpill, "logback-spill-" + name);
+            spillWriter.setDaemon(true);
+            spillWriter.start();
+        }
+        consumer = new Thread(this::consume, "logback-ring-" + name);
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /** @return the ring occupancy matching {@code ratio}, at least one slot */
+    private int slots(double ratio) {
+        return (int) Math.max(1, Math.min(queue.capacity(), Math.round(queue.capacity() * ratio)));
+    }
+
+    /** @return {@code false} if the appender cannot start; a directory held by another queue only disables spill */
+    private boolean openSpill() {
+        long segment = Math.min(spillSegmentSize.getSize(), Integer.MAX_VALUE);
+        try {
+            spill = new SpillQueue(Paths.get(spillDirectory, name), (int) segment,
+                    (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxSpillSize.getSize() / segment)));
+        } catch (SpillQueue.DirectoryInUseException e) {
+            addWarn(e.getMessage() + "; [" + name + "] runs without spill. Give each process its own spillDirectory.");
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            addError("Failed to open the spill directory of [" + name + "].", e);
+            return false;
+        }
+        spillCodec = new SpilledEvents((LoggerContext) getContext(), new HashSet<>(spillTrustedKeys));
+        handoff = new RingBuffer<>(queue.capacity());
+        highWater = slots(spillThreshold);
+        int segments = spill.maxSegments();
+        infoSpillSegments = (int) Math.max(1, Math.min(segments, Math.round(segments * infoLaneCapacity)));
+        debugSpillSegments = Math.min(infoSpillSegments,
+                (int) Math.max(1, Math.min(segments, Math.round(segments * debugLaneCapacity))));
+        long recovered = spill.recovered();
+        spillAccepted.set(recovered);
+        spillHandled = recovered;
+        if (recovered > 0) {
+            // Older than anything logged from now on.
+            spillState.set(SPILLING);
+            addInfo("Replaying " + recovered + " events spilled by a previous run of [" + name + "].");
+        }
+        return true;
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        // The consumer sees started == false, drains what is left and stops the attached appenders.
+        super.stop();
+        if (adaptive != null) {
+            ((LoggerContext) getContext()).getTurboFilterList().remove(adaptive);
+            adaptive.stop();
+        }
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(maxFlushTime);
+            if (consumer.isAlive()) {
+                addWarn("Max flush time (" + maxFlushTime + " ms) reached; up to " + queue.size()
+                        + " queued events may be lost.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            addError("Interrupted while waiting for [" + name + "] to flush.", e);
+        }
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        if (adaptive != null && !adaptive.isRaised() && queue.size() >= adaptiveRaiseLimit) {
+            adaptive.raise();
+        }
+        int limit = laneLimit(event.getLevel());
+        if (spill != null && spilled(event, limit)) {
+            return;
+        }
+        if (limit < queue.capacity() && queue.size() >= limit && !waitForLane(queue, limit)) {
+            stats.onShed(event.getLevel());
+            return;
+        }
+        if (!queue.offer(event)) {
+            if (neverBlock) {
+                stats.onDropped(event.getLevel());
+                return;
+            }
+            int attempt = 0;
+            do {
+                if (!isStarted()) {
+                    stats.onDropped(event.getLevel());
+                    return;
+                }
+                attempt = WaitStrategy.SLEEPING.idle(attempt);
+            } while (!queue.offer(event));
+        }
+        stats.onEnqueued();
+        if (waitStrategy.signalled()) {
+            // Publishing the slot and reading the flag must not be reordered (see consume()).
+            VarHandle.fullFence();
+            if (consumerParked) {
+                LockSupport.unpark(consumer);
+            }
+        }
+    }
+
+    /** @return ring occupancy from which events of {@code level} are over their lane */
+    private int laneLimit(Level level) {
+        if (level.toInt() >= Level.WARN_INT) {
+            return queue.capacity();
+        }
+        return level.toInt() >= Level.INFO_INT ? infoLimit : debugLimit;
+    }
+
+    /** @return spill segments that events of {@code level} may fill, the spill's share of {@link #laneLimit} */
+    private int spillLane(Level level) {
+        if (level.toInt() >= Level.WARN_INT) {
+            return spill.maxSegments();
+        }
+        return level.toInt() >= Level.INFO_INT ? infoSpillSegments : debugSpillSegments;
+    }
+
+    /** @return whether the lane of {@code ring} has room again; {@code false} means the event is to be shed */
+    private boolean waitForLane(RingBuffer<ILoggingEvent> ring, int limit) {
+        if (neverBlock) {
+            return false;
+        }
+        int attempt = 0;
+        do {
+            if (!isStarted()) {
+                return false;
+            }
+            attempt = WaitStrategy.SLEEPING.idle(attempt);
+        } while (ring.size() >= limit);
+        return true;
+    }
+
+    /** @return whether the event was handed to the spill thread, or dropped on the way there */
+    private boolean spilled(ILoggingEvent event, int limit) {
+        int state = spillState.get();
+        if (state == ENDING || (state == NORMAL && queue.size() < Math.min(highWater, limit))) {
+            return false;
+        }
+        spillState.compareAndSet(NORMAL, SPILLING);
+        spillInFlight.incrementAndGet();
+        try {
+            if (spillState.get() != SPILLING) {
+                return false;
+            }
+            // The handoff has the ring's capacity, so the same lanes keep room for warnings and errors.
+            if (limit < handoff.capacity() && handoff.size() >= limit && !waitForLane(handoff, limit)) {
+                stats.onShed(event.getLevel());
+                return true;
+            }
+            int attempt = 0;
+            while (!handoff.offer(event)) {
+                if (neverBlock || !isStarted()) {
+                    stats.onDropped(event.getLevel());
+                    return true;
+                }
+                attempt = WaitStrategy.SLEEPING.idle(attempt);
+            }
+            spillAccepted.incrementAndGet();
+            stats.onSpilled();
+            return true;
+        } finally {
+            spillInFlight.decrementAndGet();
+        }
+    }
+
+    private void consume() {
+        ILoggingEvent[] batch = new ILoggingEvent[maxBatchSize];
+        ILoggingEvent[] replayed = spill == null ? null : new ILoggingEvent[maxBatchSize];
+        int attempt = 0;
+        long adaptiveMinNanos = adaptive == null ? 0 : adaptiveMinDuration.getMilliseconds() * 1_000_000L;
+        while (isStarted()) {
+            if (adaptive != null && adaptive.isRaised() && queue.size() <= adaptiveRestoreLimit) {
+                adaptive.restore(adaptiveMinNanos);
+            }
+            if (deliver(batch, replayed)) {
+                attempt = 0;
+            } else if (waitStrategy.signalled() && attempt >= WaitStrategy.SPINS) {
+                consumerParked = true;
+                VarHandle.fullFence();
+                if (queue.isEmpty() && isStarted()) {
+                    attempt = waitStrategy.idle(attempt);
+                }
+                consumerParked = false;
+            } else {
+                attempt = waitStrategy.idle(attempt);
+            }
+        }
+        drainRing(batch);
+        if (spill != null) {
+            finishSpill(batch);
+        }
+        for (OutputStreamAppender<?> o : deferredFlush) {
+            o.setImmediateFlush(true);
+        }
+        deferredFlush.clear();
+        batchAware.clear();
+        stats.bind(null);
+        aai.detachAndStopAllAppenders();
+    }
+
+    /** Delivers what is ready. @return whether anything was delivered */
+    private boolean deliver(ILoggingEvent[] batch, ILoggingEvent[] replayed) {
+        if (spill == null || spillState.get() == NORMAL) {
+            int n = queue.drainTo(batch, maxBatchSize);
+            if (n > 0) {
+                dispatch(batch, n);
+            }
+            return n > 0;
+        }
+        long handled = spillHandled;
+        long accepted = spillAccepted.get();
+        // Read the spill before draining the ring: a ring event that a thread published before one of its spilled
+        // events is then visible below, and delivered first.
+        int k = readSpill(replayed);
+        boolean delivered = drainRing(batch);
+        if (k > 0) {
+            dispatch(replayed, k);
+            stats.onReplayed(k);
+            return true;
+        }
+        if (!delivered && handled >= accepted) {
+            endSpilling(replayed);
+            return true;
+        }
+        return delivered;
+    }
+
+    /** Replays the rest of the spill while new events wait in the ring, then goes back to the ring. */
+    private void endSpilling(ILoggingEvent[] replayed) {
+        spillState.set(ENDING);
+        int attempt = 0;
+        while (spillInFlight.get() != 0) {
+            attempt = WaitStrategy.SLEEPING.idle(attempt);
+        }
+        long target = spillAccepted.get();
+        attempt = 0;
+        while (true) {
+            long handled = spillHandled;
+            int k = readSpill(replayed);
+            if (k > 0) {
+                dispatch(replayed, k);
+                stats.onReplayed(k);
+                attempt = 0;
+            } else if (handled >= target || !spillWriter.isAlive()) {
+                break;
+            } else {
+                attempt = WaitStrategy.SLEEPING.idle(attempt);
+            }
+        }
+        spillState.set(NORMAL);
+    }
+
+    private boolean drainRing(ILoggingEvent[] batch) {
+        boolean any = false;
+        int n;
+        while ((n = queue.drainTo(batch, maxBatchSize)) > 0) {
+            dispatch(batch, n);
+            any = true;
+        }
+        return any;
+    }
+
+    private int readSpill(ILoggingEvent[] into) {
+        int k = 0;
+        byte[] record;
+        while (k < into.length && (record = spill.poll()) != null) {
+            try {
+                into[k] = spillCodec.decode(record);
+                k++;
+            } catch (RuntimeException e) {
+                addError("Dropping an unreadable spilled event of [" + name + "].", e);
+                stats.onDropped();
+            }
+        }
+        return k;
+    }
+
+    /** Runs on the consumer thread after stop: replays everything spilled, then releases the segments. */
+    private void finishSpill(ILoggingEvent[] batch) {
+        try {
+            spillWriter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int k;
+        while ((k = readSpill(batch)) > 0) {
+            dispatch(batch, k);
+            stats.onReplayed(k);
+        }
+        // Handed over after the spill thread had stopped.
+        int n;
+        while ((n = handoff.drainTo(batch, maxBatchSize)) > 0) {
+            dispatch(batch, n);
+        }
+        spill.close();
+        stats.bindSpill(null);
+    }
+
+    /** Spill thread: redacts and appends handed-over events until the appender stops and the handoff is empty. */
+    private void writeSpill() {
+        ILoggingEvent[] batch = new ILoggingEvent[maxBatchSize];
+        int attempt = 0;
+        while (true) {
+            int n = handoff.drainTo(batch, maxBatchSize);
+            if (n == 0) {
+                if (!isStarted()) {
+                    break;
+                }
+                attempt = WaitStrategy.SLEEPING.idle(attempt);
+                continue;
+            }
+            attempt = 0;
+            for (int i = 0; i < n; i++) {
+                Level level = batch[i].getLevel();
+                int segments = spillLane(level);
+                try {
+                    if (!spill.append(spillCodec.encode(batch[i]), segments)) {
+                        if (segments < spill.maxSegments()) {
+                            stats.onShed(level);
+                        } else {
+                            stats.onDropped(level);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    addError("Failed to spill an event of [" + name + "].", e);
+                    stats.onDropped(level);
+                }
+                batch[i] = null;
+            }
+            spillHandled = spillHandled + n;
+        }
+        spill.seal();
+    }
+
+    private void dispatch(ILoggingEvent[] batch, int n) {
+        for (BatchAware b : batchAware) {
+            try {
+                b.beginBatch();
+            } catch (RuntimeException e) {
+                addError("Begin of batch failed for [" + name + "].", e);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            try {
+                aai.appendLoopOnAppenders(batch[i]);
+            } catch (RuntimeException e) {
+                addError("Appender failed for an event of [" + name + "].", e);
+            }
+            batch[i] = null;
+        }
+        stats.onBatch(n);
+        for (BatchAware b : batchAware) {
+            try {
+                b.endOfBatch();
+            } catch (RuntimeException e) {
+                addError("End of batch failed for [" + name + "].", e);
+            }
+        }
+        for (OutputStreamAppender<?> o : deferredFlush) {
+            try {
+                // Only this thread writes to the attached appenders, so flushing outside their lock is safe.
+                if (o.isStarted() && o.getOutputStream() != null) {
+                    o.getOutputStream().flush();
+                }
+            } catch (IOException e) {
+                addError("Failed to flush [" + o.getName() + "].", e);
+            }
+        }
+    }
+
+    /** @return events waiting in the ring */
+    public int getNumberOfElementsInQueue() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /** @param bufferSize ring capacity, rounded up to a power of two */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public String getWaitStrategy() {
+        return waitStrategy.name();
+    }
+
+    /** @param waitStrategy {@code sleeping} (default), {@code yielding}, {@code busy-spin} or {@code blocking} */
+    public void setWaitStrategy(String waitStrategy) {
+        try {
+            this.waitStrategy = WaitStrategy.parse(waitStrategy);
+        } catch (IllegalArgumentException e) {
+            addError("Unknown waitStrategy '" + waitStrategy + "', keeping " + this.waitStrategy);
+        }
+    }
+
+    public boolean isNeverBlock() {
+        return neverBlock;
+    }
+
+    public void setNeverBlock(boolean neverBlock) {
+        this.neverBlock = neverBlock;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    public void setIncludeCallerData(boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public boolean isFlushPerBatch() {
+        return flushPerBatch;
+    }
+
+    /** @param flushPerBatch whether attached output stream appenders flush once per batch instead of per event */
+    public void setFlushPerBatch(boolean flushPerBatch) {
+        this.flushPerBatch = flushPerBatch;
+    }
+
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    /** @param maxFlushTime milliseconds {@link #stop()} waits for queued events to be written */
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    public String getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /** @param spillDirectory where full-queue events are spilled (in a subdirectory named after the appender) */
+    public void setSpillDirectory(String spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    public double getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    /** @param spillThreshold fill ratio of the ring, in (0, 1], above which new events are spilled */
+    public void setSpillThreshold(double spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
+    public FileSize getMaxSpillSize() {
+        return maxSpillSize;
+    }
+
+    /** @param maxSpillSize disk used by spill segments at most; events beyond it are dropped */
+    public void setMaxSpillSize(FileSize maxSpillSize) {
+        this.maxSpillSize = maxSpillSize;
+    }
+
+    public FileSize getSpillSegmentSize() {
+        return spillSegmentSize;
+    }
+
+    public void setSpillSegmentSize(FileSize spillSegmentSize) {
+        this.spillSegmentSize = spillSegmentSize;
+    }
+
+    /** @param key MDC key whose values are spilled as-is, like a trusted key of {@link RedactingMdcJsonProvider} */
+    public void addSpillTrustedKey(String key) {
+        spillTrustedKeys.add(key);
+    }
+
+    public double getInfoLaneCapacity() {
+        return infoLaneCapacity;
+    }
+
+    /** @param infoLaneCapacity fill ratio of the ring, in (0, 1], up to which INFO events are queued */
+    public void setInfoLaneCapacity(double infoLaneCapacity) {
+        this.infoLaneCapacity = infoLaneCapacity;
+    }
+
+    public double getDebugLaneCapacity() {
+        return debugLaneCapacity;
+    }
+
+    /** @param debugLaneCapacity fill ratio up to which TRACE and DEBUG events are queued; capped by the INFO lane */
+    public void setDebugLaneCapacity(double debugLaneCapacity) {
+        this.debugLaneCapacity = debugLaneCapacity;
+    }
+
+    /** @param logger name of a logger (and its children) whose level is raised while the ring is filling up */
+    public void addAdaptiveLogger(String logger) {
+        adaptiveLoggers.add(logger);
+    }
+
+    public String getAdaptiveLevel() {
+        return adaptiveLevel.toString();
+    }
+
+    /** @param adaptiveLevel lowest level the adaptive loggers still log while raised; {@code WARN} by default */
+    public void setAdaptiveLevel(String adaptiveLevel) {
+        Level level = Level.toLevel(adaptiveLevel, null);
+        if (level == null) {
+            addError("Unknown adaptiveLevel '" + adaptiveLevel + "', keeping " + this.adaptiveLevel);
+            return;
+        }
+        this.adaptiveLevel = level;
+    }
+
+    public double getAdaptiveRaiseAt() {
+        return adaptiveRaiseAt;
+    }
+
+    /** @param adaptiveRaiseAt fill ratio of the ring at which the adaptive loggers are raised */
+    public void setAdaptiveRaiseAt(double adaptiveRaiseAt) {
+        this.adaptiveRaiseAt = adaptiveRaiseAt;
+    }
+
+    public double getAdaptiveRestoreAt() {
+        return adaptiveRestoreAt;
+    }
+
+    /** @param adaptiveRestoreAt fill ratio of the ring at or below which they are restored */
+    public void setAdaptiveRestoreAt(double adaptiveRestoreAt) {
+        this.adaptiveRestoreAt = adaptiveRestoreAt;
+    }
+
+    public Duration getAdaptiveMinDuration() {
+        return adaptiveMinDuration;
+    }
+
+    /** @param adaptiveMinDuration how long the loggers stay raised at least, so that they do not flap */
+    public void setAdaptiveMinDuration(Duration adaptiveMinDuration) {
+        this.adaptiveMinDuration = adaptiveMinDuration;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        addInfo("Attaching appender named [" + newAppender.getName() + "] to " + getClass().getSimpleName() + ".");
+        aai.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return aai.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return aai.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return aai.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        aai.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return aai.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return aai.detachAppender(name);
+    }
+}
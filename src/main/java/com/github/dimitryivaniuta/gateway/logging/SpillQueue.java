@@ -0,0 +1,331 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * FIFO of byte records in memory-mapped segment files, with one writer thread and one reader thread.
+ *
+ * <p>A segment is a file of {@code segmentSize} bytes holding {@code [int length][bytes]} records back to back;
+ * a zero length (the file is zero-filled) marks the end. The writer publishes each record by advancing the
+ * segment's volatile limit. The reader negates the length of each record it takes and hands a segment back to
+ * the writer once it is sealed and read to the end; the writer zeroes and renames it instead of creating a new file.
+ * A deleted file keeps its disk blocks for as long as it stays mapped, and a mapping is only released by the
+ * garbage collector, so reusing segments is what keeps the disk use at {@code maxSegments} files: when they are all
+ * full, {@link #append} refuses the record. Segments are only deleted by {@link #close}.</p>
+ *
+ * <p>Segments left over by a previous process are found on open and read first, skipping records it already
+ * took, so a crash or a slow shutdown does not lose what was spilled. The queue holds a lock on
+ * {@code dir/spill.lock} until it is closed; a directory another live queue holds is refused with
+ * {@link DirectoryInUseException}, as recovering from it would replay and delete segments still being written.</p>
+ */
+final class SpillQueue {
+
+    private static final String PREFIX = "spill-";
+    private static final String SUFFIX = ".seg";
+    private static final int HEADER = Integer.BYTES;
+    private static final String LOCK = "spill.lock";
+
+    private final Path dir;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final ConcurrentLinkedDeque<Segment> segments = new ConcurrentLinkedDeque<>();
+    /** Read segments waiting to be reused by the writer; their files still exist. */
+    private final ConcurrentLinkedQueue<Segment> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger live = new AtomicInteger();
+    private final long recovered;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    // Writer state.
+    private Segment writing;
+    private long nextSeq;
+
+    // Reader state.
+    private int readPos;
+
+    /** Thrown when another open queue, in this process or another one, holds the directory. */
+    static final class DirectoryInUseException extends IOException {
+
+        DirectoryInUseException(Path dir) {
+            super("Spill directory " + dir + " is in use by another queue");
+        }
+    }
+
+    /**
+     * Opens the queue in {@code dir}, picking up segments left there by a previous process.
+     *
+     * @throws DirectoryInUseException if another open queue holds {@code dir}
+     * @throws IOException             if the directory or a leftover segment cannot be read
+     */
+    SpillQueue(Path dir, int segmentSize, int maxSegments) throws IOException {
+        if (segmentSize < 1024 || maxSegments < 1) {
+            throw new IllegalArgumentException("segmentSize must be at least 1 KB and maxSegments positive, got "
+                    + segmentSize + " and " + maxSegments);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(dir);
+        lockChannel = FileChannel.open(dir.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock held;
+        try {
+            held = lockChannel.tryLock();
+        } catch (IOException | OverlappingFileLockException e) {
+            held = null;
+        }
+        if (held == null) {
+            lockChannel.close();
+            throw new DirectoryInUseException(dir);
+        }
+        lock = held;
+        try {
+            recovered = recover();
+        } catch (IOException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    private long recover() throws IOException {
+        List<Path> leftovers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> seq(p) >= 0).forEach(leftovers::add);
+        }
+        leftovers.sort(Comparator.comparingLong(SpillQueue::seq));
+        long records = 0;
+        for (Path p : leftovers) {
+            Segment s = new Segment(p, map(p, Files.size(p), false));
+            int pos = 0;
+            while (pos + HEADER <= s.buffer.capacity()) {
+                int len = s.buffer.getInt(pos);
+                if (len == 0 || pos + HEADER + Math.abs((long) len) > s.buffer.capacity()) {
+                    break;
+                }
+                if (len > 0) {
+                    records++;
+                }
+                pos += HEADER + Math.abs(len);
+            }
+            s.limit = pos;
+            s.sealed = true;
+            segments.addLast(s);
+            live.incrementAndGet();
+            nextSeq = seq(p) + 1;
+        }
+        return records;
+    }
+
+    /** @return records found in leftover segments when the queue was opened */
+    long recovered() {
+        return recovered;
+    }
+
+    /** @return bytes of segment files currently on disk */
+    long bytesOnDisk() {
+        long bytes = 0;
+        for (Segment s : segments) {
+            bytes += s.buffer.capacity();
+        }
+        for (Segment s : free) {
+            bytes += s.buffer.capacity();
+        }
+        return bytes;
+    }
+
+    /** @return the most segments that exist at a time */
+    int maxSegments() {
+        return maxSegments;
+    }
+
+    /**
+     * Appends one record; writer thread only.
+     *
+     * @return {@code false} if the record is larger than a segment or all segments are full
+     */
+    boolean append(byte[] record) throws IOException {
+        return append(record, maxSegments);
+    }
+
+    /**
+     * Appends one record if it fits without going over {@code cap} segments; writer thread only. A lower cap than
+     * {@code maxSegments} keeps the rest of the queue for other records.
+     *
+     * @return {@code false} if the record is larger than a segment or the segments it may use are full
+     */
+    boolean append(byte[] record, int cap) throws IOException {
+        int need = HEADER + record.length;
+        if (need > segmentSize - HEADER) {
+            return false;
+        }
+        Segment s = writing;
+        if (s != null && s.limit + need > segmentSize - HEADER) {
+            s.sealed = true;
+            s = writing = null;
+        }
+        if (s == null) {
+            if (live.get() >= Math.min(cap, maxSegments)) {
+                return false;
+            }
+            Path p = dir.resolve(PREFIX + String.format("%019d", nextSeq++) + SUFFIX);
+            Segment old = free.poll();
+            s = writing = old == null ? new Segment(p, map(p, segmentSize, true)) : reuse(old, p);
+            live.incrementAndGet();
+            segments.addLast(s);
+        }
+        int pos = s.limit;
+        s.buffer.put(pos + HEADER, record);
+        s.buffer.putInt(pos, record.length);
+        s.limit = pos + need;
+        return true;
+    }
+
+    /** Marks the segment being written as complete; writer thread only, or any thread once the writer is gone. */
+    void seal() {
+        Segment s = writing;
+        if (s != null) {
+            s.sealed = true;
+            writing = null;
+        }
+    }
+
+    /** @return the next record, or {@code null} if none is published; reader thread only */
+    byte[] poll() {
+        while (true) {
+            Segment s = segments.peekFirst();
+            if (s == null) {
+                return null;
+            }
+            // Read sealed before limit: once sealed, the limit is final.
+            boolean sealed = s.sealed;
+            int limit = s.limit;
+            if (readPos < limit) {
+                int len = s.buffer.getInt(readPos);
+                if (len < 0) {
+                    // Replayed by a previous process.
+                    readPos += HEADER - len;
+                    continue;
+                }
+                byte[] record = new byte[len];
+                s.buffer.get(readPos + HEADER, record);
+                s.buffer.putInt(readPos, -len);
+                readPos += HEADER + len;
+                return record;
+            }
+            if (!sealed) {
+                return null;
+            }
+            remove(s);
+        }
+    }
+
+    /**
+     * Deletes the segments that have nothing left to read and releases the directory; call once the writer is gone
+     * and the reader has drained what it could. Segments still holding records stay on disk for the next process.
+     */
+    void close() {
+        seal();
+        Segment s;
+        while ((s = segments.peekFirst()) != null && readPos >= s.limit) {
+            remove(s);
+        }
+        while ((s = free.poll()) != null) {
+            delete(s);
+        }
+        release();
+    }
+
+    private void release() {
+        try {
+            lock.release();
+            lockChannel.close();
+        } catch (IOException ignored) {
+            // Closing the channel releases the lock anyway, and so does the end of the process.
+        }
+    }
+
+    /** Takes a fully read segment off the queue; reader thread only. */
+    private void remove(Segment s) {
+        segments.pollFirst();
+        readPos = 0;
+        if (s.buffer.capacity() == segmentSize) {
+            // Pooled before it stops counting as live, so the writer never has more than maxSegments files.
+            free.add(s);
+        } else {
+            // Left over by a process with another segment size.
+            delete(s);
+        }
+        live.decrementAndGet();
+    }
+
+    private static void delete(Segment s) {
+        try {
+            Files.deleteIfExists(s.file);
+        } catch (IOException ignored) {
+            // Fully replayed: records are marked as such, so a leftover file is skipped on the next open.
+        }
+    }
+
+    /** @return {@code old}'s mapping, zeroed, under the name {@code p}; writer thread only */
+    private Segment reuse(Segment old, Path p) throws IOException {
+        // Zeroed before the rename: a crash in between leaves an empty or fully replayed segment either way.
+        MappedByteBuffer b = old.buffer;
+        int end = Math.min(old.limit + HEADER, b.capacity());
+        for (int i = 0; i < end; i++) {
+            b.put(i, (byte) 0);
+        }
+        try {
+            Files.move(old.file, p, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            free.add(old);
+            throw e;
+        }
+        return new Segment(p, b);
+    }
+
+    private static MappedByteBuffer map(Path p, long size, boolean create) throws IOException {
+        try (FileChannel ch = create
+                ? FileChannel.open(p, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(p, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return ch.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private static long seq(Path p) {
+        String n = p.getFileName().toString();
+        if (!n.startsWith(PREFIX) || !n.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(n.substring(PREFIX.length(), n.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Segment {
+        final Path file;
+        final MappedByteBuffer buffer;
+        volatile int limit;
+        volatile boolean sealed;
+
+        Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+}
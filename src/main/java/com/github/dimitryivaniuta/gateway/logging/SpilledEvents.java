@@ -0,0 +1,114 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.CoreConstants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns events into redacted records for {@link SpillQueue} and back.
+ *
+ * <p>Nothing reaches the record unredacted: the formatted message and every MDC value (except trusted keys) go
+ * through {@link Redactor}, and a throwable is rendered by {@link RedactedThrowableConverter} and appended to
+ * the message, because logback cannot rebuild a throwable proxy from text. Replayed events carry the redacted
+ * text as a plain message without arguments; the encoder redacts it again, which leaves masks as they are.</p>
+ */
+final class SpilledEvents {
+
+    private final LoggerContext context;
+    private final Set<String> trustedKeys;
+    private final RedactedThrowableConverter throwableConverter = new RedactedThrowableConverter();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    SpilledEvents(LoggerContext context, Set<String> trustedKeys) {
+        this.context = context;
+        this.trustedKeys = trustedKeys;
+        throwableConverter.setContext(context);
+        throwableConverter.start();
+    }
+
+    /** Redacts and serializes {@code event}; spill thread only. */
+    byte[] encode(ILoggingEvent event) {
+        bytes.reset();
+        try {
+            Instant instant = event.getInstant();
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+            out.writeInt(event.getLevel().toInt());
+            writeString(event.getLoggerName());
+            writeString(event.getThreadName());
+            String message = Redactor.redact(event.getFormattedMessage());
+            if (event.getThrowableProxy() != null) {
+                String trace = throwableConverter.convert(event);
+                message = message + CoreConstants.LINE_SEPARATOR
+                        + (trace.endsWith(CoreConstants.LINE_SEPARATOR)
+                        ? trace.substring(0, trace.length() - CoreConstants.LINE_SEPARATOR.length()) : trace);
+            }
+            writeString(message);
+            Map<String, String> mdc = event.getMDCPropertyMap();
+            out.writeInt(mdc == null ? 0 : mdc.size());
+            if (mdc != null) {
+                for (Map.Entry<String, String> e : mdc.entrySet()) {
+                    writeString(e.getKey());
+                    String v = e.getValue();
+                    writeString(v == null || trustedKeys.contains(e.getKey()) ? v : Redactor.redact(v));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Rebuilds an event from a record written by {@link #encode}. */
+    LoggingEvent decode(byte[] record) {
+        ByteBuffer in = ByteBuffer.wrap(record);
+        LoggingEvent e = new LoggingEvent();
+        e.setLoggerContext(context);
+        e.setInstant(Instant.ofEpochSecond(in.getLong(), in.getInt()));
+        e.setLevel(Level.toLevel(in.getInt()));
+        e.setLoggerName(readString(in));
+        e.setThreadName(readString(in));
+        e.setMessage(readString(in));
+        int n = in.getInt();
+        Map<String, String> mdc = new HashMap<>(Math.max(4, n * 2));
+        for (int i = 0; i < n; i++) {
+            mdc.put(readString(in), readString(in));
+        }
+        e.setMDCPropertyMap(mdc);
+        return e;
+    }
+
+    private void writeString(String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int len = in.getInt();
+        if (len < 0) {
+            return null;
+        }
+        String s = new String(in.array(), in.position(), len, StandardCharsets.UTF_8);
+        in.position(in.position() + len);
+        return s;
+    }
+}
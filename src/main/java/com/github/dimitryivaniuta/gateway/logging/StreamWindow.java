@@ -0,0 +1,57 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+/**
+ * Bounded text window shared by the streaming redactors.
+ *
+ * <p>Holds up to one chunk of unscanned text, preceded by a lookback of already written text that only serves
+ * lookbehinds. Each {@link #drain} writes what can no longer be part of a match starting later and keeps the
+ * last {@link RedactionEngine#overlap()} characters for the next round, so a card or email split across writes
+ * is still masked whole. Memory stays at roughly one chunk plus two overlaps, whatever the stream length.</p>
+ *
+ * <p>Not thread-safe; each stream owns one.</p>
+ */
+final class StreamWindow {
+
+    private final RedactionEngine engine;
+    private final int capacity;
+    private final int lookback;
+    private final StringBuilder buf;
+    /** Characters at the start of {@link #buf} that have already been written. */
+    private int written;
+
+    StreamWindow(RedactionEngine engine) {
+        this.engine = engine;
+        this.capacity = engine.chunk();
+        this.lookback = engine.overlap();
+        this.buf = new StringBuilder(capacity + lookback);
+    }
+
+    /** @return how many more characters fit before the window has to be drained */
+    int room() {
+        return capacity - (buf.length() - written);
+    }
+
+    void append(char c) {
+        buf.append(c);
+    }
+
+    void append(char[] cbuf, int off, int len) {
+        buf.append(cbuf, off, len);
+    }
+
+    void append(CharSequence s, int start, int end) {
+        buf.append(s, start, end);
+    }
+
+    /**
+     * Redacts the pending text into {@code out}.
+     *
+     * @param eof {@code true} to write everything; otherwise the tail that may still grow into a match is kept
+     */
+    void drain(boolean eof, StringBuilder out) {
+        int done = engine.scanStream(buf, written, buf.length(), eof, out);
+        int keepFrom = Math.max(0, done - lookback);
+        buf.delete(0, keepFrom);
+        written = done - keepFrom;
+    }
+}
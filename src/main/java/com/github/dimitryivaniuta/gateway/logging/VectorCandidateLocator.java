@@ -0,0 +1,37 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link CandidateLocator} that tests a whole vector of characters per step (16 lanes with AVX2, 32 with
+ * AVX-512) for digits and {@code @}.
+ *
+ * <p>Needs {@code --add-modules jdk.incubator.vector}; only instantiated through {@link CandidateLocator#vector()}.</p>
+ */
+final class VectorCandidateLocator extends CandidateLocator {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+
+    @Override
+    int next(char[] a, int from, int to) {
+        int i = from;
+        for (int bound = to - SPECIES.length(); i <= bound; i += SPECIES.length()) {
+            ShortVector v = ShortVector.fromCharArray(SPECIES, a, i);
+            // (c - '0') < 10 unsigned is the digit test in one compare.
+            VectorMask<Short> hit = v.sub((short) '0').compare(VectorOperators.UNSIGNED_LT, (short) 10)
+                    .or(v.compare(VectorOperators.EQ, (short) '@'));
+            if (hit.anyTrue()) {
+                return i + hit.firstTrue();
+            }
+        }
+        return SCALAR.next(a, i, to);
+    }
+
+    @Override
+    public String toString() {
+        return "vector(" + SPECIES.length() + " lanes)";
+    }
+}
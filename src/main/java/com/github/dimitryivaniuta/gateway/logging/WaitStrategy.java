@@ -0,0 +1,93 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How the {@link RingBufferAsyncAppender} consumer waits for events when its queue is empty.
+ *
+ * <p>The strategies trade delivery latency against idle CPU. Only {@link #BLOCKING} makes producers signal the
+ * consumer; with the others a request thread never does more than a CAS and a store per event.</p>
+ */
+public enum WaitStrategy {
+
+    /** Spins, then yields, then parks for up to a millisecond at a time. Low idle CPU and no producer signalling. */
+    SLEEPING {
+        @Override
+        int idle(int attempt) {
+            if (attempt < SPINS) {
+                Thread.onSpinWait();
+            } else if (attempt < SPINS + YIELDS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1_000L << Math.min(10, attempt - SPINS - YIELDS)));
+            }
+            return attempt + 1;
+        }
+    },
+    /** Spins, then yields forever: lowest latency short of spinning, but keeps a core busy. */
+    YIELDING {
+        @Override
+        int idle(int attempt) {
+            if (attempt < SPINS) {
+                Thread.onSpinWait();
+                return attempt + 1;
+            }
+            Thread.yield();
+            return attempt;
+        }
+    },
+    /** Spins on the CPU; only for a dedicated core. */
+    BUSY_SPIN {
+        @Override
+        int idle(int attempt) {
+            Thread.onSpinWait();
+            return attempt;
+        }
+    },
+    /** Parks until a producer unparks it; the cheapest when idle, at the cost of an unpark after quiet periods. */
+    BLOCKING {
+        @Override
+        int idle(int attempt) {
+            if (attempt < SPINS) {
+                Thread.onSpinWait();
+                return attempt + 1;
+            }
+            // Re-checks the queue at least this often in case a wake-up was missed.
+            LockSupport.parkNanos(MAX_PARK_NANOS);
+            return attempt;
+        }
+
+        @Override
+        boolean signalled() {
+            return true;
+        }
+    };
+
+    static final int SPINS = 100;
+    static final int YIELDS = 100;
+    static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * Waits once.
+     *
+     * @param attempt number of consecutive empty polls so far, starting at 0
+     * @return the value to pass on the next empty poll
+     */
+    abstract int idle(int attempt);
+
+    /** @return whether producers have to unpark a waiting consumer */
+    boolean signalled() {
+        return false;
+    }
+
+    /**
+     * @param name strategy name, case-insensitive, {@code -} and {@code _} interchangeable
+     * @return the strategy
+     * @throws IllegalArgumentException for an unknown name
+     */
+    public static WaitStrategy parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
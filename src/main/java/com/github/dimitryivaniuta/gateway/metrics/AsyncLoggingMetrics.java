@@ -0,0 +1,65 @@
+package com.github.dimitryivaniuta.gateway.metrics;
+
+import ch.qos.logback.classic.Level;
+import com.github.dimitryivaniuta.gateway.logging.AsyncAppenderStats;
+import com.github.dimitryivaniuta.gateway.logging.RingBufferAsyncAppender;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Exposes the queues of {@link RingBufferAsyncAppender}s as Micrometer gauges, tagged with the appender name.
+ *
+ * <p>Logback is configured before the application context, so every appender declared in
+ * {@code logback-spring.xml} is known by the time the registry is customized. A rising
+ * {@code logging.async.dropped.total} means the consumer cannot keep up with the request threads, and
+ * {@code logging.async.dropped.level.total} tells whether warnings and errors were among the losses;
+ * {@code logging.async.shed.total} (tagged {@code level}) counts the lower-level events given up first to keep
+ * room for warnings and errors, and {@code logging.async.adaptive.*} shows when noisy loggers were throttled.</p>
+ */
+@Configuration
+public class AsyncLoggingMetrics {
+
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> asyncLoggingMeters() {
+        return registry -> {
+            for (AsyncAppenderStats stats : AsyncAppenderStats.all()) {
+                String appender = stats.appender();
+                Gauge.builder("logging.async.queue.depth", stats, AsyncAppenderStats::queueDepth)
+                        .tag("appender", appender).register(registry);
+                Gauge.builder("logging.async.queue.capacity", stats, AsyncAppenderStats::queueCapacity)
+                        .tag("appender", appender).register(registry);
+                Gauge.builder("logging.async.events.total", stats, AsyncAppenderStats::enqueued)
+                        .tag("appender", appender).register(registry);
+                Gauge.builder("logging.async.dropped.total", stats, AsyncAppenderStats::dropped)
+                        .tag("appender", appender).register(registry);
+                Gauge.builder("logging.async.spilled.total", stats, AsyncAppenderStats::spilled)
+                        .tag("appender", appender).register(registry);
+                Gauge.builder("logging.async.replayed.total", stats, AsyncAppenderStats::replayed)
+                        .tag("appender", appender).register(registry);
+                Gauge.builder("logging.async.spill.bytes", stats, AsyncAppenderStats::spillBytes)
+                        .tag("appender", appender).register(registry);
+                for (Level level : new Level[] {Level.TRACE, Level.DEBUG, Level.INFO}) {
+                    Gauge.builder("logging.async.shed.total", stats, s -> s.shed(level))
+                            .tag("appender", appender).tag("level", level.toString()).register(registry);
+                }
+                for (Level level : new Level[] {Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR}) {
+                    Gauge.builder("logging.async.dropped.level.total", stats, s -> s.dropped(level))
+                            .tag("appender", appender).tag("level", level.toString()).register(registry);
+                }
+                Gauge.builder("logging.async.adaptive.active", stats, s -> s.adaptiveActive() ? 1 : 0)
+                        .tag("appender", appender).register(registry);
+                Gauge.builder("logging.async.adaptive.raises.total", stats, AsyncAppenderStats::adaptiveRaises)
+                        .tag("appender", appender).register(registry);
+                Gauge.builder("logging.async.adaptive.suppressed.total", stats, AsyncAppenderStats::suppressed)
+                        .tag("appender", appender).register(registry);
+                Gauge.builder("logging.async.batches.total", stats, AsyncAppenderStats::batches)
+                        .tag("appender", appender).register(registry);
+                Gauge.builder("logging.async.batch.size.mean", stats, AsyncAppenderStats::meanBatchSize)
+                        .tag("appender", appender).register(registry);
+            }
+        };
+    }
+}
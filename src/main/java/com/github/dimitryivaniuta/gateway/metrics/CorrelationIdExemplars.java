@@ -0,0 +1,64 @@
+package com.github.dimitryivaniuta.gateway.metrics;
+
+import com.github.dimitryivaniuta.gateway.http.CorrelationIdFilter;
+import io.prometheus.metrics.tracer.common.SpanContext;
+import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Attaches the request's correlation id as an exemplar to the Prometheus histograms recorded on its thread, such
+ * as the {@code http.access} timer of {@code RequestLoggingFilter}.
+ *
+ * <p>Spring Boot hands a {@link SpanContext} bean to the Prometheus registry. Without a tracer there is no trace
+ * id, so the correlation id from the MDC stands in for both {@code trace_id} and {@code span_id}: a p99 bucket
+ * then links to the log lines of one of its requests. Exemplars are only exposed in the OpenMetrics format.</p>
+ *
+ * <p>The bean is only defined while micrometer-tracing is absent: user configuration is processed before
+ * auto-configuration, so a missing-bean condition here would make Boot's tracer-backed {@link SpanContext} back off
+ * instead, and real trace ids would be replaced by the correlation id.</p>
+ */
+@Configuration
+public class CorrelationIdExemplars {
+
+    /**
+     * Longest id exposed as an exemplar: it goes into both labels, and OpenMetrics caps the label names and values
+     * of an exemplar at 128 characters together.
+     */
+    static final int MAX_EXEMPLAR_ID_LENGTH = (128 - "trace_id".length() - "span_id".length()) / 2;
+
+    @Bean
+    @ConditionalOnMissingClass("io.micrometer.tracing.Tracer")
+    public SpanContext correlationIdSpanContext() {
+        return new CorrelationIdSpanContext();
+    }
+
+    /**
+     * Reads the correlation id that {@link CorrelationIdFilter} put in the MDC of the current thread. Longer ids than
+     * {@link #MAX_EXEMPLAR_ID_LENGTH}, which only clients send, are not sampled.
+     */
+    public static final class CorrelationIdSpanContext implements SpanContext {
+
+        @Override
+        public String getCurrentTraceId() {
+            return MDC.get(CorrelationIdFilter.MDC_KEY);
+        }
+
+        @Override
+        public String getCurrentSpanId() {
+            return MDC.get(CorrelationIdFilter.MDC_KEY);
+        }
+
+        @Override
+        public boolean isCurrentSpanSampled() {
+            String id = MDC.get(CorrelationIdFilter.MDC_KEY);
+            return id != null && id.length() <= MAX_EXEMPLAR_ID_LENGTH;
+        }
+
+        @Override
+        public void markCurrentSpanAsExemplar() {
+            // Nothing to mark: the id is not a sampled trace.
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.dimitryivaniuta.gateway.metrics;
+
+import com.github.dimitryivaniuta.gateway.config.LoggingProperties;
+import com.github.dimitryivaniuta.gateway.logging.RedactionEngine;
+import com.github.dimitryivaniuta.gateway.logging.RedactionObserver;
+import com.github.dimitryivaniuta.gateway.logging.RedactionSite;
+import com.github.dimitryivaniuta.gateway.logging.RedactionTelemetry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer-backed {@link RedactionObserver}.
+ *
+ * <p>Meters:</p>
+ * <ul>
+ *   <li>{@code pii.redaction.time{site}} — sampled call-site latency (message, throwable, mdc)</li>
+ *   <li>{@code pii.redaction.active.scan.time{rule}} — sampled scan time of lines where the rule was active: the
+ *       whole line's scan is recorded once for every rule that passed the prefilter, so it is not the rule's own
+ *       cost</li>
+ *   <li>{@code pii.redaction.input.length{site}} — sampled input length in characters</li>
+ *   <li>{@code pii.redaction.hits{rule,site,logger}} — logging calls in which the rule masked something (exact)</li>
+ * </ul>
+ *
+ * <p>Timer and summary counts only cover sampled calls; divide by the sample rate to estimate call volume.
+ * Logger names beyond {@code maxLoggerTags} are reported as {@code other} to bound tag cardinality.</p>
+ */
+public class MicrometerRedactionObserver implements RedactionObserver, AutoCloseable {
+
+    static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    /** Sample one call in {@code samplePeriod}; {@code 0} disables sampling. */
+    private final int samplePeriod;
+    private final int maxLoggerTags;
+    private final Timer[] siteTimers;
+    private final DistributionSummary[] lengths;
+    private final Map<String, Timer> ruleTimers = new ConcurrentHashMap<>();
+    /** Hit counters by logger tag, then rule name, then site ordinal. */
+    private final Map<String, Map<String, Counter[]>> hits = new ConcurrentHashMap<>();
+    private final Set<String> loggers = ConcurrentHashMap.newKeySet();
+
+    public MicrometerRedactionObserver(MeterRegistry registry, LoggingProperties.Metrics cfg) {
+        this.registry = registry;
+        double rate = cfg == null || cfg.sampleRate() == null ? 0.01 : cfg.sampleRate();
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("app.logging.redaction.metrics.sample-rate must be within [0, 1], got " + rate);
+        }
+        this.samplePeriod = rate == 0 ? 0 : (int) Math.max(1, Math.round(1 / rate));
+        this.maxLoggerTags = cfg == null || cfg.maxLoggerTags() == null ? 100 : cfg.maxLoggerTags();
+
+        RedactionSite[] sites = RedactionSite.values();
+        this.siteTimers = new Timer[sites.length];
+        this.lengths = new DistributionSummary[sites.length];
+        for (RedactionSite site : sites) {
+            siteTimers[site.ordinal()] = Timer.builder("pii.redaction.time")
+                    .description("Sampled time spent redacting per logging call site")
+                    .tag("site", site.tag())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+            lengths[site.ordinal()] = DistributionSummary.builder("pii.redaction.input.length")
+                    .description("Sampled length of text handed to the redactor")
+                    .baseUnit("chars")
+                    .tag("site", site.tag())
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public boolean sample() {
+        return samplePeriod != 0 && (samplePeriod == 1 || ThreadLocalRandom.current().nextInt(samplePeriod) == 0);
+    }
+
+    @Override
+    public void onSample(RedactionSite site, String logger, int length, long nanos, long scanNanos,
+                         RedactionEngine engine, long activeRules) {
+        siteTimers[site.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+        lengths[site.ordinal()].record(length);
+        for (long bits = activeRules; bits != 0; bits &= bits - 1) {
+            ruleTimer(engine.ruleName(Long.numberOfTrailingZeros(bits))).record(scanNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void onHits(RedactionSite site, String logger, RedactionEngine engine, long hitRules) {
+        String loggerTag = loggerTag(logger);
+        Map<String, Counter[]> byRule = hits.computeIfAbsent(loggerTag, k -> new ConcurrentHashMap<>());
+        for (long bits = hitRules; bits != 0; bits &= bits - 1) {
+            String rule = engine.ruleName(Long.numberOfTrailingZeros(bits));
+            Counter[] bySite = byRule.computeIfAbsent(rule, k -> new Counter[RedactionSite.values().length]);
+            Counter counter = bySite[site.ordinal()];
+            if (counter == null) {
+                // Racing threads register the same meter; the registry hands both the same counter.
+                counter = Counter.builder("pii.redaction.hits")
+                        .description("Logging calls in which the rule masked at least one match")
+                        .tag("rule", rule)
+                        .tag("site", site.tag())
+                        .tag("logger", loggerTag)
+                        .register(registry);
+                bySite[site.ordinal()] = counter;
+            }
+            counter.increment();
+        }
+    }
+
+    private Timer ruleTimer(String rule) {
+        return ruleTimers.computeIfAbsent(rule, r -> Timer.builder("pii.redaction.active.scan.time")
+                .description("Sampled scan time of whole lines on which the rule was active")
+                .tag("rule", r)
+                .register(registry));
+    }
+
+    String loggerTag(String logger) {
+        if (logger == null) {
+            return OTHER;
+        }
+        if (loggers.contains(logger)) {
+            return logger;
+        }
+        if (loggers.size() < maxLoggerTags) {
+            loggers.add(logger);
+            return logger;
+        }
+        return OTHER;
+    }
+
+    /** Detaches the observer from the logging pipeline. */
+    @Override
+    public void close() {
+        RedactionTelemetry.uninstall();
+    }
+}
@@ -1,14 +1,20 @@
 package com.github.dimitryivaniuta.gateway.metrics;
 
+import com.github.dimitryivaniuta.gateway.config.LoggingProperties;
+import com.github.dimitryivaniuta.gateway.logging.RedactionTelemetry;
 import com.github.dimitryivaniuta.gateway.logging.Redactor;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * Exposes redaction counters as Micrometer gauges.
+ *
+ * <p>{@code pii.redaction.fastpath.ratio} is the share of log lines that skipped the regex engine entirely.
+ * Sampled timers and per-logger hit counters come from {@link MicrometerRedactionObserver}.</p>
  */
 @Configuration
 public class RedactionMetrics {
@@ -19,6 +25,25 @@ public class RedactionMetrics {
             Gauge.builder("pii.redactions.email.total", Redactor::emailRedactions).register(registry);
             Gauge.builder("pii.redactions.phone.total", Redactor::phoneRedactions).register(registry);
             Gauge.builder("pii.redactions.card.total", Redactor::cardRedactions).register(registry);
+            Gauge.builder("pii.redactions.secret.total", Redactor::secretRedactions).register(registry);
+            Gauge.builder("pii.redaction.lines.total", Redactor::lines).register(registry);
+            Gauge.builder("pii.redaction.fastpath.total", Redactor::fastPathLines).register(registry);
+            Gauge.builder("pii.redaction.fastpath.ratio", RedactionMetrics::fastPathRatio).register(registry);
+            Gauge.builder("pii.redaction.truncated.total", Redactor::truncatedLines).register(registry);
         };
     }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.logging.redaction.metrics", name = "enabled", matchIfMissing = true)
+    public MicrometerRedactionObserver redactionObserver(MeterRegistry registry, LoggingProperties props) {
+        MicrometerRedactionObserver observer = new MicrometerRedactionObserver(registry,
+                props.redaction() == null ? null : props.redaction().metrics());
+        RedactionTelemetry.install(observer);
+        return observer;
+    }
+
+    private static double fastPathRatio() {
+        long lines = Redactor.lines();
+        return lines == 0 ? 0.0 : (double) Redactor.fastPathLines() / lines;
+    }
 }
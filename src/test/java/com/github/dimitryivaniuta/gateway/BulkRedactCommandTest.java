@@ -0,0 +1,58 @@
+package com.github.dimitryivaniuta.gateway;
+
+import com.github.dimitryivaniuta.gateway.logging.Redactor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for BulkRedactCommand.
+ */
+class BulkRedactCommandTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void redactsLinesInOrderAcrossManySmallChunks() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            lines.add(switch (i % 4) {
+                case 0 -> "{\"seq\":" + i + ",\"msg\":\"login user=john.doe@example.com\"}";
+                case 1 -> "{\"seq\":" + i + ",\"msg\":\"card 4111 1111 1111 1111 zażółć\"}";
+                case 2 -> "";
+                default -> "{\"seq\":" + i + ",\"msg\":\"ok\"}";
+            });
+        }
+        Path in = dir.resolve("app.log");
+        Path out = dir.resolve("app.redacted.log");
+        Files.writeString(in, String.join("\n", lines), StandardCharsets.UTF_8);
+
+        BulkRedactCommand.Report report = BulkRedactCommand.run(new BulkRedactCommand.Options(in, out, 4, 4096));
+
+        List<String> expected = lines.stream().map(l -> l.isBlank() ? l : Redactor.redact(l)).toList();
+        assertThat(Files.readString(out, StandardCharsets.UTF_8)).isEqualTo(String.join("\n", expected));
+        assertThat(report.lines()).isEqualTo(5_000);
+        assertThat(report.redactedLines()).isEqualTo(2_500);
+        assertThat(report.chunks()).isGreaterThan(10);
+    }
+
+    @Test
+    void emptyInputGivesEmptyOutput() throws IOException {
+        Path in = Files.createFile(dir.resolve("empty.log"));
+        Path out = dir.resolve("out.log");
+
+        BulkRedactCommand.Report report = BulkRedactCommand.run(new BulkRedactCommand.Options(in, out, 2, 1024));
+
+        assertThat(Files.size(out)).isZero();
+        assertThat(report.lines()).isZero();
+    }
+}
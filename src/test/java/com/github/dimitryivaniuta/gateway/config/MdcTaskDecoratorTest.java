@@ -0,0 +1,78 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for carrying the MDC across thread hops with MdcTaskDecorator.
+ */
+class MdcTaskDecoratorTest {
+
+    private final MdcTaskDecorator decorator = new MdcTaskDecorator();
+
+    @AfterEach
+    void clearMdc() {
+        MDC.clear();
+    }
+
+    @Test
+    void runsVirtualThreadTasksWithTheSubmittersMdc() throws Exception {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor();
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(decorator);
+        MDC.put("correlationId", "cid-1");
+
+        CompletableFuture<String> seen = new CompletableFuture<>();
+        executor.execute(() -> seen.complete(
+                Thread.currentThread().isVirtual() + " " + MDC.get("correlationId")));
+
+        assertThat(seen.get()).isEqualTo("true cid-1");
+    }
+
+    @Test
+    void takesTheSnapshotAtSubmitAndRestoresTheWorkersMdc() {
+        MDC.put("correlationId", "cid-1");
+        MDC.put("tenant", "t1");
+        AtomicReference<Map<String, String>> seen = new AtomicReference<>();
+        Runnable task = decorator.decorate(() -> {
+            seen.set(MDC.getCopyOfContextMap());
+            MDC.put("tenant", "changed-by-task");
+        });
+        MDC.put("correlationId", "cid-2");
+
+        // Run on "another" thread: same thread, different MDC.
+        Map<String, String> submitter = MDC.getCopyOfContextMap();
+        MDC.setContextMap(Map.of("worker", "w"));
+        task.run();
+
+        assertThat(seen.get()).containsExactlyInAnyOrderEntriesOf(Map.of("correlationId", "cid-1", "tenant", "t1"));
+        assertThat(MDC.getCopyOfContextMap()).containsExactlyEntriesOf(Map.of("worker", "w"));
+        assertThat(submitter).containsEntry("correlationId", "cid-2").containsEntry("tenant", "t1");
+    }
+
+    @Test
+    void clearsTheMdcOfWorkersThatHadNone() {
+        MDC.put("correlationId", "cid-1");
+        Runnable task = decorator.decorate(() -> assertThat(MDC.get("correlationId")).isEqualTo("cid-1"));
+        MDC.clear();
+
+        task.run();
+
+        assertThat(MDC.getCopyOfContextMap()).isNullOrEmpty();
+    }
+
+    @Test
+    void leavesTasksSubmittedWithoutMdcAlone() {
+        Runnable task = () -> { };
+
+        assertThat(decorator.decorate(task)).isSameAs(task);
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.dimitryivaniuta.gateway.config;
+
+import com.github.dimitryivaniuta.gateway.logging.PatternRule;
+import com.github.dimitryivaniuta.gateway.logging.RedactionEngine;
+import com.github.dimitryivaniuta.gateway.logging.RedactionLimits;
+import com.github.dimitryivaniuta.gateway.logging.RedactionRule;
+import com.github.dimitryivaniuta.gateway.logging.Redactor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for merging built-in, bean and configured redaction rules, and for reloading the rules file.
+ */
+class RedactionRuleRegistryTest {
+
+    @Test
+    void configuredRulesAppendOverrideAndDisable() {
+        LoggingProperties.Redaction cfg = new LoggingProperties.Redaction(List.of(
+                new LoggingProperties.Rule("phone", null, null, null, null, null, false, null),
+                new LoggingProperties.Rule("card", "\\d{16}", "#CARD#", null, 16, null, null, null),
+                new LoggingProperties.Rule("iban", "[A-Z]{2}\\d{2}[A-Z0-9]{12,30}", null, "ABCDEFGHIJKLMNOPQRSTUVWXYZ", null, 4, null, true)), null, null, null, null);
+        RedactionRule bean = new PatternRule("ssn", "\\d{3}-\\d{2}-\\d{4}", null, "-", 9, 0);
+
+        List<RedactionRule> rules = RedactionRuleRegistry.rules(cfg, List.of(bean));
+
+        assertThat(rules).extracting(RedactionRule::name).containsExactly("email", "card", "secret", "ssn", "iban");
+        assertThat(rules.get(1)).isInstanceOf(PatternRule.class);
+    }
+
+    @Test
+    void ruleWithoutPatternMustReferToExistingRule() {
+        LoggingProperties.Redaction cfg = new LoggingProperties.Redaction(List.of(
+                new LoggingProperties.Rule("iban", null, null, null, null, null, null, null)), null, null, null, null);
+
+        assertThatThrownBy(() -> RedactionRuleRegistry.rules(cfg, List.of()))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("iban");
+    }
+
+    @Test
+    void limitsFallBackToDefaultsPerField() {
+        LoggingProperties.Redaction cfg = new LoggingProperties.Redaction(null, null,
+                new LoggingProperties.Limits(1024, null, Duration.ZERO), null, null);
+
+        RedactionLimits limits = RedactionRuleRegistry.limits(cfg);
+
+        assertThat(limits).isEqualTo(new RedactionLimits(1024, RedactionLimits.DEFAULTS.chunkSize(), 0));
+        assertThat(RedactionRuleRegistry.limits(null)).isEqualTo(RedactionLimits.DEFAULTS);
+    }
+
+    @Test
+    void rebuildsTheRulesWhenTheRulesFileChanges(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("redaction-rules.yml");
+        Files.writeString(file, rulesFile("order", "ORD-\\\\d{5}", "***ORDER***"));
+        MockEnvironment environment = new MockEnvironment();
+        LoggingProperties props = new LoggingProperties(null, new LoggingProperties.Redaction(null, null, null,
+                file, Duration.ofMillis(20)), null);
+        RedactionRuleRegistry registry = new RedactionRuleRegistry(props, environment,
+                new StaticListableBeanFactory().getBeanProvider(RedactionRule.class));
+        RedactionEngine previous = Redactor.engine();
+        try {
+            registry.afterPropertiesSet();
+            assertThat(Redactor.redact("shipped ORD-12345")).isEqualTo("shipped ***ORDER***");
+
+            Files.writeString(file, rulesFile("order", "ORD-\\\\d{5}", "***ORDER-ID***"));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 60_000));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!Redactor.redact("shipped ORD-12345").equals("shipped ***ORDER-ID***")
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(Redactor.redact("shipped ORD-12345")).isEqualTo("shipped ***ORDER-ID***");
+
+            // A broken file keeps the rules that were last valid.
+            Files.writeString(file, rulesFile("order", "ORD-(", "x"));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 120_000));
+            Thread.sleep(200);
+            assertThat(Redactor.redact("shipped ORD-12345")).isEqualTo("shipped ***ORDER-ID***");
+        } finally {
+            registry.destroy();
+            Redactor.install(previous);
+        }
+    }
+
+    private static String rulesFile(String name, String pattern, String replacement) {
+        return """
+                app:
+                  logging:
+                    redaction:
+                      rules:
+                        - name: %s
+                          pattern: "%s"
+                          replacement: "%s"
+                """.formatted(name, pattern, replacement);
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.dimitryivaniuta.gateway.http;
+
+import com.github.dimitryivaniuta.gateway.config.LoggingProperties;
+import com.github.dimitryivaniuta.gateway.logging.Redactor;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for CorrelationIdFilter and UlidGenerator.
+ */
+class CorrelationIdFilterTest {
+
+    private static final String ULID = "[0-9A-HJKMNP-TV-Z]{10}-[0-9A-HJKMNP-TV-Z]{16}";
+
+    private static CorrelationIdFilter filter(CorrelationIdGenerator generator) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        if (generator != null) {
+            beans.addBean("generator", generator);
+        }
+        return new CorrelationIdFilter(new LoggingProperties(null, null, null),
+                beans.getBeanProvider(CorrelationIdGenerator.class));
+    }
+
+    private static String[] call(CorrelationIdFilter filter, String header) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/a");
+        if (header != null) {
+            request.addHeader("X-Correlation-Id", header);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String[] inChain = new String[1];
+        filter.doFilter(request, response, (req, res) -> inChain[0] = MDC.get(CorrelationIdFilter.MDC_KEY));
+        assertThat(MDC.get(CorrelationIdFilter.MDC_KEY)).isNull();
+        return new String[] {inChain[0], response.getHeader("X-Correlation-Id")};
+    }
+
+    @Test
+    void keepsWellFormedIdsAndReplacesTheRest() throws Exception {
+        CorrelationIdFilter filter = filter(null);
+        assertThat(call(filter, "req-42:a.b_C")).containsExactly("req-42:a.b_C", "req-42:a.b_C");
+
+        String tooLong = "x".repeat(CorrelationIdFilter.MAX_LENGTH + 1);
+        for (String bad : new String[] {null, "", " ", tooLong, "abc\r\nforged=1", "a\"b", "jane@example.com",
+                "4111111111111111"}) {
+            String[] ids = call(filter, bad);
+            assertThat(ids[0]).as("%s", bad).matches(ULID).isEqualTo(ids[1]);
+        }
+        assertThat(call(filter, "x".repeat(CorrelationIdFilter.MAX_LENGTH))[0]).hasSize(64);
+    }
+
+    @Test
+    void usesTheGeneratorBeanWhenThereIsOne() throws Exception {
+        assertThat(call(filter(() -> "fixed"), null)).containsExactly("fixed", "fixed");
+        assertThat(call(filter(CorrelationIdGenerator.RANDOM_UUID), null)[0])
+                .matches("[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[0-9a-f]{4}-[0-9a-f]{12}");
+    }
+
+    @Test
+    void ulidsEncodeTheTimestampAndEntropy() {
+        assertThat(UlidGenerator.encode(0, 0, 0)).isEqualTo("0000000000-0000000000000000");
+        assertThat(UlidGenerator.encode((1L << 48) - 1, 0xFFFF, -1)).isEqualTo("7ZZZZZZZZZ-ZZZZZZZZZZZZZZZZ");
+        // Example from the ULID specification: 1469918176385 ms.
+        assertThat(UlidGenerator.encode(1469918176385L, 0, 0)).startsWith("01ARYZ6S41-");
+        assertThat(UlidGenerator.encode(0, 1, 0)).isEqualTo("0000000000-000G000000000000");
+        assertThat(UlidGenerator.encode(0, 0, 1L << 60)).isEqualTo("0000000000-0001000000000000");
+
+        long before = System.currentTimeMillis();
+        String id = new UlidGenerator().next();
+        assertThat(id).matches(ULID);
+        assertThat(UlidGenerator.encode(before, 0, 0).substring(0, 10)).isLessThanOrEqualTo(id.substring(0, 10));
+    }
+
+    @Test
+    void generatedIdsPassTheRedactionRulesAndTheFilterKeepsThem() throws Exception {
+        UlidGenerator generator = new UlidGenerator();
+        // About 0.2% of the raw ids have a run of 7+ digits, so the loop also goes through the skipping.
+        for (int i = 0; i < 100_000; i++) {
+            String id = generator.next();
+            assertThat(Redactor.redact(id)).isSameAs(id);
+            assertThat(Redactor.redact("request " + id + " done")).isEqualTo("request " + id + " done");
+        }
+
+        CorrelationIdFilter filter = filter(null);
+        String issued = call(filter, null)[1];
+        assertThat(call(filter, issued)).containsExactly(issued, issued);
+    }
+
+    @Test
+    void skipsIdsWithPhoneLikeDigitRuns() {
+        assertThat(UlidGenerator.endOfDigitRun(bytes("01ARYZ6S41-TSV4RRFFQ69G5FAV"))).isEqualTo(-1);
+        assertThat(UlidGenerator.endOfDigitRun(bytes("01ARYZ6S41-23456ABCDEFGHJKM"))).isEqualTo(15);
+        assertThat(UlidGenerator.endOfDigitRun(bytes("01AR123456-ABCDEFGHJKMNPQRS"))).isEqualTo(-1);
+        assertThat(UlidGenerator.endOfDigitRun(bytes("01AR123456-7ABCDEFGHJKMNPQR"))).isEqualTo(11);
+        assertThat(UlidGenerator.endOfDigitRun(bytes("01A1234567-ABCDEFGHJKMNPQRS"))).isEqualTo(9);
+        assertThat(UlidGenerator.endOfDigitRun(bytes("01ARYZ6S41-ABCDEFGHJ1234567"))).isEqualTo(26);
+    }
+
+    private static byte[] bytes(String id) {
+        return id.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void ulidsIncreasePerThreadAndAreUniqueAcrossThreads() throws Exception {
+        UlidGenerator generator = new UlidGenerator();
+        Set<String> all = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        List<AssertionError> failures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                String previous = "";
+                for (int i = 0; i < 20_000; i++) {
+                    String id = generator.next();
+                    if (id.compareTo(previous) <= 0) {
+                        synchronized (failures) {
+                            failures.add(new AssertionError(id + " after " + previous));
+                        }
+                        return;
+                    }
+                    previous = id;
+                    all.add(id);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertThat(failures).isEmpty();
+        assertThat(all).hasSize(8 * 20_000);
+    }
+}
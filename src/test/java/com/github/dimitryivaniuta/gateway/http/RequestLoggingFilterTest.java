@@ -0,0 +1,217 @@
+package com.github.dimitryivaniuta.gateway.http;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.github.dimitryivaniuta.gateway.config.LoggingProperties;
+import com.github.dimitryivaniuta.gateway.metrics.CorrelationIdExemplars;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for RequestLoggingFilter, AccessLogAggregator and the correlation id exemplars.
+ */
+class RequestLoggingFilterTest {
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger(RequestLoggingFilter.class);
+    private final Logger summaryLogger = (Logger) LoggerFactory.getLogger(AccessLogAggregator.class);
+    private final ListAppender<ILoggingEvent> access = new ListAppender<>();
+    private final ListAppender<ILoggingEvent> summaries = new ListAppender<>();
+
+    @BeforeEach
+    void attach() {
+        access.start();
+        summaries.start();
+        accessLogger.addAppender(access);
+        summaryLogger.addAppender(summaries);
+    }
+
+    @AfterEach
+    void detach() {
+        accessLogger.detachAppender(access);
+        summaryLogger.detachAppender(summaries);
+    }
+
+    private static RequestLoggingFilter filter(Double sampleRate, Map<String, Double> routes, Duration slow,
+                                               Duration summaryInterval) {
+        return new RequestLoggingFilter(new LoggingProperties(null, null,
+                new LoggingProperties.Access(sampleRate, routes, slow, summaryInterval)), new SimpleMeterRegistry());
+    }
+
+    private static void call(RequestLoggingFilter filter, String method, String route, int status)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, route);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            if (route != null) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, route);
+            }
+            ((MockHttpServletResponse) res).setStatus(status);
+        };
+        filter.doFilter(request, response, chain);
+    }
+
+    @Test
+    void logsEveryRequestByDefault() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(new LoggingProperties(null, null, null),
+                new SimpleMeterRegistry());
+        call(filter, "GET", "/api/a", 200);
+        call(filter, "GET", "/api/a", 200);
+
+        assertThat(access.list).hasSize(2);
+        assertThat(access.list.get(0).getFormattedMessage())
+                .startsWith("http_access method=GET path=/api/a status=200 tookMs=")
+                .endsWith("route=/api/a sampleRate=1.0");
+    }
+
+    @Test
+    void alwaysLogsErrorsSlowRequestsAndExceptionsAtWarn() throws Exception {
+        RequestLoggingFilter filter = filter(0.0, null, Duration.ofMillis(20), null);
+        call(filter, "GET", "/api/a", 200);
+        call(filter, "GET", "/api/a", 404);
+        call(filter, "GET", "/api/a", 503);
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/slow"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    try {
+                        Thread.sleep(30);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+        assertThatThrownBy(() -> filter.doFilter(new MockHttpServletRequest("GET", "/api/boom"),
+                new MockHttpServletResponse(), (req, res) -> {
+                    throw new IllegalStateException("boom");
+                })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(access.list).extracting(ILoggingEvent::getLevel).containsOnly(Level.WARN);
+        assertThat(access.list).extracting(ILoggingEvent::getFormattedMessage).satisfiesExactly(
+                m -> assertThat(m).contains("status=503").endsWith("reason=error"),
+                m -> assertThat(m).contains("path=/api/slow", "route=unmatched").endsWith("reason=slow"),
+                m -> assertThat(m).contains("path=/api/boom", "status=500").endsWith("reason=exception"));
+    }
+
+    @Test
+    void samplesPerRoute() throws Exception {
+        RequestLoggingFilter filter = filter(0.0, Map.of("/api/kept", 1.0, "/api/some", 0.5), null, null);
+        for (int i = 0; i < 1_000; i++) {
+            call(filter, "GET", "/api/dropped", 200);
+            call(filter, "GET", "/api/kept", 200);
+            call(filter, "GET", "/api/some", 200);
+        }
+
+        Map<String, Long> byRoute = access.list.stream().map(ILoggingEvent::getFormattedMessage)
+                .collect(Collectors.groupingBy(m -> m.substring(m.indexOf("route=")),
+                        Collectors.counting()));
+        assertThat(byRoute).doesNotContainKey("route=/api/dropped sampleRate=0.0");
+        assertThat(byRoute).containsEntry("route=/api/kept sampleRate=1.0", 1_000L);
+        assertThat(byRoute.get("route=/api/some sampleRate=0.5")).isBetween(350L, 650L);
+    }
+
+    @Test
+    void recordsRouteTimersWithTheCorrelationIdAsExemplar() throws Exception {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT,
+                new PrometheusRegistry(), Clock.SYSTEM, new CorrelationIdExemplars.CorrelationIdSpanContext());
+        RequestLoggingFilter filter = new RequestLoggingFilter(new LoggingProperties(null, null,
+                new LoggingProperties.Access(0.0, null, null, null)), registry);
+        MDC.put(CorrelationIdFilter.MDC_KEY, "cid-42");
+        try {
+            call(filter, "GET", "/api/items/{id}", 200);
+            call(filter, "GET", "/api/items/{id}", 200);
+        } finally {
+            MDC.remove(CorrelationIdFilter.MDC_KEY);
+        }
+        call(filter, "POST", null, 404);
+        call(filter, "FOO", null, 405);
+        call(filter, "BAR", null, 405);
+
+        Timer timer = registry.get("http.access")
+                .tags("method", "GET", "route", "/api/items/{id}", "status", "200").timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(registry.get("http.access").tags("route", "unmatched", "status", "404").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("http.access").tags("method", "UNKNOWN").timer().count()).isEqualTo(2);
+        assertThat(registry.find("http.access").tags("method", "FOO").timer()).isNull();
+        String scrape = registry.scrape("application/openmetrics-text");
+        assertThat(scrape).contains("http_access_seconds_bucket{").contains("trace_id=\"cid-42\"");
+    }
+
+    @Test
+    void skipsCorrelationIdsTooLongForAnExemplar() throws Exception {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT,
+                new PrometheusRegistry(), Clock.SYSTEM, new CorrelationIdExemplars.CorrelationIdSpanContext());
+        RequestLoggingFilter filter = new RequestLoggingFilter(new LoggingProperties(null, null,
+                new LoggingProperties.Access(0.0, null, null, null)), registry);
+        String longest = "a".repeat(56);
+        MDC.put(CorrelationIdFilter.MDC_KEY, "b".repeat(64));
+        try {
+            call(filter, "GET", "/api/long", 200);
+            MDC.put(CorrelationIdFilter.MDC_KEY, longest);
+            call(filter, "GET", "/api/longest", 200);
+        } finally {
+            MDC.remove(CorrelationIdFilter.MDC_KEY);
+        }
+
+        String scrape = registry.scrape("application/openmetrics-text");
+        assertThat(scrape).doesNotContain("b".repeat(64)).contains("trace_id=\"" + longest + "\"");
+    }
+
+    @Test
+    void summarizesEachRouteOncePerInterval() {
+        AccessLogAggregator aggregator = new AccessLogAggregator(Duration.ofHours(1));
+        for (int i = 0; i < 100; i++) {
+            aggregator.record("GET", "/api/a", i < 90 ? 200 : 503, (i + 1) * 1_000_000L);
+        }
+        aggregator.record("POST", "/api/b", 201, 5_000_000L);
+        aggregator.report();
+        aggregator.report();
+        aggregator.record("POST", "/api/b", 400, 5_000_000L);
+        aggregator.close();
+
+        List<String> lines = summaries.list.stream().map(ILoggingEvent::getFormattedMessage).sorted().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).startsWith(
+                "http_access_summary method=GET route=/api/a count=100 1xx=0 2xx=90 3xx=0 4xx=0 5xx=10 ");
+        // HdrHistogram keeps two significant digits: values are within 1%.
+        assertThat(field(lines.get(0), "p50Ms")).isCloseTo(50.0, within(0.5));
+        assertThat(field(lines.get(0), "p99Ms")).isCloseTo(99.0, within(1.0));
+        assertThat(field(lines.get(0), "maxMs")).isCloseTo(100.0, within(1.0));
+        assertThat(lines.get(0)).endsWith("intervalS=3600");
+        assertThat(lines.get(1)).startsWith(
+                "http_access_summary method=POST route=/api/b count=1 1xx=0 2xx=0 3xx=0 4xx=1 5xx=0 ");
+        assertThat(lines.get(2)).startsWith(
+                "http_access_summary method=POST route=/api/b count=1 1xx=0 2xx=1 3xx=0 4xx=0 5xx=0 ");
+    }
+
+    private static double field(String line, String name) {
+        Matcher m = Pattern.compile(name + "=([0-9.]+)").matcher(line);
+        assertThat(m.find()).isTrue();
+        return Double.parseDouble(m.group(1));
+    }
+}
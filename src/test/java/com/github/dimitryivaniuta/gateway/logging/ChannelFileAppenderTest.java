@@ -0,0 +1,176 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ChannelFileAppender.
+ */
+class ChannelFileAppenderTest {
+
+    private static final class LineEncoder extends EncoderBase<ILoggingEvent> {
+        @Override
+        public byte[] headerBytes() {
+            return null;
+        }
+
+        @Override
+        public byte[] encode(ILoggingEvent event) {
+            return (Redactor.redact(event.getFormattedMessage()) + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] footerBytes() {
+            return null;
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    private final LoggerContext context = new LoggerContext();
+
+    private LoggingEvent event(String message) {
+        LoggingEvent e = new LoggingEvent(ChannelFileAppenderTest.class.getName(), context.getLogger("test"),
+                Level.INFO, message, null, null);
+        e.setMDCPropertyMap(Map.of());
+        return e;
+    }
+
+    private ChannelFileAppender file(String name) {
+        LineEncoder encoder = new LineEncoder();
+        encoder.setContext(context);
+        encoder.start();
+        ChannelFileAppender appender = new ChannelFileAppender();
+        appender.setContext(context);
+        appender.setName(name);
+        appender.setFile(dir.resolve(name + ".log").toString());
+        appender.setEncoder(encoder);
+        return appender;
+    }
+
+    private RingBufferAsyncAppender async(ChannelFileAppender file) {
+        RingBufferAsyncAppender async = new RingBufferAsyncAppender();
+        async.setContext(context);
+        async.setName("async-" + file.getName());
+        async.addAppender(file);
+        async.start();
+        return async;
+    }
+
+    /** {@code n} of {@code name-yyyyMMdd-HHmmss.n.log.gz}; {@code 0} for the first segment of a second. */
+    private static int collisionIndex(Path archive) {
+        String[] parts = archive.getFileName().toString().split("\\.");
+        return parts.length > 3 ? Integer.parseInt(parts[1]) : 0;
+    }
+
+    /** Lines of every segment, archives first (oldest first), then the active file. */
+    private List<String> allLines(String name) throws IOException {
+        List<Path> archives;
+        try (Stream<Path> files = Files.list(dir)) {
+            archives = files.filter(p -> p.getFileName().toString().startsWith(name + "-"))
+                    .sorted(Comparator.comparing((Path p) -> p.getFileName().toString().substring(0, name.length() + 16))
+                            .thenComparingInt(ChannelFileAppenderTest::collisionIndex))
+                    .toList();
+        }
+        List<String> lines = new ArrayList<>();
+        for (Path archive : archives) {
+            assertThat(archive.getFileName().toString()).endsWith(".log.gz");
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(archive))) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                lines.addAll(text.lines().toList());
+            }
+        }
+        lines.addAll(Files.readAllLines(dir.resolve(name + ".log")));
+        return lines;
+    }
+
+    @Test
+    void writesBatchesInOrderAndRollsBySizeIntoCompressedArchives() throws IOException {
+        ChannelFileAppender file = file("size");
+        file.setMaxFileSize(new FileSize(64 * 1024));
+        file.setWriteBufferSize(4 * 1024);
+        file.setWorkers(2);
+        file.start();
+        RingBufferAsyncAppender async = async(file);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String message = "event " + i + (i % 3 == 0 ? " mail=a.b@example.com" : " plain");
+            async.doAppend(event(message));
+            expected.add(Redactor.redact(message));
+        }
+        async.stop();
+
+        assertThat(allLines("size")).containsExactlyElementsOf(expected);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.filter(p -> p.toString().endsWith(".gz")).count()).isGreaterThan(3);
+        }
+        assertThat(file.isStarted()).isFalse();
+    }
+
+    @Test
+    void keepsOnlyMaxArchives() throws IOException {
+        ChannelFileAppender file = file("pruned");
+        file.setMaxFileSize(new FileSize(1024));
+        file.setMaxArchives(2);
+        file.setSyncPerBatch(true);
+        file.start();
+        for (int i = 0; i < 2_000; i++) {
+            file.doAppend(event("event " + i));
+        }
+        file.stop();
+
+        List<String> lines = allLines("pruned");
+        assertThat(lines).endsWith("event 1999");
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.filter(p -> p.toString().endsWith(".gz")).count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void rollsWhenTheIntervalElapses() throws Exception {
+        ChannelFileAppender file = file("timed");
+        file.setRollInterval(Duration.buildByMilliseconds(200));
+        file.start();
+        file.doAppend(event("before"));
+        Thread.sleep(450);
+        file.doAppend(event("after"));
+        file.stop();
+
+        assertThat(allLines("timed")).containsExactly("before", "after");
+        assertThat(Files.readAllLines(dir.resolve("timed.log"))).containsExactly("after");
+    }
+
+    @Test
+    void appendsToAnExistingActiveFile() throws IOException {
+        Files.writeString(dir.resolve("existing.log"), "earlier\n");
+        ChannelFileAppender file = file("existing");
+        file.start();
+        file.doAppend(event("later"));
+        file.stop();
+
+        assertThat(Files.readAllLines(dir.resolve("existing.log"))).containsExactly("earlier", "later");
+    }
+}
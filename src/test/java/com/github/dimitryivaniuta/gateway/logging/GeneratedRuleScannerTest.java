@@ -0,0 +1,117 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Differential tests of the generated matchers against {@code java.util.regex}.
+ */
+class GeneratedRuleScannerTest {
+
+    private static final String ALPHABET = "0123456789 -.()+@_%aZx\t/=~";
+    private static final String[] PIECES = {
+            "a.b@example.com", "X_%+y@Sub.Example.co.UK", "4111 1111 1111 1111", "4111-1111-1111-1111-111",
+            "+48 500 600 700", "(22) 500-600-70", "123.456.7890", "1-2-3-4", "@a.b.c", "..", "@", " ", "9", "x",
+            "Bearer ", "bEaReR\t\t", "eyJhbGciOi", "eyJzdWIi.", "q7RZx2Lm9Tb4wKcY", "AKIAq7RZx2Lm9Tb4wKcY0pVn"
+    };
+
+    private static String text(Random rnd, int length) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < length) {
+            if (rnd.nextBoolean()) {
+                sb.append(PIECES[rnd.nextInt(PIECES.length)]);
+            } else {
+                sb.append(ALPHABET.charAt(rnd.nextInt(ALPHABET.length())));
+            }
+        }
+        return sb.toString();
+    }
+
+    /** Rule that hides the generated matcher and the candidate kind, so the engine runs its regex on every position. */
+    private record RegexOnly(RedactionRule rule) implements RedactionRule {
+
+        @Override
+        public String name() {
+            return rule.name();
+        }
+
+        @Override
+        public String regex() {
+            return rule.regex();
+        }
+
+        @Override
+        public String triggers() {
+            return rule.triggers();
+        }
+
+        @Override
+        public int minDigits() {
+            return rule.minDigits();
+        }
+
+        @Override
+        public boolean argumentSafe() {
+            return rule.argumentSafe();
+        }
+
+        @Override
+        public int minWordLength() {
+            return rule.minWordLength();
+        }
+
+        @Override
+        public int maxMatchLength() {
+            return rule.maxMatchLength();
+        }
+
+        @Override
+        public boolean mask(CharSequence in, int start, int end, StringBuilder out) {
+            return rule.mask(in, start, end, out);
+        }
+    }
+
+    @Test
+    void everyRuleMatchesLikeItsRegexAtEveryPosition() {
+        Random rnd = new Random(20261017L);
+        for (RedactionRule rule : BuiltinRules.defaults()) {
+            CompiledRule compiled = (CompiledRule) rule;
+            Matcher m = Pattern.compile(rule.regex()).matcher("");
+            for (int round = 0; round < 300; round++) {
+                String s = text(rnd, 200);
+                m.reset(s).useTransparentBounds(true).useAnchoringBounds(false);
+                int to = s.length() - rnd.nextInt(20);
+                for (int i = 0; i <= to; i++) {
+                    int expected = m.region(i, to).lookingAt() ? m.end() : -1;
+                    assertThat(compiled.matchAt(s, i, to)).as("%s at %d of %s", rule.name(), i, s).isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    @Test
+    void engineOutputMatchesRegexEngine() {
+        List<RedactionRule> regexOnly = BuiltinRules.defaults().stream().<RedactionRule>map(RegexOnly::new).toList();
+        RedactionLimits limits = new RedactionLimits(1 << 20, 1, 0);
+        RedactionEngine reference = RedactionEngine.compile(regexOnly, limits, null);
+        RedactionEngine generated = RedactionEngine.compile(BuiltinRules.defaults(), limits, null);
+        RedactionEngine located = RedactionEngine.compile(BuiltinRules.defaults(), limits, CandidateLocator.SCALAR);
+        Random rnd = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            String s = text(rnd, 3_000);
+            StringBuilder expected = new StringBuilder();
+            long hits = reference.scan(s, reference.activeRules(s), expected);
+            for (RedactionEngine engine : List.of(generated, located)) {
+                StringBuilder out = new StringBuilder();
+                assertThat(engine.scan(s, engine.activeRules(s), out)).isEqualTo(hits);
+                assertThat(out.toString()).isEqualTo(expected.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.encoder.EncoderBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ParallelConsoleAppender and OrderedEncodingStage.
+ */
+class ParallelConsoleAppenderTest {
+
+    /** Redacts the message like {@code %redactedMessage%n}; jitter makes workers finish out of order. */
+    private static final class RedactingLineEncoder extends EncoderBase<ILoggingEvent> {
+        private final boolean jitter;
+
+        RedactingLineEncoder(boolean jitter) {
+            this.jitter = jitter;
+        }
+
+        @Override
+        public byte[] headerBytes() {
+            return null;
+        }
+
+        @Override
+        public byte[] encode(ILoggingEvent event) {
+            if (event.getFormattedMessage().equals("boom")) {
+                throw new IllegalStateException("boom");
+            }
+            if (jitter) {
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextInt(20_000));
+            }
+            return (Redactor.redact(event.getFormattedMessage()) + "\n").getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public byte[] footerBytes() {
+            return null;
+        }
+    }
+
+    private final LoggerContext context = new LoggerContext();
+    private final ByteArrayOutputStream console = new ByteArrayOutputStream();
+    private PrintStream stdout;
+
+    @BeforeEach
+    void captureConsole() {
+        stdout = System.out;
+        System.setOut(new PrintStream(console, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void restoreConsole() {
+        System.setOut(stdout);
+    }
+
+    private LoggingEvent event(String message) {
+        LoggingEvent e = new LoggingEvent(ParallelConsoleAppenderTest.class.getName(), context.getLogger("test"),
+                Level.INFO, message, null, null);
+        e.setMDCPropertyMap(Map.of());
+        return e;
+    }
+
+    private ParallelConsoleAppender console(int workers) {
+        RedactingLineEncoder encoder = new RedactingLineEncoder(true);
+        encoder.setContext(context);
+        encoder.start();
+        ParallelConsoleAppender appender = new ParallelConsoleAppender();
+        appender.setContext(context);
+        appender.setName("CONSOLE");
+        appender.setWorkers(workers);
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    private List<String> lines() {
+        String out = console.toString(StandardCharsets.UTF_8);
+        return out.isEmpty() ? List.of() : List.of(out.split("\n"));
+    }
+
+    @Test
+    void stageKeepsEventOrderAndSkipsFailedEvents() {
+        RedactingLineEncoder encoder = new RedactingLineEncoder(true);
+        encoder.setContext(context);
+        encoder.start();
+        List<String> errors = new ArrayList<>();
+        ParallelConsoleAppender status = new ParallelConsoleAppender() {
+            @Override
+            public void addError(String msg, Throwable ex) {
+                synchronized (errors) {
+                    errors.add(msg);
+                }
+            }
+        };
+        try (OrderedEncodingStage stage = new OrderedEncodingStage(encoder, 4, "test", status)) {
+            ILoggingEvent[] events = new ILoggingEvent[200];
+            for (int i = 0; i < events.length; i++) {
+                events[i] = event(i == 77 ? "boom" : "event " + i + " mail=a.b@example.com");
+            }
+            byte[][] out = new byte[events.length][];
+            for (int round = 0; round < 5; round++) {
+                stage.encode(events, events.length, out);
+                for (int i = 0; i < events.length; i++) {
+                    if (i == 77) {
+                        assertThat(out[i]).isNull();
+                    } else {
+                        assertThat(new String(out[i], StandardCharsets.UTF_8))
+                                .isEqualTo("event " + i + " mail=a***b@example.com\n");
+                    }
+                }
+            }
+            assertThat(errors).hasSize(5);
+        }
+    }
+
+    @Test
+    void writesAsyncBatchesInProducerOrder() throws Exception {
+        ParallelConsoleAppender parallel = console(4);
+        RingBufferAsyncAppender async = new RingBufferAsyncAppender();
+        async.setContext(context);
+        async.setName("parallel-async");
+        async.setBufferSize(1024);
+        async.addAppender(parallel);
+        async.start();
+
+        int threads = 4;
+        int perThread = 2_000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    async.doAppend(event(id + ":" + i + " user" + id + "@example.com"));
+                }
+            }));
+        }
+        for (Thread p : producers) {
+            p.join();
+        }
+        async.stop();
+
+        List<String> lines = lines();
+        assertThat(lines).hasSize(threads * perThread).noneMatch(l -> l.contains(" user"));
+        Map<String, Integer> last = new HashMap<>();
+        for (String line : lines) {
+            String[] parts = line.substring(0, line.indexOf(' ')).split(":");
+            int seq = Integer.parseInt(parts[1]);
+            assertThat(seq).isEqualTo(last.getOrDefault(parts[0], -1) + 1);
+            last.put(parts[0], seq);
+        }
+        assertThat(parallel.isStarted()).isFalse();
+    }
+
+    @Test
+    void writesImmediatelyOutsideABatch() {
+        ParallelConsoleAppender appender = console(4);
+        appender.doAppend(event("sync a.b@example.com"));
+        assertThat(lines()).containsExactly("sync a***b@example.com");
+        appender.stop();
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for argument-level redaction in RedactedMessageConverter.
+ */
+class RedactedMessageConverterTest {
+
+    private final LoggerContext context = new LoggerContext();
+    private final RedactedMessageConverter converter = new RedactedMessageConverter();
+
+    private String convert(String template, Object... args) {
+        LoggingEvent e = new LoggingEvent(getClass().getName(), context.getLogger("test"), Level.INFO, template, null, args);
+        return converter.convert(e);
+    }
+
+    @Test
+    void redactsArgumentsOfSafeTemplate() {
+        String out = convert("demo_payload email={} phone={} card={} message={}",
+                "john.doe@example.com", "+48 500 600 700", "4111 1111 1111 1111", "hello");
+
+        assertThat(out).isEqualTo(
+                "demo_payload email=j***e@example.com phone=***PHONE***0700 card=**** **** **** 1111 message=hello");
+        assertThat(MessageTemplate.of("demo_payload email={} phone={} card={} message={}", Redactor.engine()).splitSafe)
+                .isTrue();
+    }
+
+    @Test
+    void leavesUuidsAndSmallNumbersUntouched() {
+        UUID id = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        assertThat(convert("audit_event_stored id={} tookMs={}", id, 12)).isEqualTo("audit_event_stored id=" + id + " tookMs=12");
+    }
+
+    @Test
+    void largeNumbersAreStillScanned() {
+        assertThat(convert("ref={}", 4111111111111111L)).isEqualTo("ref=**** **** **** 1111");
+    }
+
+    @Test
+    void fallsBackWhenPiiCouldSpanTemplateAndArgument() {
+        assertThat(MessageTemplate.of("call +48 {}", Redactor.engine()).splitSafe).isFalse();
+        assertThat(convert("call +48 {}", "500 600 700")).isEqualTo("call ***PHONE***0700");
+    }
+
+    @Test
+    void fallsBackWhenPiiCouldSpanSeveralArguments() {
+        assertThat(MessageTemplate.of("phone {} {} {}", Redactor.engine()).splitSafe).isFalse();
+        assertThat(convert("phone {} {} {}", 500, 600, 700)).isEqualTo(Redactor.redact("phone 500 600 700"))
+                .doesNotContain("500 600");
+        assertThat(convert("phone {} {}", "+48 500", "600 700")).isEqualTo("phone ***PHONE***0700");
+        assertThat(convert("card {} {}", "4111 1111", "1111 1111")).isEqualTo("card **** **** **** 1111");
+    }
+
+    @Test
+    void fallsBackWhenBearerKeywordPrecedesArgument() {
+        assertThat(MessageTemplate.of("Authorization: Bearer {}", Redactor.engine()).splitSafe).isFalse();
+        assertThat(convert("Authorization: Bearer {}", "s3cr3t-token.value")).isEqualTo("Authorization: Bearer ***");
+    }
+
+    @Test
+    void fallsBackWhenTemplateLiteralContainsPii() {
+        assertThat(convert("owner=admin@example.com user={}", "bob")).isEqualTo("owner=a***n@example.com user=bob");
+    }
+
+    @Test
+    void formatsMessagesWithoutArguments() {
+        assertThat(convert("mail a.b@example.com")).isEqualTo("mail a***b@example.com");
+    }
+}
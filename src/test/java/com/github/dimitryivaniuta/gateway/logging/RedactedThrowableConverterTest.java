@@ -0,0 +1,95 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.pattern.ThrowableProxyConverter;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RedactedThrowableConverter.
+ */
+class RedactedThrowableConverterTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    private LoggingEvent event(Throwable t) {
+        return new LoggingEvent(getClass().getName(), context.getLogger("test"), Level.ERROR, "boom", t, null);
+    }
+
+    private static RedactedThrowableConverter redacting(String... options) {
+        RedactedThrowableConverter c = new RedactedThrowableConverter();
+        if (options.length > 0) {
+            c.setOptionList(List.of(options));
+        }
+        c.start();
+        return c;
+    }
+
+    private static Throwable nested() {
+        IllegalStateException root = new IllegalStateException("card 4111 1111 1111 1111 rejected");
+        RuntimeException top = new RuntimeException("lookup failed for john.doe@example.com", root);
+        top.addSuppressed(new IllegalArgumentException("phone +48 500 600 700"));
+        return top;
+    }
+
+    @Test
+    void matchesLogbackOutputWithMessagesRedacted() {
+        Throwable t = nested();
+        ThrowableProxyConverter plain = new ThrowableProxyConverter();
+        plain.start();
+
+        String expected = plain.convert(event(t))
+                .replace("john.doe@example.com", "j***e@example.com")
+                .replace("4111 1111 1111 1111", "**** **** **** 1111")
+                .replace("+48 500 600 700", "***PHONE***0700");
+
+        assertThat(redacting().convert(event(t))).isEqualTo(expected);
+    }
+
+    @Test
+    void cachedFramesRenderIdentically() {
+        RedactedThrowableConverter converter = redacting();
+        Throwable t = nested();
+
+        String first = converter.convert(event(t));
+        assertThat(converter.convert(event(t))).isEqualTo(first);
+    }
+
+    @Test
+    void honoursLengthOption() {
+        String out = redacting("short").convert(event(new RuntimeException("x")));
+        assertThat(out.lines()).hasSize(2);
+    }
+
+    @Test
+    void collapsesRecursiveFrames() {
+        Throwable t = recurse(40);
+        String full = redacting().convert(event(t));
+        String collapsed = redacting("collapse").convert(event(t));
+
+        assertThat(collapsed).contains("repeated frames omitted");
+        assertThat(collapsed.lines().count()).isLessThan(full.lines().count() - 30);
+        assertThat(collapsed.lines().findFirst()).isEqualTo(full.lines().findFirst());
+    }
+
+    @Test
+    void collapseCyclesKeepsOneCopyOfTheCycle() {
+        String nl = System.lineSeparator();
+        String block = "\tat a" + nl + "\tat b" + nl + "\tat a" + nl + "\tat b" + nl + "\tat a" + nl + "\tat b" + nl + "\tat main" + nl;
+
+        assertThat(RedactedThrowableConverter.collapseCycles(block)).isEqualTo(
+                "\tat a" + nl + "\tat b" + nl + "\t... 4 repeated frames omitted" + nl + "\tat main" + nl);
+    }
+
+    private static Throwable recurse(int depth) {
+        if (depth == 0) {
+            return new IllegalStateException("deep");
+        }
+        return recurse(depth - 1);
+    }
+}
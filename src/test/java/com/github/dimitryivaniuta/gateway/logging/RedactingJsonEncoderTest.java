@@ -0,0 +1,188 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.joran.spi.JoranException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RedactingJsonEncoder, checked byte for byte against the composite logstash encoder it replaces.
+ */
+class RedactingJsonEncoderTest {
+
+    private static final String COMPOSITE = """
+            <configuration>
+                <conversionRule conversionWord="redactedMessage"
+                                converterClass="com.github.dimitryivaniuta.gateway.logging.RedactedMessageConverter"/>
+                <conversionRule conversionWord="redactedException"
+                                converterClass="com.github.dimitryivaniuta.gateway.logging.RedactedThrowableConverter"/>
+                <appender name="JSON" class="ch.qos.logback.core.ConsoleAppender">
+                    <encoder class="net.logstash.logback.encoder.LoggingEventCompositeJsonEncoder">
+                        <providers>
+                            <timestamp><timeZone>UTC</timeZone></timestamp>
+                            <logLevel/>
+                            <loggerName/>
+                            <threadName/>
+                            <provider class="com.github.dimitryivaniuta.gateway.logging.RedactingMdcJsonProvider">
+                                <trustedKey>correlationId</trustedKey>
+                                <redactedKey>token</redactedKey>
+                            </provider>
+                            <pattern>
+                                <pattern>{"message":"%redactedMessage","exception":"%redactedException"}</pattern>
+                            </pattern>
+                        </providers>
+                    </encoder>
+                </appender>
+                <root level="OFF">
+                    <appender-ref ref="JSON"/>
+                </root>
+            </configuration>
+            """;
+
+    private final LoggerContext context = new LoggerContext();
+    private final RedactingJsonEncoder encoder = new RedactingJsonEncoder();
+    private Encoder<ILoggingEvent> composite;
+
+    @BeforeEach
+    void setUp() throws JoranException {
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(context);
+        configurator.doConfigure(new ByteArrayInputStream(COMPOSITE.getBytes(StandardCharsets.UTF_8)));
+        composite = ((OutputStreamAppender<ILoggingEvent>) context.getLogger("ROOT").getAppender("JSON")).getEncoder();
+
+        encoder.setContext(context);
+        encoder.addTrustedKey("correlationId");
+        encoder.addRedactedKey("token");
+        encoder.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        encoder.stop();
+        context.stop();
+    }
+
+    private LoggingEvent event(Level level, String logger, String message, Throwable t, Object[] args,
+                               Map<String, String> mdc) {
+        LoggingEvent e = new LoggingEvent(getClass().getName(), context.getLogger(logger), level, message, t, args);
+        e.setMDCPropertyMap(mdc);
+        return e;
+    }
+
+    private void assertSameAsComposite(ILoggingEvent e) {
+        assertThat(new String(encoder.encode(e), StandardCharsets.UTF_8))
+                .isEqualTo(new String(composite.encode(e), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writesTheFieldsOfTheCompositeEncoder() {
+        Map<String, String> mdc = new LinkedHashMap<>();
+        mdc.put("correlationId", "01JABCDEF");
+        mdc.put("userEmail", "mdc.user@example.com");
+        mdc.put("token", "abc");
+        LoggingEvent e = event(Level.INFO, "com.example.Demo", "demo_payload email={} card={} id={} n={}", null,
+                new Object[]{"john.doe@example.com", "4111 1111 1111 1111", UUID.randomUUID(), 3}, mdc);
+        e.setThreadName("http-nio-8080-exec-1");
+        e.setInstant(Instant.parse("2026-01-01T10:00:00.120Z"));
+
+        String json = new String(encoder.encode(e), StandardCharsets.UTF_8);
+
+        assertThat(json).startsWith("{\"@timestamp\":\"2026-01-01T10:00:00.12Z\",\"level\":\"INFO\","
+                        + "\"logger_name\":\"com.example.Demo\",\"thread_name\":\"http-nio-8080-exec-1\","
+                        + "\"correlationId\":\"01JABCDEF\",\"userEmail\":\"m***r@example.com\","
+                        + "\"token\":\"***REDACTED***\",\"message\":\"demo_payload email=j***e@example.com ")
+                .doesNotContain("4111 1111 1111 1111")
+                .endsWith(",\"exception\":\"\"}" + System.lineSeparator());
+        assertSameAsComposite(e);
+    }
+
+    @Test
+    void matchesTheCompositeEncoderOnEdgeCases() {
+        List<LoggingEvent> events = new ArrayList<>();
+        events.add(event(Level.WARN, "a.b.C", "quotes \" backslash \\ ctl \u0001\u001f\b\f\r\n\t del \u007f é ü € 😀 "
+                + "</script>", null, null, Map.of()));
+        events.add(event(Level.ERROR, "a.b.C", null, null, null, Map.of("blank", "  ", "k\"ey", "v\nal")));
+        events.add(event(Level.DEBUG, "weird \"logger\" ☃", "   ", null, null, Map.of()));
+        events.add(event(Level.TRACE, "a.b.C", "user {} failed: {}", new IllegalStateException(
+                "bad john.doe@example.com", new RuntimeException("cause +48 500 600 700")),
+                new Object[]{"john.doe@example.com", "x"}, Map.of()));
+        LoggingEvent wholeSecond = event(Level.INFO, "a.b.C", "m", null, null, Map.of());
+        wholeSecond.setTimeStamp(1_700_000_000_000L);
+        events.add(wholeSecond);
+        LoggingEvent nanos = event(Level.INFO, "a.b.C", "m", null, null, Map.of());
+        nanos.setInstant(Instant.ofEpochSecond(1_700_000_000L, 1));
+        events.add(nanos);
+
+        events.forEach(this::assertSameAsComposite);
+    }
+
+    @Test
+    void matchesTheCompositeEncoderOnRandomText() {
+        String[] pieces = {"a", "Z", "0", " ", "\"", "\\", "\n", "\u0000", "é", "€", "中", "😀", "@", ".",
+                "john.doe@example.com", "4111 1111 1111 1111", "+48 500 600 700", "Bearer abcdefghijklmnopqrstuvwx"};
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int n = random.nextInt(40); n > 0; n--) {
+                sb.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String text = sb.toString();
+            assertSameAsComposite(event(Level.INFO, "fuzz", text, null, null, Map.of("userNote", text)));
+        }
+    }
+
+    @Test
+    void handlesMessagesLargerThanThePooledBuffer() {
+        String big = "x\"".repeat(RedactingJsonEncoder.MAX_POOLED_BYTES);
+        LoggingEvent e = event(Level.INFO, "a.b.C", big, null, null, Map.of());
+
+        assertSameAsComposite(e);
+        // The next event still starts from a clean buffer.
+        assertSameAsComposite(event(Level.INFO, "a.b.C", "small", null, null, Map.of()));
+    }
+
+    @Test
+    void isSafeToCallFromSeveralThreads() throws Exception {
+        List<LoggingEvent> events = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            events.add(event(Level.INFO, "logger." + (i % 7), "event " + i + " for user" + i + "@example.com",
+                    null, null, Map.of("correlationId", "cid-" + i)));
+        }
+        List<String> expected = events.stream().map(e -> new String(composite.encode(e), StandardCharsets.UTF_8))
+                .toList();
+
+        Thread[] threads = new Thread[4];
+        List<List<String>> results = new ArrayList<>();
+        for (int t = 0; t < threads.length; t++) {
+            List<String> out = new ArrayList<>();
+            results.add(out);
+            threads[t] = new Thread(() -> events.forEach(e -> out.add(new String(encoder.encode(e),
+                    StandardCharsets.UTF_8))));
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertThat(results).allSatisfy(r -> assertThat(r).isEqualTo(expected));
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for per-key MDC policies in RedactingMdcJsonProvider.
+ */
+class RedactingMdcJsonProviderTest {
+
+    private final LoggerContext context = new LoggerContext();
+
+    private String write(RedactingMdcJsonProvider provider, Map<String, String> mdc) throws IOException {
+        provider.setContext(context);
+        provider.start();
+        LoggingEvent e = new LoggingEvent(getClass().getName(), context.getLogger("test"), Level.INFO, "m", null, null);
+        e.setMDCPropertyMap(mdc);
+
+        StringWriter out = new StringWriter();
+        try (JsonGenerator g = new JsonFactory().createGenerator(out)) {
+            g.writeStartObject();
+            provider.writeTo(g, e);
+            g.writeEndObject();
+        }
+        return out.toString();
+    }
+
+    private static Map<String, String> mdc(String... kv) {
+        Map<String, String> m = new LinkedHashMap<>();
+        for (int i = 0; i < kv.length; i += 2) {
+            m.put(kv[i], kv[i + 1]);
+        }
+        return m;
+    }
+
+    @Test
+    void writesAtRootWhenFieldNameIsNotSet() throws IOException {
+        String json = write(new RedactingMdcJsonProvider(), mdc("userEmail", "mdc.user@example.com"));
+        assertThat(json).isEqualTo("{\"userEmail\":\"m***r@example.com\"}");
+    }
+
+    @Test
+    void appliesPerKeyPolicies() throws IOException {
+        RedactingMdcJsonProvider provider = new RedactingMdcJsonProvider();
+        provider.setFieldName("mdc");
+        provider.addTrustedKey("correlationId");
+        provider.addRedactedKey("token");
+
+        String json = write(provider, mdc(
+                "correlationId", "+48 500 600 700",
+                "token", "abc",
+                "note", "call +48 500 600 700"));
+
+        assertThat(json).isEqualTo("{\"mdc\":{\"correlationId\":\"+48 500 600 700\",\"token\":\"***REDACTED***\","
+                + "\"note\":\"call ***PHONE***0700\"}}");
+    }
+
+    @Test
+    void honoursExcludeListAndSkipsEmptyObject() throws IOException {
+        RedactingMdcJsonProvider provider = new RedactingMdcJsonProvider();
+        provider.setFieldName("mdc");
+        provider.addExcludeMdcKeyName("route");
+
+        assertThat(write(provider, mdc("route", "/x"))).isEqualTo("{}");
+    }
+
+    @Test
+    void memoizedVerdictsFollowEngineSwaps() {
+        RedactingMdcJsonProvider.Verdicts verdicts = new RedactingMdcJsonProvider.Verdicts();
+        String value = "id=ABC-123";
+        assertThat(verdicts.redact(value)).isSameAs(value);
+        assertThat(verdicts.redact(new String(value))).isEqualTo(value);
+
+        RedactionEngine previous = Redactor.install(RedactionEngine.compile(List.of(
+                new PatternRule("ticket", "ABC-\\d+", null, "A", 0, 0))));
+        try {
+            assertThat(verdicts.redact(value)).isEqualTo("id=***TICKET***");
+        } finally {
+            Redactor.install(previous);
+        }
+        assertThat(verdicts.redact(value)).isEqualTo(value);
+    }
+
+    @Test
+    void memoizedVerdictsCountEveryUse() {
+        RedactingMdcJsonProvider.Verdicts verdicts = new RedactingMdcJsonProvider.Verdicts();
+        String value = "ann@example.com, bob@example.com";
+        long lines = Redactor.lines();
+        long emails = Redactor.emailRedactions();
+        long fastPath = Redactor.fastPathLines();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(verdicts.redact(value)).isEqualTo("a***n@example.com, b***b@example.com");
+            assertThat(verdicts.redact("plain")).isEqualTo("plain");
+        }
+
+        assertThat(Redactor.lines() - lines).isEqualTo(6);
+        assertThat(Redactor.emailRedactions() - emails).isEqualTo(6);
+        assertThat(Redactor.fastPathLines() - fastPath).isEqualTo(3);
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RedactingWriter, RedactingReader and RedactingOutputStream.
+ */
+class RedactingStreamsTest {
+
+    private static final String[] PIECES = {
+            "a.b@example.com", "4111 1111 1111 1111", "+48 500 600 700", "Zażółć gęślą jaźń ", "x", " ", "-", "9", "\n"
+    };
+
+    /** Engine without a length limit, so whole-string redaction is the reference for any input size. */
+    private static final RedactionEngine ENGINE =
+            RedactionEngine.compile(BuiltinRules.defaults(), new RedactionLimits(1 << 24, 1, 0));
+
+    private static String text(Random rnd, int length) {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < length) {
+            sb.append(PIECES[rnd.nextInt(PIECES.length)]);
+        }
+        return sb.toString();
+    }
+
+    private static String reference(String s) {
+        StringBuilder out = new StringBuilder();
+        ENGINE.scan(s, ENGINE.activeRules(s), out);
+        return out.toString();
+    }
+
+    @Test
+    void writerMatchesWholeStringRedactionForAnySplit() throws IOException {
+        Random rnd = new Random(20261017L);
+        for (int round = 0; round < 20; round++) {
+            String s = text(rnd, 20_000);
+            StringWriter sink = new StringWriter();
+            try (RedactingWriter w = new RedactingWriter(sink, ENGINE)) {
+                for (int i = 0; i < s.length(); ) {
+                    int n = Math.min(s.length() - i, 1 + rnd.nextInt(50));
+                    if (n == 1) {
+                        w.write(s.charAt(i));
+                    } else {
+                        w.write(s, i, n);
+                    }
+                    i += n;
+                    if (rnd.nextInt(20) == 0) {
+                        w.flush();
+                    }
+                }
+            }
+            assertThat(sink.toString()).isEqualTo(reference(s));
+        }
+    }
+
+    @Test
+    void cardSplitAcrossWritesIsMasked() throws IOException {
+        StringWriter sink = new StringWriter();
+        try (RedactingWriter w = new RedactingWriter(sink, ENGINE)) {
+            w.write("card=4111 1111 ");
+            w.flush();
+            w.write("1111 1111 ok");
+        }
+        assertThat(sink).hasToString("card=**** **** **** 1111 ok");
+    }
+
+    @Test
+    void readerMatchesWholeStringRedaction() throws IOException {
+        String s = text(new Random(7), 50_000);
+        StringBuilder out = new StringBuilder();
+        try (Reader r = new RedactingReader(new StringReader(s), ENGINE)) {
+            char[] buf = new char[777];
+            for (int n; (n = r.read(buf)) >= 0; ) {
+                out.append(buf, 0, n);
+            }
+        }
+        assertThat(out.toString()).isEqualTo(reference(s));
+    }
+
+    @Test
+    void outputStreamHandlesMultiByteCharactersSplitAcrossWrites() throws IOException {
+        String s = text(new Random(11), 30_000);
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        try (RedactingOutputStream out = new RedactingOutputStream(sink, ENGINE)) {
+            for (int i = 0; i < utf8.length; i += 3) {
+                out.write(utf8, i, Math.min(3, utf8.length - i));
+            }
+        }
+        assertThat(sink.toString(StandardCharsets.UTF_8)).isEqualTo(reference(s));
+    }
+}
@@ -0,0 +1,164 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for RedactionEngine.
+ */
+class RedactionEngineTest {
+
+    private static final PatternRule IPV4 =
+            new PatternRule("ipv4", "(?<![\\d.])(?:\\d{1,3}\\.){3}\\d{1,3}(?![\\d.])", "***IP***", "", 4, 0);
+
+    @AfterEach
+    void restoreBuiltins() {
+        Redactor.install(RedactionEngine.builtin());
+    }
+
+    @Test
+    void customRuleRunsInSamePassAsBuiltins() {
+        List<RedactionRule> rules = new ArrayList<>(BuiltinRules.defaults());
+        rules.add(IPV4);
+        Redactor.install(RedactionEngine.compile(rules));
+
+        assertThat(Redactor.redact("from 10.0.12.7 mail a.b@example.com"))
+                .isEqualTo("from ***IP*** mail a***b@example.com");
+    }
+
+    @Test
+    void prefilterSkipsRulesWhoseTriggersAreAbsent() {
+        RedactionEngine engine = RedactionEngine.compile(List.of(
+                new PatternRule("token", "tok_[a-z0-9]{8}", null, "_", 0, 4)));
+
+        assertThat(engine.activeRules("no underscore here")).isZero();
+        assertThat(engine.activeRules("key tok_abcd1234")).isEqualTo(1L);
+
+        StringBuilder out = new StringBuilder();
+        engine.scan("key tok_abcd1234", 1L, out);
+        assertThat(out).hasToString("key ***TOKEN***1234");
+    }
+
+    @Test
+    void subsetPatternGivesSameResultAsFullPattern() {
+        RedactionEngine engine = RedactionEngine.builtin();
+        String line = "call +48 500 600 700 now";
+        long active = engine.activeRules(line);
+        assertThat(active).isEqualTo(0b100L);
+
+        StringBuilder subset = new StringBuilder();
+        engine.scan(line, active, subset);
+        StringBuilder full = new StringBuilder();
+        engine.scan(line, 0b111L, full);
+        assertThat(subset).hasToString(full.toString());
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThatThrownBy(() -> RedactionEngine.compile(List.of(new PatternRule("x", "(", null, "", 0, 0))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("'x'");
+        assertThatThrownBy(() -> RedactionEngine.compile(List.of(new PatternRule("x", "(?<g>a)", null, "", 0, 0))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("named groups");
+        assertThatThrownBy(() -> RedactionEngine.compile(List.of(IPV4, IPV4)))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Duplicate");
+    }
+
+    @Test
+    void chunkedScanMatchesSinglePass() {
+        // Smallest chunk the engine allows: twice the longest match (a bearer token, 2064 chars).
+        RedactionEngine chunked = RedactionEngine.compile(BuiltinRules.defaults(), new RedactionLimits(1 << 20, 1, 0));
+        RedactionEngine single = RedactionEngine.builtin();
+        String[] pieces = {"a.b@example.com", "4111 1111 1111 1111", "+48 500 600 700", "1-2-3-4", "x", " ", "-", "9",
+                "Bearer ", "q7RZx2Lm9Tb4wKcY", "eyJhbGciOi.", "Q"};
+        Random rnd = new Random(20261017L);
+        for (int round = 0; round < 50; round++) {
+            StringBuilder line = new StringBuilder();
+            while (line.length() < 12_000) {
+                line.append(pieces[rnd.nextInt(pieces.length)]);
+            }
+            String s = line.toString();
+            StringBuilder a = new StringBuilder();
+            StringBuilder b = new StringBuilder();
+            chunked.scan(s, chunked.activeRules(s), a);
+            single.scan(s, single.activeRules(s), b);
+            assertThat(a.toString()).isEqualTo(b.toString());
+        }
+    }
+
+    @Test
+    void candidateSpansGiveSameResultAsFullScan() {
+        String[] pieces = {"a.b@example.com", "4111111111111111@Example.COM", "x_%+y@", "@", "4111 1111 1111 1111",
+                "(22) 500-600-70", "+48 500 600 700", "1-2-3-4", "x", "_", " ", ".", "-", "+", "(", "9", "@a.b.co",
+                "Bearer ", "bearer\t", "eyJhbGciOi", "eyJzdWIi.", "q7RZx2Lm9Tb4wKcY", "=", "/"};
+        List<CandidateLocator> locators = new ArrayList<>(List.of(CandidateLocator.SCALAR));
+        if (CandidateLocator.vector() != null) {
+            locators.add(CandidateLocator.vector());
+        }
+        RedactionLimits limits = new RedactionLimits(1 << 20, 1, 0);
+        RedactionEngine reference = RedactionEngine.compile(BuiltinRules.defaults(), limits, null);
+        Random rnd = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            StringBuilder line = new StringBuilder();
+            while (line.length() < 2_000) {
+                line.append(pieces[rnd.nextInt(pieces.length)]);
+            }
+            String s = line.toString();
+            StringBuilder expected = new StringBuilder();
+            long expectedHits = reference.scan(s, reference.activeRules(s), expected);
+            for (CandidateLocator locator : locators) {
+                RedactionEngine engine = RedactionEngine.compile(BuiltinRules.defaults(), limits, locator);
+                StringBuilder out = new StringBuilder();
+                long hits = engine.scan(s, engine.activeRules(s), out);
+                assertThat(out.toString()).as(locator.toString()).isEqualTo(expected.toString());
+                assertThat(hits).isEqualTo(expectedHits);
+            }
+        }
+    }
+
+    @Test
+    void truncatesPastMaxLength() {
+        RedactionEngine engine = RedactionEngine.compile(BuiltinRules.defaults(), new RedactionLimits(20, 8192, 0));
+        String line = "mail a.b@example.com and then a lot more text";
+        StringBuilder out = new StringBuilder();
+
+        long hits = engine.scan(line, engine.activeRules(line), out);
+
+        assertThat(hits & RedactionEngine.TRUNCATED).isNotZero();
+        assertThat(out).hasToString("mail a***b@example.com***TRUNCATED 25 chars***");
+        assertThat(engine.truncates(line.length())).isTrue();
+    }
+
+    @Test
+    void unscannedRemainderIsNeverWrittenWhenBudgetRunsOut() {
+        RedactionEngine engine = RedactionEngine.compile(BuiltinRules.defaults(), new RedactionLimits(1 << 20, 1, 1));
+        String line = "x".repeat(10_000) + " a.b@example.com";
+        StringBuilder out = new StringBuilder();
+
+        long hits = engine.scan(line, engine.activeRules(line), out);
+
+        assertThat(hits & RedactionEngine.TRUNCATED).isNotZero();
+        assertThat(out.toString()).doesNotContain("a.b@example.com").contains("***TRUNCATED ");
+    }
+
+    @Test
+    void unboundedRuleStaysLinearOnLongRuns() {
+        RedactionEngine engine = RedactionEngine.compile(List.of(new PatternRule("hex", "[0-9a-f]+g", null, "", 0, 0)),
+                new RedactionLimits(1 << 20, 1024, 0));
+        String line = "0123456789abcdef".repeat(2_048);
+        StringBuilder out = new StringBuilder();
+
+        long t0 = System.nanoTime();
+        engine.scan(line, engine.activeRules(line), out);
+
+        assertThat(out).hasToString(line);
+        assertThat(System.nanoTime() - t0).isLessThan(TimeUnit.SECONDS.toNanos(10));
+    }
+}
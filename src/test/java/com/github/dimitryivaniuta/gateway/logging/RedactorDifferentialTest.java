@@ -0,0 +1,169 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Differential test: the single-pass {@link Redactor} against the original sequential regex passes.
+ */
+class RedactorDifferentialTest {
+
+    private static final String[] EMAILS = {
+            "john.doe+test@example.com", "ab@x.io", "Alice_W@Sub.Example.ORG", "u-1@mail-server.net"
+    };
+    private static final String[] PHONES = {
+            "+48 500 600 700", "+1 (415) 555-2671", "500-600-700", "(22) 123 45 67", "+44.20.7946.0958"
+    };
+    private static final String[] CARDS = {
+            "4111 1111 1111 1111", "5500-0000-0000-0004", "4012888888881881", "378282246310005"
+    };
+    /** 13 to 19 digits that fail the Luhn check: phone numbers inside them are still masked. */
+    private static final String[] NOT_CARDS = {
+            "1234 5678 9012 3456", "12345678901234", "1697500000123", "415 555 1234 2024", "4111 1111 1111 1112",
+            "1234-5678-9012-3456-789"
+    };
+    private static final String[] FILLERS = {
+            "http_access", "method=GET", "path=/x", "status=200", "tookMs=3", "user", "at", "hello world",
+            "id=42", "ok", "a.b-c", "key=value", "(note)", "+", "-", "v1.2"
+    };
+
+    @Test
+    void matchesReferenceOnGeneratedCorpus() {
+        Random rnd = new Random(20261017L);
+        for (int i = 0; i < 20_000; i++) {
+            String line = randomLine(rnd);
+            assertThat(Redactor.redact(line)).as(line).isEqualTo(Reference.redact(line));
+        }
+    }
+
+    @Test
+    void matchesReferenceOnFixedSamples() {
+        String[] samples = {
+                "demo_payload email=john.doe@example.com phone=+48 500 600 700 card=4111 1111 1111 1111 message=hello",
+                "Boom for email=alice@example.com phone=+1 (415) 555-2671",
+                "nothing to see here",
+                "x@y",
+                "tookMs=1234567",
+                "call 415 555 1234 2024 x",
+                "id=1234 5678 9012 3456",
+                "acct 12345678901234",
+                "ts=1697500000123",
+                "card=4111 1111 1111 1111 end",
+                "4111-1111-1111-1111-x",
+        };
+        for (String s : samples) {
+            assertThat(Redactor.redact(s)).as(s).isEqualTo(Reference.redact(s));
+        }
+    }
+
+    private static String randomLine(Random rnd) {
+        StringBuilder sb = new StringBuilder();
+        int tokens = 1 + rnd.nextInt(8);
+        for (int t = 0; t < tokens; t++) {
+            if (t > 0) {
+                sb.append(rnd.nextBoolean() ? " | " : ", ");
+            }
+            switch (rnd.nextInt(6)) {
+                case 0 -> sb.append("email=").append(EMAILS[rnd.nextInt(EMAILS.length)]);
+                case 1 -> sb.append("phone=").append(PHONES[rnd.nextInt(PHONES.length)]);
+                case 2 -> sb.append("card=").append(CARDS[rnd.nextInt(CARDS.length)]);
+                case 3 -> sb.append("n=").append(rnd.nextInt(1_000_000));
+                case 4 -> sb.append("id=").append(NOT_CARDS[rnd.nextInt(NOT_CARDS.length)]);
+                default -> sb.append(FILLERS[rnd.nextInt(FILLERS.length)]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The original implementation: one find() probe plus one rewrite pass per rule.
+     *
+     * <p>Passes run in the documented precedence (email, card, phone). The card pass has to run before the
+     * phone pass, otherwise the phone rule splits card numbers into phone-shaped fragments. The card pattern only
+     * takes a separator between two digits; the original one also took a trailing separator, which the mask
+     * dropped.</p>
+     */
+    static final class Reference {
+
+        private static final Pattern EMAIL = Pattern.compile(
+                "(?i)([a-z0-9._%+-]{1,64})@([a-z0-9.-]{1,253}\\.[a-z]{2,24})"
+        );
+
+        private static final Pattern PHONE = Pattern.compile(
+                "(?x)(?<!\\d)(\\+?\\d{1,3}[\\s.-]?)?(\\(?\\d{2,4}\\)?[\\s.-]?)?\\d{3}[\\s.-]?\\d{2,3}[\\s.-]?\\d{2,3}(?!\\d)"
+        );
+
+        private static final Pattern CARD_CANDIDATE = Pattern.compile(
+                "(?<!\\d)\\d(?:[ -]?\\d){12,18}(?!\\d)"
+        );
+
+        static String redact(String input) {
+            if (input == null || input.isBlank()) {
+                return "";
+            }
+            String out = input;
+            if (EMAIL.matcher(out).find()) {
+                out = redactEmail(out);
+            }
+            if (CARD_CANDIDATE.matcher(out).find()) {
+                out = redactCard(out);
+            }
+            if (PHONE.matcher(out).find()) {
+                out = redactPhone(out);
+            }
+            return out;
+        }
+
+        private static String redactEmail(String s) {
+            Matcher m = EMAIL.matcher(s);
+            StringBuffer sb = new StringBuffer();
+            while (m.find()) {
+                String local = m.group(1);
+                String domain = m.group(2);
+                String maskedLocal = local.length() <= 2 ? "***" : local.substring(0, 1) + "***" + local.substring(local.length() - 1);
+                m.appendReplacement(sb, Matcher.quoteReplacement(maskedLocal + "@" + domain.toLowerCase(Locale.ROOT)));
+            }
+            m.appendTail(sb);
+            return sb.toString();
+        }
+
+        private static String redactPhone(String s) {
+            Matcher m = PHONE.matcher(s);
+            StringBuffer sb = new StringBuffer();
+            while (m.find()) {
+                String raw = m.group();
+                String digits = raw.replaceAll("\\D", "");
+                if (digits.length() < 7) {
+                    m.appendReplacement(sb, Matcher.quoteReplacement(raw));
+                    continue;
+                }
+                String suffix = digits.length() <= 4 ? digits : digits.substring(digits.length() - 4);
+                m.appendReplacement(sb, Matcher.quoteReplacement("***PHONE***" + suffix));
+            }
+            m.appendTail(sb);
+            return sb.toString();
+        }
+
+        private static String redactCard(String s) {
+            Matcher m = CARD_CANDIDATE.matcher(s);
+            StringBuffer sb = new StringBuffer();
+            while (m.find()) {
+                String raw = m.group();
+                String digits = raw.replaceAll("\\D", "");
+                if (digits.length() < 13 || digits.length() > 19 || !Redactor.luhnValid(digits)) {
+                    m.appendReplacement(sb, Matcher.quoteReplacement(raw));
+                    continue;
+                }
+                m.appendReplacement(sb, Matcher.quoteReplacement("**** **** **** " + digits.substring(digits.length() - 4)));
+            }
+            m.appendTail(sb);
+            return sb.toString();
+        }
+    }
+}
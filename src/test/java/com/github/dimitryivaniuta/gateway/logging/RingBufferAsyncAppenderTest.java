@@ -0,0 +1,607 @@
+package com.github.dimitryivaniuta.gateway.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.encoder.EchoEncoder;
+import ch.qos.logback.core.read.ListAppender;
+import ch.qos.logback.core.util.Duration;
+import ch.qos.logback.core.util.FileSize;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for RingBufferAsyncAppender, RingBuffer, SpillQueue and AdaptiveLevelFilter.
+ */
+class RingBufferAsyncAppenderTest {
+
+    @TempDir
+    Path dir;
+
+    private final LoggerContext context = new LoggerContext();
+
+    private LoggingEvent event(String message) {
+        return event(message, Level.INFO);
+    }
+
+    private LoggingEvent event(String message, Level level) {
+        LoggingEvent e = new LoggingEvent(RingBufferAsyncAppenderTest.class.getName(), context.getLogger("test"),
+                level, message, null, null);
+        e.setMDCPropertyMap(Map.of());
+        return e;
+    }
+
+    private RingBufferAsyncAppender async(String name, ch.qos.logback.core.Appender<ILoggingEvent> downstream) {
+        downstream.setContext(context);
+        downstream.start();
+        RingBufferAsyncAppender appender = new RingBufferAsyncAppender();
+        appender.setContext(context);
+        appender.setName(name);
+        appender.addAppender(downstream);
+        return appender;
+    }
+
+    @Test
+    void ringBufferRejectsWhenFullAndKeepsOrder() {
+        RingBuffer<Integer> ring = new RingBuffer<>(3);
+        assertThat(ring.capacity()).isEqualTo(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+        assertThat(ring.offer(4)).isFalse();
+        assertThat(ring.size()).isEqualTo(4);
+
+        assertThat(ring.poll()).isEqualTo(0);
+        assertThat(ring.offer(4)).isTrue();
+        Integer[] batch = new Integer[8];
+        assertThat(ring.drainTo(batch, 8)).isEqualTo(4);
+        assertThat(batch).startsWith(1, 2, 3, 4);
+        assertThat(ring.isEmpty()).isTrue();
+        assertThat(ring.poll()).isNull();
+    }
+
+    @Test
+    void deliversEveryEventInPerThreadOrder() throws Exception {
+        List<String> received = new ArrayList<>();
+        AppenderBase<ILoggingEvent> sink = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent e) {
+                received.add(e.getFormattedMessage());
+            }
+        };
+        for (String strategy : new String[]{"sleeping", "yielding", "busy-spin", "blocking"}) {
+            received.clear();
+            RingBufferAsyncAppender appender = async("order-" + strategy, sink);
+            appender.setBufferSize(64);
+            appender.setWaitStrategy(strategy);
+            appender.start();
+
+            int threads = 4;
+            int perThread = 5_000;
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int id = t;
+                producers.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        appender.doAppend(event(id + ":" + i));
+                    }
+                }));
+            }
+            for (Thread p : producers) {
+                p.join();
+            }
+            appender.stop();
+
+            assertThat(received).as(strategy).hasSize(threads * perThread);
+            Map<String, Integer> last = new HashMap<>();
+            for (String m : received) {
+                String[] parts = m.split(":");
+                int seq = Integer.parseInt(parts[1]);
+                assertThat(seq).as(strategy).isEqualTo(last.getOrDefault(parts[0], -1) + 1);
+                last.put(parts[0], seq);
+            }
+            AsyncAppenderStats stats = AsyncAppenderStats.of("order-" + strategy);
+            assertThat(stats.enqueued()).isEqualTo(threads * perThread);
+            assertThat(stats.dropped()).isZero();
+            assertThat(stats.queueCapacity()).isZero();
+        }
+    }
+
+    @Test
+    void dropsAndCountsWhenFullAndNeverBlock() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch firstSeen = new CountDownLatch(1);
+        AtomicInteger delivered = new AtomicInteger();
+        AppenderBase<ILoggingEvent> slow = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent e) {
+                firstSeen.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.incrementAndGet();
+            }
+        };
+        RingBufferAsyncAppender appender = async("drop", slow);
+        appender.setBufferSize(8);
+        appender.setNeverBlock(true);
+        appender.setInfoLaneCapacity(1.0);
+        appender.start();
+
+        appender.doAppend(event("first"));
+        assertThat(firstSeen.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 20; i++) {
+            appender.doAppend(event("e" + i));
+        }
+        AsyncAppenderStats stats = AsyncAppenderStats.of("drop");
+        assertThat(stats.queueDepth()).isEqualTo(8);
+        assertThat(stats.dropped()).isEqualTo(12);
+
+        release.countDown();
+        appender.stop();
+        assertThat(delivered.get()).isEqualTo(9);
+    }
+
+    @Test
+    void shedsLowerLevelsFirstToKeepRoomForWarningsAndErrors() throws Exception {
+        GatedAppender gate = new GatedAppender();
+        RingBufferAsyncAppender appender = async("lanes", gate);
+        appender.setBufferSize(8);
+        appender.setNeverBlock(true);
+        appender.start();
+        appender.doAppend(event("first"));
+        assertThat(gate.firstSeen.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event("debug " + i, Level.DEBUG));
+        }
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event("info " + i));
+        }
+        appender.doAppend(event("warn", Level.WARN));
+        appender.doAppend(event("error", Level.ERROR));
+
+        AsyncAppenderStats stats = AsyncAppenderStats.of("lanes");
+        assertThat(stats.shed(Level.DEBUG)).isEqualTo(6);
+        assertThat(stats.shed(Level.INFO)).isEqualTo(8);
+        assertThat(stats.dropped()).isZero();
+        gate.release.countDown();
+        appender.stop();
+        assertThat(gate.received).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("first", "debug 0", "debug 1", "debug 2", "debug 3", "info 0", "info 1",
+                        "warn", "error");
+    }
+
+    @Test
+    void raisesNoisyLoggersWhileTheQueueFillsAndRestoresThemOnceDrained() throws Exception {
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        GatedAppender gate = new GatedAppender();
+        RingBufferAsyncAppender appender = async("adaptive", gate);
+        appender.setBufferSize(16);
+        appender.addAdaptiveLogger("noisy");
+        appender.setAdaptiveMinDuration(Duration.buildByMilliseconds(0));
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.addAppender(appender);
+        Logger noisy = context.getLogger("noisy.child");
+
+        context.getLogger("other").info("first");
+        assertThat(gate.firstSeen.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 0; i < 9; i++) {
+            context.getLogger("other").info("other " + i);
+        }
+        AsyncAppenderStats stats = AsyncAppenderStats.of("adaptive");
+        assertThat(stats.adaptiveActive()).isTrue();
+        noisy.info("suppressed");
+        noisy.warn("kept");
+        context.getLogger("noisyish").info("not a child");
+        assertThat(stats.suppressed()).isEqualTo(1);
+
+        gate.release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (stats.adaptiveActive() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(stats.adaptiveActive()).isFalse();
+        noisy.info("after");
+        appender.stop();
+        root.detachAppender(appender);
+
+        assertThat(gate.received).extracting(ILoggingEvent::getFormattedMessage)
+                .contains("kept", "not a child", "after").doesNotContain("suppressed");
+        assertThat(stats.adaptiveRaises()).isEqualTo(1);
+        assertThat(context.getTurboFilterList()).isEmpty();
+    }
+
+    @Test
+    void flushesOutputStreamOncePerBatch() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        OutputStreamAppender<ILoggingEvent> out = new OutputStreamAppender<>();
+        out.setEncoder(new EchoEncoder<>());
+        out.setOutputStream(bytes);
+        RingBufferAsyncAppender appender = async("flush", out);
+        appender.setWaitStrategy("blocking");
+        appender.start();
+        assertThat(out.isImmediateFlush()).isFalse();
+
+        for (int i = 0; i < 2_000; i++) {
+            appender.doAppend(event("line " + i));
+        }
+        appender.stop();
+
+        AsyncAppenderStats stats = AsyncAppenderStats.of("flush");
+        assertThat(bytes.toString()).contains("line 0", "line 1999");
+        assertThat(stats.batches()).isPositive();
+        assertThat((long) flushes.get()).isLessThanOrEqualTo(stats.batches() + 1);
+        assertThat(stats.meanBatchSize()).isGreaterThanOrEqualTo(1.0);
+        assertThat(out.isImmediateFlush()).isTrue();
+        assertThat(out.isStarted()).isFalse();
+    }
+
+    @Test
+    void doesNotStartWithoutAttachedAppenders() {
+        RingBufferAsyncAppender appender = new RingBufferAsyncAppender();
+        appender.setContext(context);
+        appender.setName("empty");
+        appender.start();
+        assertThat(appender.isStarted()).isFalse();
+    }
+
+    /** Downstream appender that holds the consumer thread on the first event until released. */
+    private static final class GatedAppender extends AppenderBase<ILoggingEvent> {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch firstSeen = new CountDownLatch(1);
+        final List<ILoggingEvent> received = new ArrayList<>();
+
+        @Override
+        protected void append(ILoggingEvent e) {
+            firstSeen.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(e);
+        }
+    }
+
+    private RingBufferAsyncAppender spilling(String name, GatedAppender gate) throws InterruptedException {
+        RingBufferAsyncAppender appender = async(name, gate);
+        appender.setBufferSize(16);
+        appender.setSpillDirectory(dir.toString());
+        appender.addSpillTrustedKey("correlationId");
+        appender.start();
+        appender.doAppend(event("first"));
+        assertThat(gate.firstSeen.await(5, TimeUnit.SECONDS)).isTrue();
+        return appender;
+    }
+
+    private String spillFiles(String name) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        try (Stream<Path> files = Files.list(dir.resolve(name))) {
+            for (Path p : files.toList()) {
+                sb.append(new String(Files.readAllBytes(p), StandardCharsets.ISO_8859_1));
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void spillsInsteadOfDroppingAndReplaysInPerThreadOrder() throws Exception {
+        GatedAppender gate = new GatedAppender();
+        RingBufferAsyncAppender appender = spilling("spill-order", gate);
+
+        int threads = 3;
+        int perThread = 2_000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    appender.doAppend(event(id + ":" + i));
+                }
+            }));
+        }
+        for (Thread p : producers) {
+            p.join();
+        }
+        AsyncAppenderStats stats = AsyncAppenderStats.of("spill-order");
+        assertThat(stats.spilled()).isGreaterThan(threads * perThread - 16);
+        gate.release.countDown();
+        appender.stop();
+
+        assertThat(stats.dropped()).isZero();
+        assertThat(stats.replayed()).isEqualTo(stats.spilled());
+        assertThat(gate.received).hasSize(threads * perThread + 1);
+        Map<String, Integer> last = new HashMap<>();
+        for (ILoggingEvent e : gate.received.subList(1, gate.received.size())) {
+            String[] parts = e.getFormattedMessage().split(":");
+            int seq = Integer.parseInt(parts[1]);
+            assertThat(seq).isEqualTo(last.getOrDefault(parts[0], -1) + 1);
+            last.put(parts[0], seq);
+        }
+        assertThat(spillFiles("spill-order")).isEmpty();
+    }
+
+    @Test
+    void keepsPerThreadOrderWhileSwitchingBetweenRingAndSpill() throws Exception {
+        List<String> received = new ArrayList<>();
+        AppenderBase<ILoggingEvent> bursty = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent e) {
+                if (received.size() % 64 == 0) {
+                    LockSupport.parkNanos(200_000);
+                }
+                received.add(e.getFormattedMessage());
+            }
+        };
+        RingBufferAsyncAppender appender = async("spill-switch", bursty);
+        appender.setBufferSize(32);
+        appender.setSpillDirectory(dir.toString());
+        appender.start();
+
+        int threads = 4;
+        int perThread = 5_000;
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            producers.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    appender.doAppend(event(id + ":" + i));
+                    if (i % 500 == 0) {
+                        LockSupport.parkNanos(1_000_000);
+                    }
+                }
+            }));
+        }
+        for (Thread p : producers) {
+            p.join();
+        }
+        appender.stop();
+
+        AsyncAppenderStats stats = AsyncAppenderStats.of("spill-switch");
+        assertThat(stats.dropped()).isZero();
+        assertThat(stats.spilled()).isPositive();
+        assertThat(received).hasSize(threads * perThread);
+        Map<String, Integer> last = new HashMap<>();
+        for (String m : received) {
+            String[] parts = m.split(":");
+            int seq = Integer.parseInt(parts[1]);
+            assertThat(seq).isEqualTo(last.getOrDefault(parts[0], -1) + 1);
+            last.put(parts[0], seq);
+        }
+    }
+
+    @Test
+    void neverWritesUnredactedValuesToTheSpill() throws Exception {
+        GatedAppender gate = new GatedAppender();
+        RingBufferAsyncAppender appender = spilling("spill-redacted", gate);
+        for (int i = 0; i < 40; i++) {
+            LoggingEvent e = new LoggingEvent(RingBufferAsyncAppenderTest.class.getName(), context.getLogger("test"),
+                    Level.WARN, "login {} failed", new IllegalStateException("bad user john.doe@example.com"),
+                    new Object[]{"john.doe@example.com"});
+            e.setMDCPropertyMap(Map.of("correlationId", "c0ffee-" + i, "userEmail", "jane.roe@example.com"));
+            appender.doAppend(e);
+        }
+        AsyncAppenderStats stats = AsyncAppenderStats.of("spill-redacted");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!spillFiles("spill-redacted").contains("c0ffee-39") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        String onDisk = spillFiles("spill-redacted");
+        assertThat(stats.spillBytes()).isPositive();
+        assertThat(onDisk).contains("c0ffee-39", "login", "IllegalStateException")
+                .doesNotContain("john.doe@example.com", "jane.roe@example.com");
+
+        gate.release.countDown();
+        appender.stop();
+        ILoggingEvent replayed = gate.received.get(gate.received.size() - 1);
+        assertThat(replayed.getLevel()).isEqualTo(Level.WARN);
+        assertThat(replayed.getFormattedMessage()).startsWith("login j***e@example.com failed")
+                .contains("IllegalStateException: bad user j***e@example.com");
+        assertThat(replayed.getMDCPropertyMap()).containsEntry("correlationId", "c0ffee-39")
+                .containsEntry("userEmail", Redactor.redact("jane.roe@example.com"));
+    }
+
+    @Test
+    void shedsLowerLevelsFirstWhenTheSpillFillsUp() throws Exception {
+        GatedAppender gate = new GatedAppender();
+        RingBufferAsyncAppender appender = async("spill-lanes", gate);
+        appender.setBufferSize(16);
+        appender.setSpillDirectory(dir.toString());
+        appender.setSpillSegmentSize(new FileSize(1024));
+        // Four segments: INFO may fill three of them, DEBUG two.
+        appender.setMaxSpillSize(new FileSize(4096));
+        appender.start();
+        appender.doAppend(event("first"));
+        assertThat(gate.firstSeen.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 100; i++) {
+            appender.doAppend(event("info " + i));
+        }
+        for (int i = 0; i < 3; i++) {
+            appender.doAppend(event("warn " + i, Level.WARN));
+            appender.doAppend(event("error " + i, Level.ERROR));
+        }
+        AsyncAppenderStats stats = AsyncAppenderStats.of("spill-lanes");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!spillFiles("spill-lanes").contains("error 2") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(stats.shed(Level.INFO)).isPositive();
+        assertThat(stats.dropped()).isZero();
+
+        gate.release.countDown();
+        appender.stop();
+        assertThat(stats.dropped(Level.WARN) + stats.dropped(Level.ERROR)).isZero();
+        List<String> messages = gate.received.stream().map(ILoggingEvent::getFormattedMessage).toList();
+        assertThat(messages).hasSize((int) (1 + 100 + 6 - stats.shed(Level.INFO)))
+                .endsWith("warn 0", "error 0", "warn 1", "error 1", "warn 2", "error 2");
+    }
+
+    @Test
+    void countsDropsPerLevel() throws Exception {
+        GatedAppender gate = new GatedAppender();
+        RingBufferAsyncAppender appender = async("drop-levels", gate);
+        appender.setBufferSize(8);
+        appender.setNeverBlock(true);
+        appender.setInfoLaneCapacity(1.0);
+        appender.start();
+        appender.doAppend(event("first"));
+        assertThat(gate.firstSeen.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 10; i++) {
+            appender.doAppend(event("info " + i));
+        }
+        appender.doAppend(event("error", Level.ERROR));
+
+        AsyncAppenderStats stats = AsyncAppenderStats.of("drop-levels");
+        assertThat(stats.dropped(Level.INFO)).isEqualTo(2);
+        assertThat(stats.dropped(Level.ERROR)).isEqualTo(1);
+        assertThat(stats.dropped()).isEqualTo(3);
+        gate.release.countDown();
+        appender.stop();
+    }
+
+    @Test
+    void spillQueueResumesAfterARestartWithoutReplayingTwice() throws IOException {
+        SpillQueue first = new SpillQueue(dir, 1024, 8);
+        for (int i = 0; i < 100; i++) {
+            assertThat(first.append(("record " + i).getBytes(StandardCharsets.UTF_8))).isTrue();
+        }
+        for (int i = 0; i < 30; i++) {
+            assertThat(new String(first.poll(), StandardCharsets.UTF_8)).isEqualTo("record " + i);
+        }
+        first.close();
+
+        SpillQueue second = new SpillQueue(dir, 1024, 8);
+        assertThat(second.recovered()).isEqualTo(70);
+        for (int i = 30; i < 100; i++) {
+            assertThat(new String(second.poll(), StandardCharsets.UTF_8)).isEqualTo("record " + i);
+        }
+        assertThat(second.poll()).isNull();
+        assertThat(second.append("after".getBytes(StandardCharsets.UTF_8))).isTrue();
+        assertThat(second.poll()).asString(StandardCharsets.UTF_8).isEqualTo("after");
+        second.close();
+        assertThat(segmentFiles(dir)).isZero();
+    }
+
+    private static long segmentFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".seg")).count();
+        }
+    }
+
+    @Test
+    void spillQueueRefusesADirectoryThatAnotherQueueHolds() throws IOException {
+        SpillQueue first = new SpillQueue(dir, 1024, 8);
+        for (int i = 0; i < 10; i++) {
+            assertThat(first.append(("record " + i).getBytes(StandardCharsets.UTF_8))).isTrue();
+        }
+
+        assertThatThrownBy(() -> new SpillQueue(dir, 1024, 8))
+                .isInstanceOf(SpillQueue.DirectoryInUseException.class);
+        // The refused queue neither replayed nor deleted anything.
+        for (int i = 0; i < 10; i++) {
+            assertThat(first.poll()).asString(StandardCharsets.UTF_8).isEqualTo("record " + i);
+        }
+        assertThat(first.append("more".getBytes(StandardCharsets.UTF_8))).isTrue();
+        first.close();
+
+        SpillQueue second = new SpillQueue(dir, 1024, 8);
+        assertThat(second.recovered()).isEqualTo(1);
+        second.close();
+    }
+
+    @Test
+    void appenderRunsWithoutSpillWhenTheDirectoryIsHeld() throws Exception {
+        SpillQueue held = new SpillQueue(dir.resolve("spill-held"), 1024, 8);
+        try {
+            ListAppender<ILoggingEvent> list = new ListAppender<>();
+            RingBufferAsyncAppender appender = async("spill-held", list);
+            appender.setSpillDirectory(dir.toString());
+            appender.start();
+
+            assertThat(appender.isStarted()).isTrue();
+            assertThat(context.getStatusManager().getCopyOfStatusList())
+                    .anySatisfy(st -> assertThat(st.getMessage()).contains("runs without spill"));
+            appender.doAppend(event("logged"));
+            appender.stop();
+            assertThat(list.list).extracting(ILoggingEvent::getMessage).containsExactly("logged");
+        } finally {
+            held.close();
+        }
+    }
+
+    @Test
+    void spillQueueReusesItsSegmentFiles() throws IOException {
+        SpillQueue queue = new SpillQueue(dir, 1024, 2);
+        byte[] record = new byte[100];
+        for (int i = 0; i < 1_000; i++) {
+            record[0] = (byte) i;
+            assertThat(queue.append(record)).isTrue();
+            assertThat(queue.poll()[0]).isEqualTo((byte) i);
+            assertThat(segmentFiles(dir)).isLessThanOrEqualTo(2);
+            assertThat(queue.bytesOnDisk()).isLessThanOrEqualTo(2048);
+        }
+        queue.close();
+        assertThat(segmentFiles(dir)).isZero();
+    }
+
+    @Test
+    void spillQueueIsBoundedBySegments() throws IOException {
+        SpillQueue queue = new SpillQueue(dir, 1024, 2);
+        byte[] record = new byte[100];
+        int accepted = 0;
+        while (queue.append(record)) {
+            accepted++;
+        }
+        assertThat(accepted).isEqualTo(2 * ((1024 - 4) / 104));
+        assertThat(queue.bytesOnDisk()).isEqualTo(2048);
+        assertThat(queue.append(new byte[2048])).isFalse();
+    }
+
+    @Test
+    void spillQueueAppendsWithinAGivenNumberOfSegments() throws IOException {
+        SpillQueue queue = new SpillQueue(dir, 1024, 4);
+        byte[] record = new byte[100];
+        int accepted = 0;
+        while (queue.append(record, 1)) {
+            accepted++;
+        }
+        assertThat(accepted).isEqualTo((1024 - 4) / 104);
+        assertThat(queue.append(record, 2)).isTrue();
+        assertThat(queue.bytesOnDisk()).isEqualTo(2048);
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.dimitryivaniuta.gateway.metrics;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.github.dimitryivaniuta.gateway.config.LoggingProperties;
+import com.github.dimitryivaniuta.gateway.logging.RedactedMessageConverter;
+import com.github.dimitryivaniuta.gateway.logging.RedactionTelemetry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for MicrometerRedactionObserver.
+ */
+class MicrometerRedactionObserverTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LoggerContext context = new LoggerContext();
+
+    @AfterEach
+    void uninstall() {
+        RedactionTelemetry.uninstall();
+    }
+
+    private void log(String logger, String message) {
+        new RedactedMessageConverter().convert(
+                new LoggingEvent(getClass().getName(), context.getLogger(logger), Level.INFO, message, null, null));
+    }
+
+    @Test
+    void recordsSampledTimersAndHitsByLogger() {
+        RedactionTelemetry.install(new MicrometerRedactionObserver(registry, new LoggingProperties.Metrics(true, 1.0, 10)));
+
+        log("a.Service", "mail john@example.com");
+        log("a.Service", "nothing here");
+
+        assertThat(registry.get("pii.redaction.time").tag("site", "message").timer().count()).isEqualTo(2);
+        assertThat(registry.get("pii.redaction.active.scan.time").tag("rule", "email").timer().count()).isEqualTo(1);
+        assertThat(registry.get("pii.redaction.input.length").tag("site", "message").summary().totalAmount()).isEqualTo(33);
+        assertThat(registry.get("pii.redaction.hits").tags("rule", "email", "logger", "a.Service").counter().count())
+                .isEqualTo(1);
+
+        log("a.Service", "mail jane@example.com");
+        assertThat(registry.get("pii.redaction.hits").tags("rule", "email", "logger", "a.Service").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void capsLoggerTagCardinality() {
+        RedactionTelemetry.install(new MicrometerRedactionObserver(registry, new LoggingProperties.Metrics(true, 0.0, 1)));
+
+        log("first", "mail john@example.com");
+        log("second", "mail john@example.com");
+
+        assertThat(registry.get("pii.redaction.hits").tag("logger", "first").counter().count()).isEqualTo(1);
+        assertThat(registry.get("pii.redaction.hits").tag("logger", MicrometerRedactionObserver.OTHER).counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("pii.redaction.time").tag("site", "message").timer().count()).isZero();
+    }
+}